@@ -0,0 +1,109 @@
+package Benchmark;
+
+import Model.Database.DataManagerException;
+import Model.Database.JooqDataManager;
+import Model.Database.SqliteProfile;
+import Model.Entities.Appointment;
+import Model.Entities.Tag;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appointment inserts with up to two tags, run against a private copy of the dataset.
+ * All benchmarks report the time per appointment, so the single, async and bulk paths can be compared directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AddAppointmentBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int appointments;
+
+    @Param({"10", "1000"})
+    public int tags;
+
+    @Param({"DURABLE", "FAST"})
+    public SqliteProfile profile;
+
+    private static final int BULK_SIZE = 1000;
+
+    private Path databaseCopy;
+    private JooqDataManager dataManager;
+    private List<Tag> allTags;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void openDatabase() throws Exception {
+        databaseCopy = BenchmarkDatabase.copy(appointments, tags);
+        dataManager = new JooqDataManager(databaseCopy.toString(), profile);
+        allTags = dataManager.getAllTags();
+        random = new Random(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDatabase() throws Exception {
+        dataManager.close();
+        Files.deleteIfExists(databaseCopy);
+    }
+
+    @Benchmark
+    public int addAppointment() throws DataManagerException {
+        return dataManager.addAppointment(randomAppointment());
+    }
+
+    /**
+     * Eight threads adding appointments at the same time, their writes share commits on the writer connection.
+     */
+    @Benchmark
+    @Threads(8)
+    public int addAppointmentConcurrently() throws DataManagerException {
+        return dataManager.addAppointment(randomAppointment());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public List<Integer> addAppointments() throws DataManagerException {
+        List<Appointment> appointmentList = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < BULK_SIZE; i++) {
+            appointmentList.add(randomAppointment());
+        }
+        return dataManager.addAppointments(appointmentList);
+    }
+
+    /**
+     * Queues single appointments without waiting for each commit, the writer coalesces them into group commits.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public List<Integer> addAppointmentAsync() {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < BULK_SIZE; i++) {
+            futures.add(dataManager.addAppointmentAsync(randomAppointment(), false));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private Appointment randomAppointment() {
+        LocalDateTime start = BenchmarkDatabase.randomDateTime(random);
+        Tag first = allTags.get(random.nextInt(allTags.size()));
+        Tag second = allTags.get(random.nextInt(allTags.size()));
+        return new Appointment(
+                start,
+                start.plusHours(1),
+                "Benchmark",
+                "Inserted by the benchmark",
+                first.equals(second) ? List.of(first) : List.of(first, second));
+    }
+}
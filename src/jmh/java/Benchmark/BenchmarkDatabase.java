@@ -0,0 +1,126 @@
+package Benchmark;
+
+import Model.Database.JooqDataManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+/**
+ * Generates the synthetic SQLite databases the benchmarks run against.
+ * Every combination of appointment and tag amount is generated once and kept in target/benchmark-data,
+ * so only the first run pays for creating the one million appointment database.
+ */
+final class BenchmarkDatabase {
+
+    static final LocalDateTime FIRST_DAY = LocalDateTime.of(2020, 1, 1, 0, 0);
+    static final int YEARS = 10;
+
+    private static final Path DIRECTORY = Paths.get("target", "benchmark-data");
+    private static final String[] COLORS = {"red", "green", "yellow", "blue", "purple", "cyan", "white"};
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * @return path of the read-only dataset with the given size, generating it if necessary
+     */
+    static synchronized Path get(int appointments, int tags) throws IOException, SQLException {
+        Path file = DIRECTORY.resolve("javender-" + appointments + "-" + tags + ".db");
+        if (Files.exists(file)) {
+            return file;
+        }
+
+        Files.createDirectories(DIRECTORY);
+        Path temporaryFile = Files.createTempFile(DIRECTORY, "generating", ".db");
+        generate(temporaryFile, appointments, tags);
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+
+    /**
+     * @return a private copy of the dataset for benchmarks that write, delete it after the trial
+     */
+    static Path copy(int appointments, int tags) throws IOException, SQLException {
+        Path original = get(appointments, tags);
+        Path copy = Files.createTempFile(DIRECTORY, "javender-write", ".db");
+        Files.copy(original, copy, StandardCopyOption.REPLACE_EXISTING);
+        return copy;
+    }
+
+    static String tagName(int index) {
+        return "tag" + index;
+    }
+
+    static LocalDateTime randomDateTime(Random random) {
+        return FIRST_DAY.plusMinutes(random.nextInt(YEARS * 365 * 24 * 4) * 15L);
+    }
+
+    static LocalDateTime randomMonth(Random random) {
+        return FIRST_DAY.plusMonths(random.nextInt(YEARS * 12));
+    }
+
+    private static void generate(Path file, int appointments, int tags) throws SQLException {
+        // opening it once lets the DataManager create the current schema
+        new JooqDataManager(file.toString()).close();
+
+        Random random = new Random(42);
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file)) {
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement insertTag = connection.prepareStatement(
+                    "INSERT INTO Tag (tagId, name, color) VALUES (?, ?, ?)")) {
+                for (int i = 0; i < tags; i++) {
+                    insertTag.setInt(1, i + 1);
+                    insertTag.setString(2, tagName(i));
+                    insertTag.setString(3, COLORS[i % COLORS.length]);
+                    insertTag.addBatch();
+                }
+                insertTag.executeBatch();
+            }
+
+            try (PreparedStatement insertAppointment = connection.prepareStatement(
+                    "INSERT INTO Appointment (appointmentId, startDate, endDate, title, description) VALUES (?, ?, ?, ?, ?)");
+                 PreparedStatement insertAppointmentTag = connection.prepareStatement(
+                         "INSERT OR IGNORE INTO AppointmentTag (appointmentId, tagId) VALUES (?, ?)")) {
+                for (int i = 1; i <= appointments; i++) {
+                    LocalDateTime start = randomDateTime(random);
+                    // mostly short appointments, some run over several days
+                    LocalDateTime end = random.nextInt(100) == 0
+                            ? start.plusHours(24 + random.nextInt(14 * 24))
+                            : start.plusMinutes(30 + random.nextInt(6) * 30L);
+
+                    insertAppointment.setInt(1, i);
+                    insertAppointment.setLong(2, start.toEpochSecond(ZoneOffset.UTC));
+                    insertAppointment.setLong(3, end.toEpochSecond(ZoneOffset.UTC));
+                    insertAppointment.setString(4, "Appointment " + i);
+                    insertAppointment.setString(5, "Synthetic appointment number " + i);
+                    insertAppointment.addBatch();
+
+                    for (int t = random.nextInt(3); t > 0; t--) {
+                        insertAppointmentTag.setInt(1, i);
+                        insertAppointmentTag.setInt(2, 1 + random.nextInt(tags));
+                        insertAppointmentTag.addBatch();
+                    }
+
+                    if (i % 10_000 == 0) {
+                        insertAppointment.executeBatch();
+                        insertAppointmentTag.executeBatch();
+                    }
+                }
+                insertAppointment.executeBatch();
+                insertAppointmentTag.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+}
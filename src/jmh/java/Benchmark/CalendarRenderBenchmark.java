@@ -0,0 +1,61 @@
+package Benchmark;
+
+import Model.Database.JooqDataManager;
+import Model.Entities.Appointment;
+import Model.Entities.DaySummary;
+import View.CalendarInterface;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering of the main calendar view and the year view, their day summaries are loaded once per trial
+ * the same way the controller loads them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalendarRenderBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int appointments;
+
+    @Param({"10", "1000"})
+    public int tags;
+
+    private CalendarInterface calendarInterface;
+    private LocalDate date;
+    private List<DaySummary> daySummaries;
+    private List<Appointment> upcomingAppointments;
+    private List<DaySummary> yearSummaries;
+
+    @Setup(Level.Trial)
+    public void loadAppointments() throws Exception {
+        calendarInterface = new CalendarInterface();
+        date = LocalDate.now();
+
+        try (JooqDataManager dataManager = new JooqDataManager(BenchmarkDatabase.get(appointments, tags).toString())) {
+            daySummaries = dataManager.getDaySummaries(
+                    date.withDayOfMonth(1), date.plusMonths(1).withDayOfMonth(date.plusMonths(1).lengthOfMonth()));
+            upcomingAppointments = dataManager.getUpcomingAppointments(LocalDateTime.now(), 2);
+            yearSummaries = dataManager.getDaySummaries(Year.from(date).atDay(1), Year.from(date).atMonth(12).atEndOfMonth());
+        }
+    }
+
+    @Benchmark
+    public String getCalendarWithUpcomingAppointments() {
+        return calendarInterface.getCalendarWithUpcomingAppointments(date, daySummaries, upcomingAppointments, 2);
+    }
+
+    @Benchmark
+    public String getYearCalendar() {
+        return calendarInterface.getYearCalendar(Year.from(date), yearSummaries);
+    }
+}
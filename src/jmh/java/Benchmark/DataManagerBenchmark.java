@@ -0,0 +1,92 @@
+package Benchmark;
+
+import Model.Database.DataManagerException;
+import Model.Database.JooqDataManager;
+import Model.Database.SqliteProfile;
+import Model.Entities.Appointment;
+import Model.Entities.DaySummary;
+import Model.Entities.FreeSlot;
+import Model.Entities.WorkingHours;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Year;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths of the {@link JooqDataManager} that the calendar view and the "upcoming" and "free" commands use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataManagerBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int appointments;
+
+    @Param({"10", "1000"})
+    public int tags;
+
+    @Param({"DURABLE", "FAST"})
+    public SqliteProfile profile;
+
+    private static final WorkingHours NINE_TO_FIVE = WorkingHours.weekdays(LocalTime.of(9, 0), LocalTime.of(17, 0));
+
+    private JooqDataManager dataManager;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void openDatabase() throws Exception {
+        dataManager = new JooqDataManager(BenchmarkDatabase.get(appointments, tags).toString(), profile);
+        random = new Random(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeDatabase() {
+        dataManager.close();
+    }
+
+    @Benchmark
+    public List<Appointment> getAppointmentsByRange() throws DataManagerException {
+        LocalDateTime start = BenchmarkDatabase.randomMonth(random);
+        return dataManager.getAppointmentsByRange(start, start.plusMonths(1).minusSeconds(1));
+    }
+
+    @Benchmark
+    public List<DaySummary> getDaySummaries() throws DataManagerException {
+        LocalDateTime start = BenchmarkDatabase.randomMonth(random);
+        return dataManager.getDaySummaries(start.toLocalDate(), start.plusMonths(1).toLocalDate().minusDays(1));
+    }
+
+    @Benchmark
+    public List<DaySummary> getDaySummariesOfYear() throws DataManagerException {
+        Year year = Year.from(BenchmarkDatabase.randomMonth(random));
+        return dataManager.getDaySummaries(year.atDay(1), year.atMonth(12).atEndOfMonth());
+    }
+
+    @Benchmark
+    public List<Appointment> getUpcomingAppointments() throws DataManagerException {
+        return dataManager.getUpcomingAppointments(BenchmarkDatabase.randomDateTime(random), 10);
+    }
+
+    @Benchmark
+    public List<Appointment> getUpcomingAppointmentsByTag() throws DataManagerException {
+        return dataManager.getUpcomingAppointmentsByTag(
+                BenchmarkDatabase.randomDateTime(random), 10, BenchmarkDatabase.tagName(random.nextInt(tags)));
+    }
+
+    @Benchmark
+    public List<FreeSlot> findFreeSlots() throws DataManagerException {
+        // the interval tree is loaded by the first call of the warmup
+        LocalDateTime start = BenchmarkDatabase.randomDateTime(random);
+        return dataManager.findFreeSlots(start, start.plusMonths(1), Duration.ofMinutes(90), NINE_TO_FIVE,
+                List.of(BenchmarkDatabase.tagName(random.nextInt(tags))), 3);
+    }
+}
@@ -0,0 +1,80 @@
+package Benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Month window queries on the raw schema: the original "startDate BETWEEN" scan without any index
+ * against the overlap query on the R*Tree interval index that getAppointmentsByRange uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IntervalIndexBenchmark {
+
+    private static final String TABLE_SCAN = "SELECT * FROM Appointment NOT INDEXED WHERE startDate BETWEEN ?1 AND ?2";
+    private static final String INTERVAL_INDEX = """
+            SELECT * FROM Appointment
+            WHERE appointmentId IN (SELECT appointmentId FROM AppointmentInterval
+                                    WHERE startEpoch <= ?2 AND endEpoch >= ?1)
+              AND startDate <= ?2 AND endDate >= ?1
+            ORDER BY startDate, appointmentId""";
+
+    @Param({"1000", "100000", "1000000"})
+    public int appointments;
+
+    private Connection connection;
+    private PreparedStatement tableScan;
+    private PreparedStatement intervalIndex;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void openDatabase() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite:" + BenchmarkDatabase.get(appointments, 10));
+        tableScan = connection.prepareStatement(TABLE_SCAN);
+        intervalIndex = connection.prepareStatement(INTERVAL_INDEX);
+        random = new Random(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeDatabase() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public int startDateBetweenTableScan() throws SQLException {
+        return countRows(tableScan);
+    }
+
+    @Benchmark
+    public int overlapOnIntervalIndex() throws SQLException {
+        return countRows(intervalIndex);
+    }
+
+    private int countRows(PreparedStatement query) throws SQLException {
+        LocalDateTime start = BenchmarkDatabase.randomMonth(random);
+        query.setLong(1, start.toEpochSecond(ZoneOffset.UTC));
+        query.setLong(2, start.plusMonths(1).minusSeconds(1).toEpochSecond(ZoneOffset.UTC));
+
+        int rows = 0;
+        try (ResultSet resultSet = query.executeQuery()) {
+            while (resultSet.next()) {
+                resultSet.getString("title");
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,110 @@
+package Benchmark;
+
+import Model.Entities.DaySummary;
+import View.ColorManager;
+import View.MonthRenderer;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The day grid of the current month rendered by {@link MonthRenderer} and by the former per-day regex replacement,
+ * which is kept here as the baseline. Run with {@code -prof gc} to compare the allocation per month.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonthRenderBenchmark {
+    private static final String[] COLORS = {"red", "green", "blue", "yellow", "purple", "cyan"};
+
+    @Param({"5", "31"})
+    public int daysWithAppointments;
+
+    private final MonthRenderer monthRenderer = new MonthRenderer();
+    private final StringBuilder out = new StringBuilder(MonthRenderer.MAX_LENGTH);
+    private YearMonth month;
+    private LocalDate today;
+    private List<DaySummary> daySummaries;
+    private Map<LocalDate, DaySummary> summariesByDay;
+
+    @Setup(Level.Trial)
+    public void createSummaries() {
+        today = LocalDate.now();
+        month = YearMonth.from(today);
+        daySummaries = new ArrayList<>();
+        summariesByDay = new HashMap<>();
+        int days = Math.min(daysWithAppointments, month.lengthOfMonth());
+        for (int i = 0; i < days; i++) {
+            LocalDate day = month.atDay(1 + i * month.lengthOfMonth() / days);
+            DaySummary summary = new DaySummary(day, 1, day.atTime(9, 0), i + 1, COLORS[i % COLORS.length]);
+            daySummaries.add(summary);
+            summariesByDay.put(day, summary);
+        }
+    }
+
+    @Benchmark
+    public String monthRenderer() {
+        out.setLength(0);
+        monthRenderer.appendMonth(out, month, daySummaries, today);
+        return out.toString();
+    }
+
+    @Benchmark
+    public String regexReplacement() {
+        return getMonthWithAppointments(month.atDay(1), summariesByDay, today);
+    }
+
+    private static String getMonthWithAppointments(LocalDate date, Map<LocalDate, DaySummary> summariesByDay, LocalDate today) {
+        String monthString = getMonthDaysFormatted(date);
+
+        for (int day = 1; day <= date.lengthOfMonth(); day++) {
+            LocalDate currentDay = date.withDayOfMonth(day);
+            boolean isToday = currentDay.isEqual(today);
+            DaySummary summary = summariesByDay.get(currentDay);
+
+            if (summary != null || isToday) {
+                String color = "white";
+                if (summary != null && summary.firstTagColor() != null) {
+                    color = summary.firstTagColor();
+                }
+
+                String formattedDay = ColorManager.getColoredText(isToday ? "bg_" + color : color, Integer.toString(day));
+                String dayRegex = "\\b" + String.format(day < 10 ? "%d" : "%2d", day) + "\\b";
+                String formattedReplacement = String.format(day < 10 ? "%10s" : "%11s", formattedDay);
+                monthString = monthString.replaceFirst(dayRegex, formattedReplacement);
+            }
+        }
+
+        return monthString;
+    }
+
+    private static String getMonthDaysFormatted(LocalDate date) {
+        StringBuilder monthString = new StringBuilder();
+
+        DayOfWeek firstDayOfMonth = date.minusDays(date.getDayOfMonth() - 1).getDayOfWeek();
+        int offset = firstDayOfMonth.getValue() - 1;
+        monthString.append("   ".repeat(Math.max(0, offset)));
+
+        int dayPosition = offset;
+        for (int day = 1; day <= date.lengthOfMonth(); day++) {
+            monthString.append(String.format("%2d ", day));
+            dayPosition = (dayPosition + 1) % 7;
+            if (dayPosition == 0) {
+                monthString.append("\n");
+            }
+        }
+        monthString.append("   ".repeat(7 - dayPosition));
+
+        return monthString.toString();
+    }
+}
@@ -0,0 +1,64 @@
+package Benchmark;
+
+import Model.Database.DataManagerException;
+import Model.Database.JooqDataManager;
+import Model.Entities.Appointment;
+import Model.Entities.Tag;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point lookups that touch only a row or two, so the time is dominated by what jOOQ and the pool
+ * spend per call: building the query, rendering its SQL, mapping the records.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryOverheadBenchmark {
+
+    private static final int APPOINTMENTS = 1000;
+
+    @Param({"10", "1000"})
+    public int tags;
+
+    private JooqDataManager dataManager;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void openDatabase() throws Exception {
+        dataManager = new JooqDataManager(BenchmarkDatabase.get(APPOINTMENTS, tags).toString());
+        random = new Random(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeDatabase() {
+        dataManager.close();
+    }
+
+    @Benchmark
+    public Optional<Appointment> getAppointmentById() throws DataManagerException {
+        return dataManager.getAppointmentById(1 + random.nextInt(APPOINTMENTS));
+    }
+
+    @Benchmark
+    public Optional<Tag> getTagById() throws DataManagerException {
+        return dataManager.getTagById(1 + random.nextInt(tags));
+    }
+
+    @Benchmark
+    public Optional<Tag> getTagByName() throws DataManagerException {
+        return dataManager.getTagByName(BenchmarkDatabase.tagName(random.nextInt(tags)));
+    }
+
+    @Benchmark
+    public List<Tag> getAllTags() throws DataManagerException {
+        return dataManager.getAllTags();
+    }
+}
@@ -1,18 +1,29 @@
 package Controller;
 
+import Model.Database.AppointmentPage;
 import Model.Database.DataManager;
 import Model.Database.DataManagerException;
-import Model.Database.JooqDataManager;
 import Model.Entities.Appointment;
+import Model.Entities.AppointmentMatch;
+import Model.Entities.FreeSlot;
+import Model.Entities.Recurrence;
+import Model.ICalendar.ICalendarTransfer;
 import Model.Entities.Tag;
+import Model.Entities.WorkingHours;
 import View.CalendarInterface;
 import View.ManageMenuView;
 import View.UserInterface;
 
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.time.*;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 
@@ -21,25 +32,34 @@ public class CalendarController {
     final UserInterface uI = new CalendarInterface();
     final ManageMenuView manageMenuView = new ManageMenuView(uI);
     final DataManager dM;
+    final CalendarFrameCache frameCache = new CalendarFrameCache();
+    final FramePrefetcher prefetcher;
+
+    private static final int SEARCH_RESULT_LIMIT = 10;
+    private static final int MAX_MONTH_AMOUNT = 12;
+    private static final WorkingHours DEFAULT_WORKING_HOURS = WorkingHours.weekdays(LocalTime.of(9, 0), LocalTime.of(17, 0));
 
     public CalendarController(DataManager dataManager) {
         this.dM = dataManager;
+        this.prefetcher = new FramePrefetcher(this::getMonthsFrame);
     }
 
     public void shutdown() {
-        if (dM instanceof JooqDataManager) {
-            ((JooqDataManager) dM).close();
-        }
+        prefetcher.close();
+        dM.close();
     }
 
     public void mainMenu() {
         boolean running = true;
         LocalDate monthToShow = LocalDate.now();
+        int monthAmount = 2;
         while (running) {
-            CalendarInterface.clearScreen();
-            showMonthsAccordingToDate(monthToShow);
+            prefetcher.beforeShowing(monthToShow, monthAmount);
+            showMonthsAccordingToDate(monthToShow, monthAmount);
+            prefetcher.prefetchAround(monthToShow, monthAmount);
             uI.displayMessage("Enter \"help\" to see all available commands.");
-            String[] arguments = splitUserCommandIntoArgs(uI.getUserCommand().toLowerCase());
+            String userCommand = uI.getUserCommand();
+            String[] arguments = splitUserCommandIntoArgs(userCommand.toLowerCase());
 
             switch (arguments[0]) {
                 case "help":
@@ -74,9 +94,27 @@ public class CalendarController {
                 case "now":
                     monthToShow = LocalDate.now();
                     break;
+                case "months":
+                    monthAmount = parseMonthAmount(arguments).orElse(monthAmount);
+                    break;
+                case "year":
+                    displayYear(arguments);
+                    break;
                 case "upcoming":
                     displayUpcomingAppointments(arguments, monthToShow);
                     break;
+                case "free":
+                    findFreeSlots(arguments);
+                    break;
+                case "search":
+                    searchAppointments(getTextArgument(userCommand));
+                    break;
+                case "export":
+                    exportAppointments(getTextArgument(userCommand));
+                    break;
+                case "import":
+                    importAppointments(getTextArgument(userCommand));
+                    break;
                 case "exit":
                     manageMenuView.displayExitMessage();
                     shutdown();
@@ -90,28 +128,199 @@ public class CalendarController {
 
     private void displayUpcomingAppointments(String[] arguments, LocalDate monthToShow) {
         int appointmentAmount = 5;
-        if (arguments.length == 2) {
+        if (arguments.length >= 2) {
             try {
                 appointmentAmount = Integer.parseInt(arguments[1]);
             } catch (NumberFormatException e) {
                 uI.displayError("The second argument has to be a number.");
             }
+            if (appointmentAmount < 1) {
+                uI.displayError("The amount has to be at least 1.");
+                appointmentAmount = 5;
+            }
         }
+        String tagToDisplay = arguments.length > 2 ? arguments[2] : null;
 
         try {
-            List<Appointment> upcomingAppointments;
-            if (arguments.length <= 2) {
-                upcomingAppointments = dM.getUpcomingAppointments(monthToShow.atStartOfDay(), appointmentAmount);
-            } else {
-                String tagToDisplay = arguments[2];
-                upcomingAppointments = dM.getUpcomingAppointmentsByTag(monthToShow.atStartOfDay(), appointmentAmount, tagToDisplay);
+            String pageToken = null;
+            boolean showNextPage = true;
+            while (showNextPage) {
+                AppointmentPage page = tagToDisplay == null
+                        ? dM.getUpcomingAppointmentsPage(monthToShow.atStartOfDay(), appointmentAmount, pageToken)
+                        : dM.getUpcomingAppointmentsByTagPage(monthToShow.atStartOfDay(), appointmentAmount, tagToDisplay, pageToken);
+                pageToken = page.nextPageToken().orElse(null);
+                showNextPage = uI.displayAppointmentPage(page.appointments(), pageToken != null);
             }
-            uI.displayAppointments(upcomingAppointments);
         } catch (DataManagerException e) {
             uI.displayError("There was a problem fetching the upcoming appointments.");
         }
     }
 
+    /**
+     * @return the amount of months to show at once, empty if it is missing or not between 1 and {@link #MAX_MONTH_AMOUNT}
+     */
+    private Optional<Integer> parseMonthAmount(String[] arguments) {
+        try {
+            int amount = arguments.length > 1 ? Integer.parseInt(arguments[1]) : 0;
+            if (amount >= 1 && amount <= MAX_MONTH_AMOUNT) {
+                return Optional.of(amount);
+            }
+        } catch (NumberFormatException ignored) {
+            // reported below like a missing amount
+        }
+        uI.displayError("Please enter how many months to show, from 1 to " + MAX_MONTH_AMOUNT + ", e.g. \"months 3\".");
+        waitForUser();
+        return Optional.empty();
+    }
+
+    /**
+     * Shows all months of the current year or of the year given as second argument, loaded with one query.
+     */
+    private void displayYear(String[] arguments) {
+        Year year = Year.now();
+        if (arguments.length > 1) {
+            try {
+                year = Year.parse(arguments[1]);
+            } catch (DateTimeParseException e) {
+                uI.displayError("The year you entered was not formatted correctly.");
+                waitForUser();
+                return;
+            }
+        }
+        try {
+            uI.displayYearCalendar(year, dM.getDaySummaries(year.atDay(1), year.atMonth(Month.DECEMBER).atEndOfMonth()));
+        } catch (DataManagerException e) {
+            uI.displayError("There was a problem fetching the appointments of the year.");
+            waitForUser();
+        }
+    }
+
+    /**
+     * Shows the next free times of at least the given length within a month from now,
+     * "free minutes (amount (hours (tags to ignore...)))".
+     */
+    private void findFreeSlots(String[] arguments) {
+        if (arguments.length < 2) {
+            uI.displayError("Please enter how many minutes you need, e.g. \"free 60\".");
+            waitForUser();
+            return;
+        }
+        Duration length;
+        int slotAmount = 3;
+        WorkingHours workingHours = DEFAULT_WORKING_HOURS;
+        try {
+            length = Duration.ofMinutes(Integer.parseInt(arguments[1]));
+            if (arguments.length > 2) {
+                slotAmount = Integer.parseInt(arguments[2]);
+            }
+            if (arguments.length > 3) {
+                workingHours = parseWorkingHours(arguments[3]);
+            }
+        } catch (NumberFormatException e) {
+            uI.displayError("The minutes and the amount have to be numbers.");
+            waitForUser();
+            return;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            uI.displayError("The hours have to be formatted like 09:00-17:00 or be \"any\".");
+            waitForUser();
+            return;
+        }
+        if (length.toMinutes() < 1 || slotAmount < 1) {
+            uI.displayError("The minutes and the amount have to be at least 1.");
+            waitForUser();
+            return;
+        }
+        List<String> ignoredTagNames = Arrays.asList(arguments).subList(Math.min(4, arguments.length), arguments.length);
+
+        LocalDateTime now = LocalDateTime.now().withSecond(0).withNano(0);
+        try {
+            List<FreeSlot> slots = dM.findFreeSlots(now, now.plusMonths(1), length, workingHours, ignoredTagNames, slotAmount);
+            uI.displayFreeSlots(slots, length);
+        } catch (DataManagerException e) {
+            uI.displayError("There was a problem finding free time.");
+            waitForUser();
+        }
+    }
+
+    /**
+     * @param hours "any" or a time range on weekdays like "09:00-17:00", where an end of 00:00 means midnight
+     * @throws IllegalArgumentException if the range is malformed or ends before it starts
+     */
+    public WorkingHours parseWorkingHours(String hours) {
+        if (hours.equals("any")) {
+            return WorkingHours.ALWAYS;
+        }
+        String[] times = hours.split("-");
+        if (times.length != 2) {
+            throw new IllegalArgumentException("Malformed hours: " + hours);
+        }
+        return WorkingHours.weekdays(LocalTime.parse(times[0].trim()), LocalTime.parse(times[1].trim()));
+    }
+
+    /**
+     * @return everything after the command itself, file paths and search words may contain spaces and upper case letters
+     */
+    private String getTextArgument(String userCommand) {
+        int separator = userCommand.indexOf(' ');
+        return separator < 0 ? "" : userCommand.substring(separator + 1).trim();
+    }
+
+    public void searchAppointments(String query) {
+        if (query.isBlank()) {
+            uI.displayError("Please enter the words to search for, e.g. \"search dentist\".");
+            waitForUser();
+            return;
+        }
+        try {
+            uI.displaySearchResults(dM.searchAppointments(query, SEARCH_RESULT_LIMIT));
+        } catch (DataManagerException e) {
+            uI.displayError("There was a problem searching the appointments.");
+            waitForUser();
+        }
+    }
+
+    public void exportAppointments(String path) {
+        if (path.isEmpty()) {
+            uI.displayError("Please enter the file to export to, e.g. \"export calendar.ics\".");
+            waitForUser();
+            return;
+        }
+        try {
+            int count = new ICalendarTransfer(dM).exportTo(Path.of(path));
+            uI.displayMessage("Exported " + count + " appointments to " + path + ".");
+        } catch (IOException | InvalidPathException e) {
+            uI.displayError("The file " + path + " could not be written: " + e.getMessage());
+        } catch (DataManagerException e) {
+            uI.displayError("There was a problem reading the appointments from the database.");
+        }
+        waitForUser();
+    }
+
+    public void importAppointments(String path) {
+        if (path.isEmpty()) {
+            uI.displayError("Please enter the file to import from, e.g. \"import calendar.ics\".");
+            waitForUser();
+            return;
+        }
+        try {
+            ICalendarTransfer.ImportResult result = new ICalendarTransfer(dM).importFrom(Path.of(path));
+            uI.displayMessage("Imported " + result.importedCount() + " appointments from " + path + ".");
+            if (result.skippedCount() > 0) {
+                uI.displayError(result.skippedCount() + " events without a valid start date were skipped.");
+            }
+        } catch (IOException | InvalidPathException e) {
+            uI.displayError("The file " + path + " could not be read: " + e.getMessage());
+        } catch (DataManagerException e) {
+            uI.displayError("There was a problem adding the imported appointments to the database.");
+        }
+        waitForUser();
+    }
+
+    private void waitForUser() {
+        uI.displayMessage("Enter anything to return to the calendar.");
+        uI.getUserCommand();
+    }
+
     public void addAppointment() {
         Appointment appointment;
 
@@ -127,11 +336,14 @@ public class CalendarController {
             addAppointment();
             return;
         }
+        warnAboutOverlaps(startDateTime, endDateTime, 0);
 
         String description = uI.getDescription();
+        Recurrence recurrence = getRecurrence();
         try {
             List<Tag> tags = getAddedTagsList(dM.getAllTags(), new ArrayList<>());
             appointment = new Appointment(startDateTime, endDateTime, title, description, tags);
+            appointment.setRecurrence(recurrence);
             dM.addAppointment(appointment);
 
         } catch (DataManagerException e) {
@@ -167,6 +379,62 @@ public class CalendarController {
         return LocalDateTime.of(LocalDate.parse(endDate), LocalTime.parse(endTime));
     }
 
+    /**
+     * Shows the appointments the dates would double book. It is only a warning, the appointment is saved anyway.
+     *
+     * @param appointmentId the appointment being edited, it does not overlap itself
+     */
+    private void warnAboutOverlaps(LocalDateTime startDateTime, LocalDateTime endDateTime, int appointmentId) {
+        try {
+            List<Appointment> overlapping = dM.getOverlappingAppointments(startDateTime, endDateTime, null).stream()
+                    .filter(appointment -> appointment.getAppointmentId() != appointmentId)
+                    .toList();
+            if (!overlapping.isEmpty()) {
+                uI.displayOverlapWarning(overlapping);
+            }
+        } catch (DataManagerException e) {
+            uI.displayError(e.getMessage());
+        }
+    }
+
+    /**
+     * @return null if the appointment does not repeat
+     */
+    private Recurrence getRecurrence() {
+        while (true) {
+            String input = uI.getRecurrence().trim();
+            if (input.isEmpty()) {
+                return null;
+            }
+            try {
+                return parseRecurrence(input);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                uI.displayError("Your input is not formatted correctly.");
+            }
+        }
+    }
+
+    /**
+     * @param input frequency, optionally followed by the interval and either the number of occurrences or the last date,
+     *              e.g. "weekly", "weekly 2" or "monthly 1 2025-12-31"
+     * @throws IllegalArgumentException if the input is not formatted like that
+     */
+    public Recurrence parseRecurrence(String input) {
+        String[] parts = input.trim().toUpperCase(Locale.ROOT).split("\\s+");
+        if (parts.length > 3) {
+            throw new IllegalArgumentException("Too many parts: " + input);
+        }
+
+        Recurrence recurrence = Recurrence.of(Recurrence.Frequency.valueOf(parts[0]),
+                parts.length > 1 ? Integer.parseInt(parts[1]) : 1);
+        if (parts.length < 3) {
+            return recurrence;
+        }
+        return parts[2].contains("-")
+                ? recurrence.withUntil(LocalDate.parse(parts[2]).atTime(Recurrence.LAST_SECOND_OF_DAY))
+                : recurrence.withCount(Integer.parseInt(parts[2]));
+    }
+
     @SuppressWarnings("ResultOfMethodCallIgnored")
     public boolean validateDate(String dateString) {
         try {
@@ -266,7 +534,16 @@ public class CalendarController {
             uI.tagEditMenu();
             tag.setName(uI.getTagTitle());
             tag.setColor(intToColor(uI.getTagColorIndex()));
-            dM.updateTag(tag);
+            boolean updated = dM.inTransaction(transaction -> {
+                if (transaction.getTagById(tag.getTagId()).isEmpty()) {
+                    return false;
+                }
+                transaction.updateTag(tag);
+                return true;
+            });
+            if (!updated) {
+                uI.displayError("The tag \"" + title + "\" was deleted while you were editing it.");
+            }
         } catch (DataManagerException e) {
             uI.displayError(e.getMessage());
         }
@@ -276,9 +553,9 @@ public class CalendarController {
     public void editAppointment() {
         String appointmentTitle = uI.startEditingAppointment();
         try {
-            List<Appointment> appointments = dM.getAppointmentsByTitle(appointmentTitle);
+            List<Appointment> appointments = findAppointments(appointmentTitle);
 
-            int appointmentIndex = chooseAppointmentLogic(appointments);
+            int appointmentIndex = chooseAppointmentLogic(appointments, appointmentTitle);
 
             if (appointmentIndex >= 0) {
                 Appointment updatedAppointment = createNewAppointment(appointments.get(appointmentIndex));
@@ -290,15 +567,25 @@ public class CalendarController {
         }
     }
 
-    private int chooseAppointmentLogic(List<Appointment> appointments) {
+    /**
+     * @return the best full-text matches, so the user can pick from them instead of typing the exact title
+     */
+    private List<Appointment> findAppointments(String text) throws DataManagerException {
+        return dM.searchAppointments(text, SEARCH_RESULT_LIMIT).stream()
+                .map(AppointmentMatch::appointment)
+                .toList();
+    }
+
+    private int chooseAppointmentLogic(List<Appointment> appointments, String enteredTitle) {
         int appointmentIndex = 0;
 
         if (appointments.isEmpty()) {
-            uI.displayError("There are no appointments with the name you entered.");
+            uI.displayError("There are no appointments matching what you entered.");
             return -1;
         }
 
-        if (appointments.size() > 1) {
+        // a single match is only taken without asking if it is the appointment the user named exactly
+        if (appointments.size() > 1 || !appointments.getFirst().getTitle().equalsIgnoreCase(enteredTitle.trim())) {
             appointmentIndex = uI.chooseAppointment(appointments);
             while (appointmentIndex >= appointments.size() || appointmentIndex < 0) {
                 uI.displayError("Invalid input.");
@@ -335,6 +622,7 @@ public class CalendarController {
                     }
                     appointment.setStartDate(newStartDateTime);
                     appointment.setEndDate(newEndDateTime);
+                    warnAboutOverlaps(newStartDateTime, newEndDateTime, appointment.getAppointmentId());
                     break;
 
                 case 3:
@@ -363,10 +651,15 @@ public class CalendarController {
     public void deleteAppointment() {
         String title = uI.startDeletingAppointment();
         try {
-            List<Appointment> appointments = dM.getAppointmentsByTitle(title);
-            int appointmentIndex = chooseAppointmentLogic(appointments);
+            List<Appointment> appointments = findAppointments(title);
+            int appointmentIndex = chooseAppointmentLogic(appointments, title);
             if (appointmentIndex >= 0) {
                 Appointment appointmentToBeRemoved = appointments.get(appointmentIndex);
+                if (appointmentToBeRemoved.isRecurring()
+                        && uI.confirmAction("Only skip it on one day instead of deleting all its repetitions?")) {
+                    skipOccurrence(appointmentToBeRemoved);
+                    return;
+                }
                 dM.removeAppointment(appointmentToBeRemoved);
             }
         } catch (DataManagerException e) {
@@ -375,6 +668,22 @@ public class CalendarController {
         }
     }
 
+    private void skipOccurrence(Appointment series) throws DataManagerException {
+        String date = uI.getStartDate();
+        while (validateDate(date)) {
+            date = uI.getStartDate();
+        }
+
+        LocalDateTime occurrenceStart = LocalDate.parse(date).atTime(series.getStartDate().toLocalTime());
+        Recurrence recurrence = series.getRecurrence();
+        if (recurrence.startsBetween(series.getStartDate(), Duration.ZERO, occurrenceStart, occurrenceStart).isEmpty()) {
+            uI.displayError("\"" + series.getTitle() + "\" does not take place on " + date + ".");
+            return;
+        }
+        series.setRecurrence(recurrence.withException(occurrenceStart));
+        dM.updateAppointment(series);
+    }
+
     public void deleteAllAppointments() {
         boolean confirm = uI.confirmAction("Are you sure you want to delete all appointments? This action cannot be undone.");
 
@@ -412,13 +721,16 @@ public class CalendarController {
     public void deleteTag() {
         String name = uI.startDeletingTag();
         try {
-            Optional<Tag> optionalTag = dM.getTagByName(name);
-            if (optionalTag.isEmpty()) {
+            Optional<Tag> removedTag = dM.inTransaction(transaction -> {
+                Optional<Tag> optionalTag = transaction.getTagByName(name);
+                if (optionalTag.isPresent()) {
+                    transaction.removeTag(optionalTag.get());
+                }
+                return optionalTag;
+            });
+            if (removedTag.isEmpty()) {
                 uI.displayError("There was no tag with the name \"" + name + "\"");
-                return;
             }
-            Tag tag = optionalTag.get();
-            dM.removeTag(tag);
         } catch (DataManagerException e) {
             uI.displayError(e.getMessage());
         }
@@ -466,23 +778,50 @@ public class CalendarController {
         return userCommand.split(" ");
     }
 
-    private List<Appointment> getAppointmentsAccordingToMonth(LocalDate date) throws DataManagerException {
-        return dM.getAppointmentsByRange(
-                date.withDayOfMonth(1).atStartOfDay(),
-                date.plusMonths(1).withDayOfMonth(date.plusMonths(1).lengthOfMonth()).atTime(23, 59, 59)
-        );
+    /**
+     * @return the first appointments of the displayed months that are running or start later, the only ones
+     * the calendar view loads completely
+     */
+    private List<Appointment> getUpcomingAppointmentsInMonths(LocalDate firstDay, LocalDate lastDay, int amount) throws DataManagerException {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = firstDay.atStartOfDay().isAfter(now) ? firstDay.atStartOfDay() : now;
+        LocalDateTime to = lastDay.atTime(23, 59, 59);
+        return dM.getUpcomingAppointments(from, amount).stream()
+                .filter(appointment -> !appointment.getStartDate().isAfter(to))
+                .toList();
     }
 
-    private void showMonthsAccordingToDate(LocalDate date) {
+    private void showMonthsAccordingToDate(LocalDate date, int monthAmount) {
         try {
-            System.out.println(
-                    uI.getCalendarWithUpcomingAppointments(
-                            date,
-                            getAppointmentsAccordingToMonth(date),
-                            2
-                    ));
+            uI.displayFrame(getMonthsFrame(date, monthAmount));
         } catch (DataManagerException e) {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * @return the calendar view of the months starting with the month of the date, rendered again only if the data
+     * changed, the day changed or an upcoming appointment it lists has started or ended
+     */
+    public final String getMonthsFrame(LocalDate date, int monthAmount) throws DataManagerException {
+        LocalDateTime now = LocalDateTime.now();
+        // read before loading, a frame rendered while a write commits is stored under the outdated version
+        CalendarFrameCache.Key key = new CalendarFrameCache.Key(YearMonth.from(date), monthAmount, now.toLocalDate(), dM.getDataVersion());
+        Optional<String> cached = frameCache.get(key, now);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        LocalDate firstDay = date.withDayOfMonth(1);
+        LocalDate lastDay = YearMonth.from(date).plusMonths(monthAmount - 1).atEndOfMonth();
+        List<Appointment> upcomingAppointments = getUpcomingAppointmentsInMonths(firstDay, lastDay, 2);
+        String frame = uI.getCalendarWithUpcomingAppointments(date, dM.getDaySummaries(firstDay, lastDay), upcomingAppointments, monthAmount);
+
+        // a listed appointment is marked as running once it starts and leaves the list when it ends
+        frameCache.put(key, frame, upcomingAppointments.stream()
+                .map(appointment -> appointment.getStartDate().isAfter(now) ? appointment.getStartDate() : appointment.getEndDate())
+                .min(Comparator.naturalOrder())
+                .orElse(LocalDateTime.MAX));
+        return frame;
+    }
 }
@@ -0,0 +1,67 @@
+package Controller;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The rendered calendar views, so showing the same months again after a command that changed nothing
+ * is a map lookup instead of loading and rendering them.
+ * <p>
+ * A frame is found by what it shows: the months, the day it was rendered on and the data version it was rendered
+ * from. It is dropped once it expires, e.g. when an upcoming appointment it lists starts or ends.
+ * The least recently used frames are evicted once more than {@link #MAX_FRAMES} are cached.
+ */
+public final class CalendarFrameCache {
+    private static final int MAX_FRAMES = 8;
+
+    /**
+     * @param dataVersion the {@link Model.Database.DataManager#getDataVersion() data version} read before rendering
+     */
+    public record Key(YearMonth month, int monthAmount, LocalDate today, long dataVersion) {
+    }
+
+    private record Frame(String text, LocalDateTime validUntil) {
+    }
+
+    private final LinkedHashMap<Key, Frame> framesByKey = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Frame> eldest) {
+            return size() > MAX_FRAMES;
+        }
+    };
+
+    private long hitCount;
+    private long missCount;
+
+    public synchronized Optional<String> get(Key key, LocalDateTime now) {
+        Frame frame = framesByKey.get(key);
+        if (frame != null && now.isBefore(frame.validUntil())) {
+            hitCount++;
+            return Optional.of(frame.text());
+        }
+        if (frame != null) {
+            framesByKey.remove(key);
+        }
+        missCount++;
+        return Optional.empty();
+    }
+
+    /**
+     * @param validUntil the first moment the frame would look different without a write, {@link LocalDateTime#MAX} if never
+     */
+    public synchronized void put(Key key, String frame, LocalDateTime validUntil) {
+        framesByKey.put(key, new Frame(frame, validUntil));
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+}
@@ -0,0 +1,104 @@
+package Controller;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads the frames of the months before and after the shown ones while the user types the next command,
+ * so navigating there finds the frame in the {@link CalendarFrameCache}. Every window is loaded on its own
+ * virtual thread. Once another window is shown, the prefetches that are not next to it are cancelled.
+ * <p>
+ * A failed prefetch is dropped, the window is then loaded when it is shown.
+ * Only used by the thread of the main menu.
+ */
+public final class FramePrefetcher implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface FrameLoader {
+        /**
+         * Loads the frame of the months starting with the month of the date and stores it in the frame cache.
+         */
+        void load(LocalDate date, int monthAmount) throws Exception;
+    }
+
+    private record Window(YearMonth month, int monthAmount) {
+    }
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final FrameLoader loader;
+    private final Map<Window, Future<?>> prefetches = new HashMap<>();
+
+    public FramePrefetcher(FrameLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * To be called before the window is shown. Waits for its prefetch if it is still loading,
+     * which is never longer than loading it again, and cancels the prefetches not next to it.
+     */
+    public void beforeShowing(LocalDate date, int monthAmount) {
+        List<Window> kept = adjacentWindows(date, monthAmount);
+        Window shown = new Window(YearMonth.from(date), monthAmount);
+        for (Iterator<Map.Entry<Window, Future<?>>> iterator = prefetches.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<Window, Future<?>> prefetch = iterator.next();
+            if (prefetch.getKey().equals(shown)) {
+                await(prefetch.getValue());
+            } else if (!kept.contains(prefetch.getKey())) {
+                prefetch.getValue().cancel(true);
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * To be called after the window is shown, starts loading the windows one month before and after it.
+     * A window whose prefetch is still running is not loaded twice.
+     */
+    public void prefetchAround(LocalDate date, int monthAmount) {
+        for (Window window : adjacentWindows(date, monthAmount)) {
+            Future<?> running = prefetches.get(window);
+            if (running != null && !running.isDone()) {
+                continue;
+            }
+            // a finished prefetch is started again, it only hits the frame cache unless the data changed meanwhile
+            prefetches.put(window, executor.submit(() -> {
+                loader.load(window.month().atDay(1), window.monthAmount());
+                return null;
+            }));
+        }
+    }
+
+    private static List<Window> adjacentWindows(LocalDate date, int monthAmount) {
+        YearMonth month = YearMonth.from(date);
+        return List.of(new Window(month.minusMonths(1), monthAmount), new Window(month.plusMonths(1), monthAmount));
+    }
+
+    private static void await(Future<?> prefetch) {
+        try {
+            prefetch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException ignored) {
+            // the window is loaded when it is shown
+        }
+    }
+
+    /**
+     * Cancels every prefetch and waits until they have stopped, so none of them uses the data afterwards.
+     */
+    @Override
+    public void close() {
+        prefetches.values().forEach(prefetch -> prefetch.cancel(true));
+        prefetches.clear();
+        executor.close();
+    }
+}
@@ -1,6 +1,8 @@
 import Controller.CalendarController;
+import Model.Database.CachingDataManager;
 import Model.Database.DataManager;
 import Model.Database.JooqDataManager;
+import Model.Database.SqliteProfile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -11,6 +13,7 @@ public class Main {
 
     private static final String SOURCE_PATH = "javenderDataBase.db";
     private static final String DESTINATION_PATH = "data/db.sqlite";
+    private static final String PROFILE_ARGUMENT = "--sqlite-profile=";
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
 
     public static void main(String[] args) {
@@ -29,11 +32,29 @@ public class Main {
             copyDatabaseFile();
         }
 
-        DataManager dataManager = new JooqDataManager(DESTINATION_PATH);
+        SqliteProfile profile = getSqliteProfile(args);
+        DataManager dataManager = new CachingDataManager(new JooqDataManager(DESTINATION_PATH, profile));
         CalendarController controller = new CalendarController(dataManager);
         controller.mainMenu();
     }
 
+    /**
+     * @return the profile chosen with --sqlite-profile=durable|fast, durable if none or an unknown one was given
+     */
+    private static SqliteProfile getSqliteProfile(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith(PROFILE_ARGUMENT)) {
+                try {
+                    return SqliteProfile.fromName(arg.substring(PROFILE_ARGUMENT.length()));
+                } catch (IllegalArgumentException e) {
+                    logger.error(e.getMessage());
+                    System.err.println(e.getMessage() + " Using durable.");
+                }
+            }
+        }
+        return SqliteProfile.DURABLE;
+    }
+
     private static void copyDatabaseFile() {
         ClassLoader classLoader = Main.class.getClassLoader();
         try (InputStream inputStream = classLoader.getResourceAsStream(SOURCE_PATH)) {
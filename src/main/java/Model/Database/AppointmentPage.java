@@ -0,0 +1,14 @@
+package Model.Database;
+
+import Model.Entities.Appointment;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One page of a paginated appointment query.
+ *
+ * @param nextPageToken passed to the same query to get the following page, empty on the last page
+ */
+public record AppointmentPage(List<Appointment> appointments, Optional<String> nextPageToken) {
+}
@@ -0,0 +1,465 @@
+package Model.Database;
+
+import Model.Entities.Appointment;
+import Model.Entities.AppointmentMatch;
+import Model.Entities.DaySummary;
+import Model.Entities.FreeSlot;
+import Model.Entities.Tag;
+import Model.Entities.WorkingHours;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Write-through cache in front of another {@link DataManager}.
+ * Appointments are cached per month, range queries are answered from the month buckets they cover.
+ * The least recently used months are evicted once more than {@code maxCachedMonths} are cached.
+ * Tags are kept in a dictionary by id. Every write goes to the wrapped DataManager first and
+ * afterwards only drops the buckets the change can affect.
+ * <p>
+ * The day summaries of the month view are cached per month as well, under the data version they were loaded at.
+ * They are used while the version is unchanged, since a summary does not tell which appointments it covers.
+ * <p>
+ * Appointments returned from the cache are shared with it and must not be modified.
+ */
+public class CachingDataManager implements DataManager {
+    private static final Logger logger = LoggerFactory.getLogger(CachingDataManager.class);
+    private static final int DEFAULT_MAX_CACHED_MONTHS = 24;
+
+    private static final Comparator<Appointment> BY_START = Comparator
+            .comparing(Appointment::getStartDate)
+            .thenComparingInt(Appointment::getAppointmentId);
+
+    private record OccurrenceKey(int appointmentId, LocalDateTime startDate) {
+    }
+
+    private record SummaryMonth(long dataVersion, List<DaySummary> summaries) {
+    }
+
+    private final DataManager delegate;
+    private final int maxCachedMonths;
+    private final LinkedHashMap<YearMonth, List<Appointment>> appointmentsByMonth;
+    private final LinkedHashMap<YearMonth, SummaryMonth> summariesByMonth;
+    private Map<Integer, Tag> tagsById;
+
+    /**
+     * Incremented on every invalidation. A bucket loaded while an invalidation happened may already be
+     * outdated and is not stored.
+     */
+    private long generation;
+    private long tagGeneration;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public CachingDataManager(DataManager delegate) {
+        this(delegate, DEFAULT_MAX_CACHED_MONTHS);
+    }
+
+    public CachingDataManager(DataManager delegate, int maxCachedMonths) {
+        if (maxCachedMonths < 1) {
+            throw new IllegalArgumentException("At least one month has to be cached.");
+        }
+        this.delegate = delegate;
+        this.maxCachedMonths = maxCachedMonths;
+        this.appointmentsByMonth = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<YearMonth, List<Appointment>> eldest) {
+                return size() > CachingDataManager.this.maxCachedMonths;
+            }
+        };
+        this.summariesByMonth = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<YearMonth, SummaryMonth> eldest) {
+                return size() > CachingDataManager.this.maxCachedMonths;
+            }
+        };
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private List<Appointment> getMonth(YearMonth month) throws DataManagerException {
+        long loadGeneration;
+        synchronized (this) {
+            List<Appointment> cached = appointmentsByMonth.get(month);
+            if (cached != null) {
+                hitCount.incrementAndGet();
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+
+        missCount.incrementAndGet();
+        logger.debug("Calendar cache miss for {}", month);
+        List<Appointment> loaded = List.copyOf(delegate.getAppointmentsByRange(
+                month.atDay(1).atStartOfDay(),
+                month.atEndOfMonth().atTime(LocalTime.MAX)));
+
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                appointmentsByMonth.put(month, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public List<Appointment> getAppointmentsByRange(LocalDateTime startDateTime, LocalDateTime endDateTime) throws DataManagerException {
+        YearMonth firstMonth = YearMonth.from(startDateTime);
+        YearMonth lastMonth = YearMonth.from(endDateTime);
+
+        if (firstMonth.plusMonths(maxCachedMonths - 1).isBefore(lastMonth) || lastMonth.isBefore(firstMonth)) {
+            // would evict its own buckets, let the database answer directly
+            missCount.incrementAndGet();
+            return delegate.getAppointmentsByRange(startDateTime, endDateTime);
+        }
+
+        // occurrences of a series share its ID, they are told apart by their start
+        Map<OccurrenceKey, Appointment> appointments = new LinkedHashMap<>();
+        for (YearMonth month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            for (Appointment appointment : getMonth(month)) {
+                if (!appointment.getStartDate().isAfter(endDateTime) && !appointment.getEndDate().isBefore(startDateTime)) {
+                    appointments.putIfAbsent(new OccurrenceKey(appointment.getAppointmentId(), appointment.getStartDate()), appointment);
+                }
+            }
+        }
+
+        List<Appointment> appointmentList = new ArrayList<>(appointments.values());
+        appointmentList.sort(BY_START);
+        return appointmentList;
+    }
+
+    private synchronized void invalidateMonths(Predicate<List<Appointment>> affected) {
+        generation++;
+        appointmentsByMonth.values().removeIf(affected);
+    }
+
+    private synchronized void invalidateAppointment(Appointment appointment) {
+        generation++;
+        appointmentsByMonth.entrySet().removeIf(entry ->
+                overlaps(entry.getKey(), appointment) || containsAppointment(entry.getValue(), appointment.getAppointmentId()));
+    }
+
+    private synchronized void invalidateNewAppointments(Collection<Appointment> appointments) {
+        generation++;
+        appointmentsByMonth.keySet().removeIf(month ->
+                appointments.stream().anyMatch(appointment -> overlaps(month, appointment)));
+    }
+
+    private static boolean overlaps(YearMonth month, Appointment appointment) {
+        if (appointment.isRecurring()) {
+            // the appointment may be an occurrence, the series and its new occurrences can lie in any month
+            return true;
+        }
+        LocalDate firstDay = month.atDay(1);
+        LocalDate lastDay = month.atEndOfMonth();
+        return !appointment.getStartDate().toLocalDate().isAfter(lastDay)
+                && !appointment.getEndDate().toLocalDate().isBefore(firstDay);
+    }
+
+    private static boolean containsAppointment(List<Appointment> appointments, int appointmentId) {
+        return appointments.stream().anyMatch(appointment -> appointment.getAppointmentId() == appointmentId);
+    }
+
+    private static boolean containsTag(List<Appointment> appointments, int tagId) {
+        return appointments.stream()
+                .anyMatch(appointment -> appointment.getTags().stream().anyMatch(tag -> tag.getTagId() == tagId));
+    }
+
+    private Map<Integer, Tag> getTagDictionary() throws DataManagerException {
+        long loadGeneration;
+        synchronized (this) {
+            if (tagsById != null) {
+                hitCount.incrementAndGet();
+                return tagsById;
+            }
+            loadGeneration = tagGeneration;
+        }
+
+        missCount.incrementAndGet();
+        Map<Integer, Tag> loaded = new LinkedHashMap<>();
+        for (Tag tag : delegate.getAllTags()) {
+            loaded.put(tag.getTagId(), tag);
+        }
+
+        synchronized (this) {
+            if (tagGeneration == loadGeneration) {
+                tagsById = loaded;
+            }
+            return loaded;
+        }
+    }
+
+    private static Tag copyOf(Tag tag) {
+        return new Tag(tag.getTagId(), tag.getName(), tag.getColor());
+    }
+
+    @Override
+    public List<Tag> getAllTags() throws DataManagerException {
+        Map<Integer, Tag> dictionary = getTagDictionary();
+        List<Tag> tags = new ArrayList<>(dictionary.size());
+        for (Tag tag : dictionary.values()) {
+            tags.add(copyOf(tag));
+        }
+        return tags;
+    }
+
+    @Override
+    public Optional<Tag> getTagById(int tagId) throws DataManagerException {
+        return Optional.ofNullable(getTagDictionary().get(tagId)).map(CachingDataManager::copyOf);
+    }
+
+    @Override
+    public Optional<Tag> getTagByName(String name) throws DataManagerException {
+        // tag names are compared like the NOCASE column in the database
+        String key = JooqDataManager.nocaseKey(name);
+        return getTagDictionary().values().stream()
+                .filter(tag -> JooqDataManager.nocaseKey(tag.getName()).equals(key))
+                .findFirst()
+                .map(CachingDataManager::copyOf);
+    }
+
+    private synchronized void invalidateTags() {
+        tagGeneration++;
+        tagsById = null;
+    }
+
+    @Override
+    public int addAppointment(Appointment appointment) throws DataManagerException {
+        int appointmentId = delegate.addAppointment(appointment);
+        invalidateAppointment(appointment);
+        return appointmentId;
+    }
+
+    @Override
+    public CompletableFuture<Integer> addAppointmentAsync(Appointment appointment, boolean durable) {
+        return delegate.addAppointmentAsync(appointment, durable).thenApply(appointmentId -> {
+            invalidateAppointment(appointment);
+            return appointmentId;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> updateAppointmentAsync(Appointment appointment, boolean durable) {
+        return delegate.updateAppointmentAsync(appointment, durable)
+                .thenRun(() -> invalidateAppointment(appointment));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAppointmentByIdAsync(int appointmentId, boolean durable) {
+        return delegate.removeAppointmentByIdAsync(appointmentId, durable)
+                .thenRun(() -> invalidateMonths(appointments -> containsAppointment(appointments, appointmentId)));
+    }
+
+    @Override
+    public List<Integer> addAppointments(Collection<Appointment> appointments) throws DataManagerException {
+        List<Integer> appointmentIds = delegate.addAppointments(appointments);
+        invalidateNewAppointments(appointments);
+        return appointmentIds;
+    }
+
+    @Override
+    public void updateAppointment(Appointment appointment) throws DataManagerException {
+        delegate.updateAppointment(appointment);
+        invalidateAppointment(appointment);
+    }
+
+    @Override
+    public void removeAppointment(Appointment appointment) throws DataManagerException {
+        delegate.removeAppointment(appointment);
+        invalidateAppointment(appointment);
+    }
+
+    @Override
+    public void removeAppointmentById(int appointmentId) throws DataManagerException {
+        delegate.removeAppointmentById(appointmentId);
+        invalidateMonths(appointments -> containsAppointment(appointments, appointmentId));
+    }
+
+    @Override
+    public void removeAllAppointments() throws DataManagerException {
+        delegate.removeAllAppointments();
+        invalidateMonths(appointments -> true);
+    }
+
+    @Override
+    public int addTag(Tag tag) throws DataManagerException {
+        int tagId = delegate.addTag(tag);
+        invalidateTags();
+        return tagId;
+    }
+
+    @Override
+    public void updateTag(Tag tag) throws DataManagerException {
+        delegate.updateTag(tag);
+        invalidateTags();
+        invalidateMonths(appointments -> containsTag(appointments, tag.getTagId()));
+    }
+
+    @Override
+    public void removeTag(Tag tag) throws DataManagerException {
+        delegate.removeTag(tag);
+        invalidateTags();
+        invalidateMonths(appointments -> containsTag(appointments, tag.getTagId()));
+    }
+
+    @Override
+    public void removeTagByTagId(int tagId) throws DataManagerException {
+        delegate.removeTagByTagId(tagId);
+        invalidateTags();
+        invalidateMonths(appointments -> containsTag(appointments, tagId));
+    }
+
+    @Override
+    public void removeAllTags() throws DataManagerException {
+        delegate.removeAllTags();
+        invalidateTags();
+        invalidateMonths(appointments -> appointments.stream().anyMatch(appointment -> !appointment.getTags().isEmpty()));
+    }
+
+    /**
+     * The work runs on the uncached transaction, which does not tell what it changed,
+     * so all cached months and tags are dropped once it is committed.
+     */
+    @Override
+    public <T> T inTransaction(UnitOfWork<T> work) throws DataManagerException {
+        T result = delegate.inTransaction(work);
+        invalidateTags();
+        invalidateMonths(appointments -> true);
+        return result;
+    }
+
+    @Override
+    public Optional<Appointment> getAppointmentById(int appointmentId) throws DataManagerException {
+        return delegate.getAppointmentById(appointmentId);
+    }
+
+    @Override
+    public List<DaySummary> getDaySummaries(LocalDate firstDay, LocalDate lastDay) throws DataManagerException {
+        YearMonth firstMonth = YearMonth.from(firstDay);
+        YearMonth lastMonth = YearMonth.from(lastDay);
+
+        if (firstMonth.plusMonths(maxCachedMonths - 1).isBefore(lastMonth) || lastMonth.isBefore(firstMonth)) {
+            missCount.incrementAndGet();
+            return delegate.getDaySummaries(firstDay, lastDay);
+        }
+
+        List<DaySummary> summaries = new ArrayList<>();
+        for (YearMonth month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            for (DaySummary summary : getSummaryMonth(month)) {
+                if (!summary.day().isBefore(firstDay) && !summary.day().isAfter(lastDay)) {
+                    summaries.add(summary);
+                }
+            }
+        }
+        return summaries;
+    }
+
+    private List<DaySummary> getSummaryMonth(YearMonth month) throws DataManagerException {
+        // read before loading, summaries loaded while a write commits are stored under the outdated version
+        long dataVersion = delegate.getDataVersion();
+        synchronized (this) {
+            SummaryMonth cached = summariesByMonth.get(month);
+            if (cached != null && cached.dataVersion() == dataVersion) {
+                hitCount.incrementAndGet();
+                return cached.summaries();
+            }
+        }
+
+        missCount.incrementAndGet();
+        logger.debug("Day summary cache miss for {}", month);
+        List<DaySummary> loaded = List.copyOf(delegate.getDaySummaries(month.atDay(1), month.atEndOfMonth()));
+        synchronized (this) {
+            summariesByMonth.put(month, new SummaryMonth(dataVersion, loaded));
+        }
+        return loaded;
+    }
+
+    @Override
+    public long getDataVersion() {
+        return delegate.getDataVersion();
+    }
+
+    @Override
+    public List<Appointment> getOverlappingAppointments(LocalDateTime startDateTime, LocalDateTime endDateTime, String tagName) throws DataManagerException {
+        return delegate.getOverlappingAppointments(startDateTime, endDateTime, tagName);
+    }
+
+    @Override
+    public List<FreeSlot> findFreeSlots(LocalDateTime startDateTime, LocalDateTime endDateTime, Duration length,
+                                        WorkingHours workingHours, Collection<String> ignoredTagNames, int limit) throws DataManagerException {
+        return delegate.findFreeSlots(startDateTime, endDateTime, length, workingHours, ignoredTagNames, limit);
+    }
+
+    @Override
+    public int forEachAppointment(AppointmentConsumer consumer) throws DataManagerException {
+        return delegate.forEachAppointment(consumer);
+    }
+
+    @Override
+    public List<Tag> getTagsByAppointmentId(int appointmentId) throws DataManagerException {
+        return delegate.getTagsByAppointmentId(appointmentId);
+    }
+
+    @Override
+    public List<Appointment> getAppointmentsByDate(LocalDate date, JooqDataManager.DateFilter dateFilter) throws DataManagerException {
+        return delegate.getAppointmentsByDate(date, dateFilter);
+    }
+
+    @Override
+    public List<Appointment> getUpcomingAppointments(LocalDateTime date, int amount) throws DataManagerException {
+        return delegate.getUpcomingAppointments(date, amount);
+    }
+
+    @Override
+    public List<Appointment> getUpcomingAppointmentsByTag(LocalDateTime date, int amount, String tagName) throws DataManagerException {
+        return delegate.getUpcomingAppointmentsByTag(date, amount, tagName);
+    }
+
+    @Override
+    public AppointmentPage getUpcomingAppointmentsPage(LocalDateTime date, int pageSize, String pageToken) throws DataManagerException {
+        return delegate.getUpcomingAppointmentsPage(date, pageSize, pageToken);
+    }
+
+    @Override
+    public AppointmentPage getUpcomingAppointmentsByTagPage(LocalDateTime date, int pageSize, String tagName, String pageToken) throws DataManagerException {
+        return delegate.getUpcomingAppointmentsByTagPage(date, pageSize, tagName, pageToken);
+    }
+
+    @Override
+    public List<Appointment> getAppointmentsByTitle(String title) throws DataManagerException {
+        return delegate.getAppointmentsByTitle(title);
+    }
+
+    @Override
+    public List<AppointmentMatch> searchAppointments(String query, int limit) throws DataManagerException {
+        return delegate.searchAppointments(query, limit);
+    }
+
+    @Override
+    public void close() {
+        logger.info("Calendar cache statistics: {} hits, {} misses", getHitCount(), getMissCount());
+        delegate.close();
+    }
+}
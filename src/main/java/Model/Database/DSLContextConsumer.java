@@ -0,0 +1,8 @@
+package Model.Database;
+
+import org.jooq.DSLContext;
+
+@FunctionalInterface
+interface DSLContextConsumer<T> {
+    T execute(DSLContext create) throws Exception;
+}
@@ -1,14 +1,31 @@
 package Model.Database;
 
 import Model.Entities.Appointment;
+import Model.Entities.AppointmentMatch;
+import Model.Entities.DaySummary;
+import Model.Entities.FreeSlot;
 import Model.Entities.Tag;
+import Model.Entities.WorkingHours;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
-public interface DataManager {
+public interface DataManager extends AutoCloseable {
+
+    @FunctionalInterface
+    interface AppointmentConsumer {
+        void accept(Appointment appointment) throws Exception;
+    }
+
+    @FunctionalInterface
+    interface UnitOfWork<T> {
+        T execute(DataManager transaction) throws Exception;
+    }
 
     Optional<Appointment> getAppointmentById(int appointmentId) throws DataManagerException;
 
@@ -18,13 +35,97 @@ public interface DataManager {
 
     List<Appointment> getUpcomingAppointments(LocalDateTime date, int amount) throws DataManagerException;
 
+    /**
+     * Pages through the appointments ending after the date, ordered by start date and ID.
+     * Every page is read with one index seek, no matter how many pages came before it.
+     *
+     * @param pageToken token of the previous page, null for the first page
+     * @throws IllegalArgumentException if the page size is below 1 or the token is invalid
+     */
+    AppointmentPage getUpcomingAppointmentsPage(LocalDateTime date, int pageSize, String pageToken) throws DataManagerException;
+
+    /**
+     * Like {@link #getUpcomingAppointmentsPage}, limited to the appointments with the tag, its name is compared ignoring case.
+     */
+    AppointmentPage getUpcomingAppointmentsByTagPage(LocalDateTime date, int pageSize, String tagName, String pageToken) throws DataManagerException;
+
     List<Appointment> getAppointmentsByRange(LocalDateTime startDateTime, LocalDateTime endDateTime) throws DataManagerException;
 
+    /**
+     * Summarizes the days of the range for the month view, without loading the appointments themselves.
+     *
+     * @return one summary per day with appointments, ordered by day
+     */
+    List<DaySummary> getDaySummaries(LocalDate firstDay, LocalDate lastDay) throws DataManagerException;
+
+    /**
+     * Finds the appointments that would double book {@code [startDateTime, endDateTime)}, each occurrence of a series
+     * on its own. Unlike {@link #getAppointmentsByRange}, an appointment that ends when the range starts does not count.
+     *
+     * @param tagName only appointments with this tag, compared ignoring case, null for all
+     * @return the overlapping appointments ordered by start
+     */
+    List<Appointment> getOverlappingAppointments(LocalDateTime startDateTime, LocalDateTime endDateTime, String tagName) throws DataManagerException;
+
+    /**
+     * Finds the first free periods in the range that lie within the working hours and are at least {@code length} long.
+     * Each period is returned whole, from the end of one appointment to the start of the next or the end of the hours.
+     *
+     * @param ignoredTagNames appointments with one of these tags do not block the time, e.g. "tentative"
+     * @return at most limit free slots, ordered by start
+     * @throws IllegalArgumentException if the length is not positive or the limit is below 1
+     */
+    List<FreeSlot> findFreeSlots(LocalDateTime startDateTime, LocalDateTime endDateTime, Duration length,
+                                 WorkingHours workingHours, Collection<String> ignoredTagNames, int limit) throws DataManagerException;
+
+    /**
+     * Passes every appointment with its tags to the consumer, ordered by ID. The rows are read through a
+     * database cursor, so only the current appointment is held in memory.
+     *
+     * @return the number of appointments passed to the consumer
+     */
+    int forEachAppointment(AppointmentConsumer consumer) throws DataManagerException;
+
     Optional<Tag> getTagById(int tagId) throws DataManagerException;
 
 
     int addAppointment(Appointment appointment) throws DataManagerException;
 
+    /**
+     * Adds all appointments with their tags in one transaction.
+     *
+     * @return the generated IDs in the order of the given appointments
+     */
+    List<Integer> addAppointments(Collection<Appointment> appointments) throws DataManagerException;
+
+    /**
+     * Asynchronous writes: mutations arriving within a few milliseconds of each other are committed in one
+     * transaction. Each one still succeeds or fails on its own, a failed future carries a DataManagerException.
+     *
+     * @param durable commit right away and sync to disk before the future completes,
+     *                even if the database runs with a profile that does not sync every commit
+     */
+    CompletableFuture<Integer> addAppointmentAsync(Appointment appointment, boolean durable);
+
+    CompletableFuture<Void> updateAppointmentAsync(Appointment appointment, boolean durable);
+
+    CompletableFuture<Void> removeAppointmentByIdAsync(int appointmentId, boolean durable);
+
+    /**
+     * Runs several reads and writes on one connection in one transaction. The work gets a DataManager bound
+     * to that transaction, its reads see the writes made before them. Nothing is committed if the work throws.
+     * Other writes wait while the work runs, so it should not wait for user input.
+     *
+     * @return the result of the work
+     */
+    <T> T inTransaction(UnitOfWork<T> work) throws DataManagerException;
+
+    /**
+     * A version of the stored appointments and tags that grows with every committed write, so anything derived
+     * from the data can be reused as long as the version is unchanged. It may also grow without visible change.
+     */
+    long getDataVersion();
+
     @SuppressWarnings("unused")
     void removeAppointmentById(int appointmentId) throws DataManagerException;
 
@@ -39,12 +140,26 @@ public interface DataManager {
 
     List<Tag> getAllTags() throws DataManagerException;
 
+    /**
+     * @throws IllegalArgumentException if the appointment is an {@link Appointment#occurrenceAt occurrence} of a series
+     */
     void updateAppointment(Appointment appointment) throws DataManagerException;
 
     List<Appointment> getAppointmentsByTitle(String title) throws DataManagerException;
 
+    /**
+     * Tag names are unique ignoring the case of A to Z, so "work" finds the tag "Work".
+     */
     Optional<Tag> getTagByName(String name) throws DataManagerException;
 
+    /**
+     * Full-text search over titles and descriptions. Every word of the query has to occur in the appointment,
+     * as a whole word or as the start of one, case and accents are ignored.
+     *
+     * @return at most limit matches, the best one first
+     */
+    List<AppointmentMatch> searchAppointments(String query, int limit) throws DataManagerException;
+
     void updateTag(Tag tag) throws DataManagerException;
 
     void removeAllAppointments() throws DataManagerException;
@@ -52,4 +167,7 @@ public interface DataManager {
     void removeAllTags() throws DataManagerException;
 
     List<Appointment> getUpcomingAppointmentsByTag(LocalDateTime date, int amount, String tagName) throws DataManagerException;
+
+    @Override
+    void close();
 }
@@ -0,0 +1,32 @@
+package Model.Database;
+
+import org.jooq.impl.AbstractConverter;
+
+import java.io.Serial;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Maps the INTEGER epoch second columns of the Appointment table to {@link LocalDateTime}.
+ * Appointments are stored without a zone, so the wall clock time is written as if it were UTC,
+ * which matches SQLite's {@code unixepoch()} and {@code datetime(..., 'unixepoch')}.
+ * Referenced by the jOOQ code generator, see the forced types in the pom.
+ */
+public class EpochSecondConverter extends AbstractConverter<Long, LocalDateTime> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public EpochSecondConverter() {
+        super(Long.class, LocalDateTime.class);
+    }
+
+    @Override
+    public LocalDateTime from(Long epochSecond) {
+        return epochSecond == null ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    @Override
+    public Long to(LocalDateTime dateTime) {
+        return dateTime == null ? null : dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
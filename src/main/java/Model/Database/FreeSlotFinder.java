@@ -0,0 +1,99 @@
+package Model.Database;
+
+import Model.Entities.FreeSlot;
+import Model.Entities.WorkingHours;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sweeps once over the busy intervals of a range, ordered by start, and collects the free periods between them.
+ * The sweep only remembers when the time is free again, so it never looks back at an interval.
+ * A free period counts only within the working hours and if it is at least as long as asked. Working hours that
+ * end at midnight and start at midnight the next day form one period, so a free night is not split.
+ */
+final class FreeSlotFinder implements IntervalTree.IntervalVisitor {
+    private final LocalDateTime to;
+    private final Duration length;
+    private final WorkingHours workingHours;
+    private final int limit;
+    private final List<FreeSlot> slots = new ArrayList<>();
+    private LocalDateTime freeFrom;
+
+    /**
+     * @param limit the sweep stops once this many slots are found
+     */
+    FreeSlotFinder(LocalDateTime from, LocalDateTime to, Duration length, WorkingHours workingHours, int limit) {
+        this.to = to;
+        this.length = length;
+        this.workingHours = workingHours;
+        this.limit = limit;
+        this.freeFrom = from;
+    }
+
+    @Override
+    public boolean visit(LocalDateTime start, LocalDateTime end) {
+        if (start.isAfter(freeFrom)) {
+            addFreePeriod(freeFrom, start.isBefore(to) ? start : to);
+        }
+        // an appointment without duration takes up the second it starts in
+        LocalDateTime busyUntil = end.isAfter(start) ? end : start.plusSeconds(1);
+        if (busyUntil.isAfter(freeFrom)) {
+            freeFrom = busyUntil;
+        }
+        return slots.size() < limit && freeFrom.isBefore(to);
+    }
+
+    /**
+     * @return the free slots in order, the rest of the range after the last busy interval included
+     */
+    List<FreeSlot> finish() {
+        if (slots.size() < limit && freeFrom.isBefore(to)) {
+            addFreePeriod(freeFrom, to);
+        }
+        return slots;
+    }
+
+    /**
+     * Cuts the free period down to the working hours of its days.
+     */
+    private void addFreePeriod(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime runStart = null;
+        LocalDateTime runEnd = null;
+        for (LocalDate day = start.toLocalDate(); !day.isAfter(end.toLocalDate()) && slots.size() < limit; day = day.plusDays(1)) {
+            if (!workingHours.includes(day)) {
+                continue;
+            }
+            LocalDateTime open = max(workingHours.startOn(day), start);
+            LocalDateTime close = min(workingHours.endOn(day), end);
+            if (!open.isBefore(close)) {
+                continue;
+            }
+            if (runEnd != null && runEnd.equals(open)) {
+                runEnd = close;
+                continue;
+            }
+            addSlot(runStart, runEnd);
+            runStart = open;
+            runEnd = close;
+        }
+        addSlot(runStart, runEnd);
+    }
+
+    private void addSlot(LocalDateTime start, LocalDateTime end) {
+        if (start != null && slots.size() < limit && !start.plus(length).isAfter(end)) {
+            slots.add(new FreeSlot(start, end));
+        }
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,364 @@
+package Model.Database;
+
+import Model.Entities.Appointment;
+import Model.Entities.Recurrence;
+import Model.Entities.Tag;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * The appointments as intervals in memory, answering which of them overlap a range in O(log n + k).
+ * It is an AVL tree ordered by start and ID whose nodes also hold the latest end in their subtree,
+ * so a query skips every subtree that ends before the range.
+ * <p>
+ * A series is one interval from its first start to the end of its last occurrence, or without end.
+ * Only for the series a query hits are the occurrences in the range computed.
+ * Ranges are half-open, an appointment ending at 10:00 does not overlap one starting at 10:00.
+ * An appointment without duration takes up the second it starts in.
+ * <p>
+ * Not thread-safe.
+ */
+final class IntervalTree {
+    private static final long UNBOUNDED = Long.MAX_VALUE;
+    private static final Comparator<Overlap> BY_START = Comparator
+            .comparing(Overlap::startDate)
+            .thenComparingInt(Overlap::appointmentId);
+
+    /**
+     * What the tree keeps of an appointment, copied when the appointment is written.
+     *
+     * @param recurrence null for a single appointment
+     */
+    record Entry(int appointmentId, LocalDateTime startDate, LocalDateTime endDate, Recurrence recurrence, int[] tagIds) {
+        static Entry of(int appointmentId, Appointment appointment) {
+            List<Tag> tags = appointment.getTags();
+            int[] tagIds = tags == null ? new int[0] : tags.stream().mapToInt(Tag::getTagId).toArray();
+            return new Entry(appointmentId, appointment.getStartDate(), appointment.getEndDate(), appointment.getRecurrence(), tagIds);
+        }
+
+        boolean hasTag(int tagId) {
+            for (int id : tagIds) {
+                if (id == tagId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @param startDate the start of the overlapping occurrence, the start of the appointment if it does not repeat
+     */
+    record Overlap(int appointmentId, LocalDateTime startDate) {
+    }
+
+    @FunctionalInterface
+    interface IntervalVisitor {
+        /**
+         * @return whether the next interval should be visited
+         */
+        boolean visit(LocalDateTime start, LocalDateTime end);
+    }
+
+    private record Occurrence(LocalDateTime start, LocalDateTime end) {
+    }
+
+    private static final class Node {
+        Entry entry;
+        long start;
+        long end;
+        long maxEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(Entry entry) {
+            set(entry);
+            maxEnd = end;
+        }
+
+        void set(Entry entry) {
+            this.entry = entry;
+            this.start = toEpochSecond(entry.startDate());
+            long lastEnd = entry.recurrence() == null
+                    ? toEpochSecond(entry.endDate())
+                    : lastEndOf(entry).map(IntervalTree::toEpochSecond).orElse(UNBOUNDED);
+            this.end = Math.max(lastEnd, start + 1);
+        }
+    }
+
+    private final Map<Integer, Node> nodesById = new HashMap<>();
+    private Node root;
+
+    /**
+     * Builds a balanced tree in O(n).
+     *
+     * @param entries ordered by start and ID, one per appointment
+     */
+    static IntervalTree of(List<Entry> entries) {
+        IntervalTree tree = new IntervalTree();
+        tree.root = tree.build(entries, 0, entries.size() - 1);
+        return tree;
+    }
+
+    private Node build(List<Entry> entries, int from, int to) {
+        if (from > to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        Node node = new Node(entries.get(middle));
+        nodesById.put(node.entry.appointmentId(), node);
+        node.left = build(entries, from, middle - 1);
+        node.right = build(entries, middle + 1, to);
+        update(node);
+        return node;
+    }
+
+    int size() {
+        return nodesById.size();
+    }
+
+    /**
+     * Adds the appointment, or moves it if the tree already holds an entry with its ID.
+     */
+    void put(Entry entry) {
+        remove(entry.appointmentId());
+        Node node = new Node(entry);
+        root = insert(root, node);
+        nodesById.put(entry.appointmentId(), node);
+    }
+
+    void remove(int appointmentId) {
+        Node node = nodesById.remove(appointmentId);
+        if (node != null) {
+            root = delete(root, node.start, appointmentId);
+        }
+    }
+
+    /**
+     * @param tagId only appointments with this tag, null for all
+     * @return the appointments and occurrences overlapping {@code [from, to)}, ordered by start
+     */
+    List<Overlap> overlapping(LocalDateTime from, LocalDateTime to, Integer tagId) {
+        List<Node> hits = new ArrayList<>();
+        collect(root, toEpochSecond(from), Math.max(toEpochSecond(to), toEpochSecond(from) + 1), tagId, hits);
+
+        List<Overlap> overlaps = new ArrayList<>(hits.size());
+        for (Node hit : hits) {
+            Entry entry = hit.entry;
+            if (entry.recurrence() == null) {
+                overlaps.add(new Overlap(entry.appointmentId(), entry.startDate()));
+                continue;
+            }
+            Duration length = Duration.between(entry.startDate(), entry.endDate());
+            for (LocalDateTime start : entry.recurrence().startsBetween(entry.startDate(), length, from, to)) {
+                if (overlaps(start, start.plus(length), from, to)) {
+                    overlaps.add(new Overlap(entry.appointmentId(), start));
+                }
+            }
+        }
+        // occurrences of a series that began earlier may start after appointments found later
+        overlaps.sort(BY_START);
+        return overlaps;
+    }
+
+    /**
+     * Passes the appointments and occurrences overlapping {@code [from, to)} to the visitor, ordered by start,
+     * until it returns false. The tree is walked in order while visiting, so stopping early skips the rest of the range.
+     * Occurrences wait in a queue until the walk has passed their start.
+     *
+     * @param skipped appointments that are left out, e.g. because of their tags
+     */
+    void forEachOverlapping(LocalDateTime from, LocalDateTime to, Predicate<Entry> skipped, IntervalVisitor visitor) {
+        long fromSecond = toEpochSecond(from);
+        long toSecond = Math.max(toEpochSecond(to), fromSecond + 1);
+        PriorityQueue<Occurrence> occurrences = new PriorityQueue<>(Comparator.comparing(Occurrence::start));
+        Deque<Node> path = new ArrayDeque<>();
+
+        Node node = root;
+        while (node != null || !path.isEmpty()) {
+            // nothing in a subtree ending before the range is visited
+            for (; node != null && node.maxEnd > fromSecond; node = node.left) {
+                path.push(node);
+            }
+            if (path.isEmpty()) {
+                break;
+            }
+            node = path.pop();
+            if (node.start >= toSecond) {
+                break;
+            }
+
+            while (!occurrences.isEmpty() && !occurrences.peek().start().isAfter(node.entry.startDate())) {
+                Occurrence occurrence = occurrences.poll();
+                if (!visitor.visit(occurrence.start(), occurrence.end())) {
+                    return;
+                }
+            }
+
+            Entry entry = node.entry;
+            if (node.end > fromSecond && !skipped.test(entry)) {
+                if (entry.recurrence() == null) {
+                    if (!visitor.visit(entry.startDate(), entry.endDate())) {
+                        return;
+                    }
+                } else {
+                    Duration length = Duration.between(entry.startDate(), entry.endDate());
+                    for (LocalDateTime start : entry.recurrence().startsBetween(entry.startDate(), length, from, to)) {
+                        if (overlaps(start, start.plus(length), from, to)) {
+                            occurrences.add(new Occurrence(start, start.plus(length)));
+                        }
+                    }
+                }
+            }
+            node = node.right;
+        }
+
+        while (!occurrences.isEmpty()) {
+            Occurrence occurrence = occurrences.poll();
+            if (!visitor.visit(occurrence.start(), occurrence.end())) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Whether {@code [start, end)} overlaps {@code [from, to)}, an empty interval counts as its first second.
+     */
+    static boolean overlaps(LocalDateTime start, LocalDateTime end, LocalDateTime from, LocalDateTime to) {
+        long startSecond = toEpochSecond(start);
+        long fromSecond = toEpochSecond(from);
+        return startSecond < Math.max(toEpochSecond(to), fromSecond + 1)
+                && Math.max(toEpochSecond(end), startSecond + 1) > fromSecond;
+    }
+
+    private static void collect(Node node, long from, long to, Integer tagId, List<Node> hits) {
+        if (node == null || node.maxEnd <= from) {
+            return;
+        }
+        collect(node.left, from, to, tagId, hits);
+        if (node.start >= to) {
+            // the right subtree starts even later
+            return;
+        }
+        if (node.end > from && (tagId == null || node.entry.hasTag(tagId))) {
+            hits.add(node);
+        }
+        collect(node.right, from, to, tagId, hits);
+    }
+
+    private static int compare(long start, int appointmentId, Node node) {
+        int byStart = Long.compare(start, node.start);
+        return byStart != 0 ? byStart : Integer.compare(appointmentId, node.entry.appointmentId());
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.entry.appointmentId(), node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return balance(node);
+    }
+
+    private Node delete(Node node, long start, int appointmentId) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(start, appointmentId, node);
+        if (comparison < 0) {
+            node.left = delete(node.left, start, appointmentId);
+        } else if (comparison > 0) {
+            node.right = delete(node.right, start, appointmentId);
+        } else if (node.left == null || node.right == null) {
+            return node.left != null ? node.left : node.right;
+        } else {
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            // the node takes over the entry of its successor, which is then deleted from the right subtree
+            Entry entry = successor.entry;
+            node.right = delete(node.right, successor.start, entry.appointmentId());
+            node.set(entry);
+            nodesById.put(entry.appointmentId(), node);
+        }
+        return balance(node);
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static Optional<LocalDateTime> lastEndOf(Entry entry) {
+        Duration length = Duration.between(entry.startDate(), entry.endDate());
+        return entry.recurrence().lastStart(entry.startDate()).map(start -> start.plus(length));
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
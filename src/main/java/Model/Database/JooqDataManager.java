@@ -1,23 +1,49 @@
 package Model.Database;
 
 import Model.Entities.Appointment;
+import Model.Entities.AppointmentMatch;
+import Model.Entities.DaySummary;
+import Model.Entities.FreeSlot;
+import Model.Entities.Recurrence;
 import Model.Entities.Tag;
+import Model.Entities.WorkingHours;
+import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.ExecuteListener;
+import org.jooq.Field;
+import org.jooq.Param;
+import org.jooq.Query;
 import org.jooq.Record;
 import org.jooq.Result;
-import org.jooq.SQLDialect;
 import org.jooq.impl.DSL;
+import org.jooq.impl.DataSourceConnectionProvider;
+import org.jooq.impl.SQLDataType;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
 import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -27,103 +53,649 @@ import static org.jooq.generated.Tables.*;
 
 public class JooqDataManager implements DataManager {
     private static final Logger logger = LoggerFactory.getLogger(JooqDataManager.class);
+    private static final int BULK_CHUNK_SIZE = 500;
+    private static final EpochSecondConverter EPOCH_SECOND_CONVERTER = new EpochSecondConverter();
+    private static final Comparator<Appointment> BY_START = Comparator
+            .comparing(Appointment::getStartDate)
+            .thenComparingInt(Appointment::getAppointmentId);
+
+    private static final QueryTemplate APPOINTMENT_BY_ID = QueryTemplate.of(DSL.select(APPOINTMENT.fields())
+            .from(APPOINTMENT)
+            .where(APPOINTMENT.APPOINTMENTID.eq(param("appointmentId", APPOINTMENT.APPOINTMENTID))));
+    private static final QueryTemplate TAGS_BY_APPOINTMENT_ID = QueryTemplate.of(DSL.select(TAG.fields())
+            .from(APPOINTMENTTAG)
+            .join(TAG).on(APPOINTMENTTAG.TAGID.eq(TAG.TAGID))
+            .where(APPOINTMENTTAG.APPOINTMENTID.eq(param("appointmentId", APPOINTMENTTAG.APPOINTMENTID))));
+    // the IDs are bound as one JSON array, so the SQL is the same for any number of appointments
+    private static final QueryTemplate TAGS_BY_APPOINTMENT_IDS = QueryTemplate.of(
+            DSL.select(APPOINTMENTTAG.APPOINTMENTID, TAG.TAGID, TAG.NAME, TAG.COLOR)
+                    .from(APPOINTMENTTAG)
+                    .join(TAG).on(APPOINTMENTTAG.TAGID.eq(TAG.TAGID))
+                    .where(APPOINTMENTTAG.APPOINTMENTID.in(DSL.select(DSL.field(DSL.name("value"), SQLDataType.INTEGER))
+                            .from(DSL.table("json_each({0})", DSL.param("appointmentIds", SQLDataType.VARCHAR)))))
+                    .orderBy(APPOINTMENTTAG.APPOINTMENTID, TAG.TAGID));
+    private static final QueryTemplate APPOINTMENTS_BY_START_DATE = QueryTemplate.of(DSL.select(APPOINTMENT.fields())
+            .from(APPOINTMENT)
+            .where(APPOINTMENT.STARTDATE.ge(param("dayStart", APPOINTMENT.STARTDATE)))
+            .and(APPOINTMENT.STARTDATE.lt(param("nextDayStart", APPOINTMENT.STARTDATE))));
+    private static final QueryTemplate APPOINTMENTS_BY_END_DATE = QueryTemplate.of(DSL.select(APPOINTMENT.fields())
+            .from(APPOINTMENT)
+            .where(APPOINTMENT.ENDDATE.ge(param("dayStart", APPOINTMENT.ENDDATE)))
+            .and(APPOINTMENT.ENDDATE.lt(param("nextDayStart", APPOINTMENT.ENDDATE))));
+    // every series that has not ended yet, its occurrences are expanded after reading
+    private static final Condition SERIES_NOT_ENDED = APPOINTMENT.RECURRENCERULE.isNotNull()
+            .and(APPOINTMENT.RECURRENCEEND.isNull().or(APPOINTMENT.RECURRENCEEND.greaterThan(param("seriesDate", APPOINTMENT.RECURRENCEEND))));
+    private static final QueryTemplate UPCOMING_APPOINTMENTS = QueryTemplate.of(DSL.select(APPOINTMENT.fields())
+            .from(APPOINTMENT)
+            .where(APPOINTMENT.ENDDATE.greaterThan(param("date", APPOINTMENT.ENDDATE)))
+            .and(APPOINTMENT.RECURRENCERULE.isNull())
+            .orderBy(APPOINTMENT.STARTDATE.asc(), APPOINTMENT.APPOINTMENTID.asc())
+            .limit(DSL.param("amount", SQLDataType.INTEGER))
+            .unionAll(DSL.select(APPOINTMENT.fields())
+                    .from(APPOINTMENT)
+                    .where(SERIES_NOT_ENDED)));
+    // the row value comparison lets SQLite seek idx_appointment_startDate, which holds the ID as rowid
+    private static final QueryTemplate UPCOMING_APPOINTMENTS_AFTER = QueryTemplate.of(DSL.select(APPOINTMENT.fields())
+            .from(APPOINTMENT)
+            .where(APPOINTMENT.ENDDATE.greaterThan(param("date", APPOINTMENT.ENDDATE)))
+            .and(APPOINTMENT.RECURRENCERULE.isNull())
+            .and(DSL.row(APPOINTMENT.STARTDATE, APPOINTMENT.APPOINTMENTID)
+                    .gt(param("afterStartDate", APPOINTMENT.STARTDATE), param("afterAppointmentId", APPOINTMENT.APPOINTMENTID)))
+            .orderBy(APPOINTMENT.STARTDATE.asc(), APPOINTMENT.APPOINTMENTID.asc())
+            .limit(DSL.param("amount", SQLDataType.INTEGER))
+            .unionAll(DSL.select(APPOINTMENT.fields())
+                    .from(APPOINTMENT)
+                    .where(SERIES_NOT_ENDED)));
+    // every series with an occurrence that may overlap the range, checked exactly when it is expanded
+    private static final Condition SERIES_IN_RANGE = APPOINTMENT.RECURRENCERULE.isNotNull()
+            .and(APPOINTMENT.STARTDATE.le(param("seriesEndDateTime", APPOINTMENT.STARTDATE)))
+            .and(APPOINTMENT.RECURRENCEEND.isNull()
+                    .or(APPOINTMENT.RECURRENCEEND.ge(param("seriesStartDateTime", APPOINTMENT.RECURRENCEEND))));
+    // single appointments from the R*Tree, series from idx_appointment_series, sorted after the series are expanded
+    private static final QueryTemplate APPOINTMENTS_BY_RANGE = QueryTemplate.of(DSL.select(APPOINTMENT.fields())
+            .from(APPOINTMENT)
+            .where(APPOINTMENT.APPOINTMENTID.in(
+                    DSL.select(APPOINTMENTINTERVAL.APPOINTMENTID)
+                            .from(APPOINTMENTINTERVAL)
+                            .where(APPOINTMENTINTERVAL.STARTEPOCH.le(param("endEpoch", APPOINTMENTINTERVAL.STARTEPOCH)))
+                            .and(APPOINTMENTINTERVAL.ENDEPOCH.ge(param("startEpoch", APPOINTMENTINTERVAL.ENDEPOCH)))))
+            .and(APPOINTMENT.STARTDATE.le(param("endDateTime", APPOINTMENT.STARTDATE)))
+            .and(APPOINTMENT.ENDDATE.ge(param("startDateTime", APPOINTMENT.ENDDATE)))
+            .and(APPOINTMENT.RECURRENCERULE.isNull())
+            .unionAll(DSL.select(APPOINTMENT.fields())
+                    .from(APPOINTMENT)
+                    .where(SERIES_IN_RANGE)));
+    private static final QueryTemplate SERIES_BY_RANGE = QueryTemplate.of(DSL.select(APPOINTMENT.fields())
+            .from(APPOINTMENT)
+            .where(SERIES_IN_RANGE));
+    // the first tag in the order mapToAppointments loads the tags in
+    private static final Field<String> FIRST_TAG_COLOR = DSL.field(DSL.select(TAG.COLOR)
+            .from(APPOINTMENTTAG)
+            .join(TAG).on(TAG.TAGID.eq(APPOINTMENTTAG.TAGID))
+            .where(APPOINTMENTTAG.APPOINTMENTID.eq(DAYSUMMARY.FIRSTAPPOINTMENTID))
+            .orderBy(TAG.TAGID)
+            .limit(DSL.inline(1))).as("firstTagColor");
+    private static final QueryTemplate DAY_SUMMARIES = QueryTemplate.of(
+            DSL.select(DAYSUMMARY.DAY, DAYSUMMARY.APPOINTMENTCOUNT, DAYSUMMARY.FIRSTSTARTDATE, DAYSUMMARY.FIRSTAPPOINTMENTID, FIRST_TAG_COLOR)
+                    .from(DAYSUMMARY)
+                    .where(DAYSUMMARY.DAY.between(param("firstDay", DAYSUMMARY.DAY), param("lastDay", DAYSUMMARY.DAY)))
+                    .orderBy(DAYSUMMARY.DAY));
+    private static final QueryTemplate ALL_APPOINTMENTS_WITH_TAGS = QueryTemplate.of(
+            DSL.select(APPOINTMENT.APPOINTMENTID, APPOINTMENT.STARTDATE, APPOINTMENT.ENDDATE, APPOINTMENT.TITLE,
+                            APPOINTMENT.DESCRIPTION, APPOINTMENT.RECURRENCERULE, APPOINTMENT.RECURRENCEEXCEPTIONS,
+                            TAG.TAGID, TAG.NAME, TAG.COLOR)
+                    .from(APPOINTMENT)
+                    .leftJoin(APPOINTMENTTAG).on(APPOINTMENTTAG.APPOINTMENTID.eq(APPOINTMENT.APPOINTMENTID))
+                    .leftJoin(TAG).on(TAG.TAGID.eq(APPOINTMENTTAG.TAGID))
+                    .orderBy(APPOINTMENT.APPOINTMENTID));
+    // ordered like the interval tree, so it is built without sorting
+    private static final QueryTemplate ALL_INTERVALS = QueryTemplate.of(
+            DSL.select(APPOINTMENT.APPOINTMENTID, APPOINTMENT.STARTDATE, APPOINTMENT.ENDDATE, APPOINTMENT.RECURRENCERULE,
+                            APPOINTMENT.RECURRENCEEXCEPTIONS, APPOINTMENTTAG.TAGID)
+                    .from(APPOINTMENT)
+                    .leftJoin(APPOINTMENTTAG).on(APPOINTMENTTAG.APPOINTMENTID.eq(APPOINTMENT.APPOINTMENTID))
+                    .orderBy(APPOINTMENT.STARTDATE, APPOINTMENT.APPOINTMENTID));
+    private static final QueryTemplate INTERVAL_BY_ID = QueryTemplate.of(
+            DSL.select(APPOINTMENT.APPOINTMENTID, APPOINTMENT.STARTDATE, APPOINTMENT.ENDDATE, APPOINTMENT.RECURRENCERULE,
+                            APPOINTMENT.RECURRENCEEXCEPTIONS, APPOINTMENTTAG.TAGID)
+                    .from(APPOINTMENT)
+                    .leftJoin(APPOINTMENTTAG).on(APPOINTMENTTAG.APPOINTMENTID.eq(APPOINTMENT.APPOINTMENTID))
+                    .where(APPOINTMENT.APPOINTMENTID.eq(param("appointmentId", APPOINTMENT.APPOINTMENTID))));
+    private static final QueryTemplate APPOINTMENTS_BY_IDS = QueryTemplate.of(DSL.select(APPOINTMENT.fields())
+            .from(APPOINTMENT)
+            .where(APPOINTMENT.APPOINTMENTID.in(DSL.select(DSL.field(DSL.name("value"), SQLDataType.INTEGER))
+                    .from(DSL.table("json_each({0})", DSL.param("appointmentIds", SQLDataType.VARCHAR))))));
+    private static final QueryTemplate TAG_BY_ID = QueryTemplate.of(DSL.select(TAG.fields())
+            .from(TAG)
+            .where(TAG.TAGID.eq(param("tagId", TAG.TAGID))));
+    private static final QueryTemplate ALL_TAGS = QueryTemplate.of(DSL.select(TAG.fields())
+            .from(TAG));
+    private static final QueryTemplate APPOINTMENTS_BY_TITLE = QueryTemplate.of(DSL.select(APPOINTMENT.fields())
+            .from(APPOINTMENT)
+            .where(APPOINTMENT.TITLE.eq(param("title", APPOINTMENT.TITLE))));
+    private static final Field<Integer> SEARCH_ROWID = DSL.field(DSL.name(APPOINTMENTSEARCH.getName(), "rowid"), SQLDataType.INTEGER);
+    // up to 12 words around the best match of either column
+    private static final Field<String> SEARCH_SNIPPET = DSL.field("snippet({0}, -1, {1}, {2}, {3}, 12)", SQLDataType.VARCHAR,
+            APPOINTMENTSEARCH, DSL.inline(AppointmentMatch.HIGHLIGHT_START), DSL.inline(AppointmentMatch.HIGHLIGHT_END), DSL.inline("…"));
+    // a match in the title weighs ten times as much as one in the description
+    private static final QueryTemplate SEARCH_APPOINTMENTS = QueryTemplate.of(
+            DSL.select(APPOINTMENT.APPOINTMENTID, APPOINTMENT.STARTDATE, APPOINTMENT.ENDDATE, APPOINTMENT.TITLE,
+                            APPOINTMENT.DESCRIPTION, APPOINTMENT.RECURRENCERULE, APPOINTMENT.RECURRENCEEXCEPTIONS, SEARCH_SNIPPET)
+                    .from(APPOINTMENTSEARCH)
+                    .join(APPOINTMENT).on(APPOINTMENT.APPOINTMENTID.eq(SEARCH_ROWID))
+                    .where(DSL.condition("{0} MATCH {1}", APPOINTMENTSEARCH, DSL.param("query", SQLDataType.VARCHAR)))
+                    .orderBy(DSL.field("bm25({0}, 10.0, 1.0)", SQLDataType.DOUBLE, APPOINTMENTSEARCH))
+                    .limit(DSL.param("limit", SQLDataType.INTEGER)));
+    private static final QueryTemplate TAG_BY_NAME = QueryTemplate.of(DSL.select(TAG.fields())
+            .from(TAG)
+            .where(TAG.NAME.eq(param("name", TAG.NAME))));
+    // the tag ID comes from the name dictionary, idx_appointmentTag_tagId then yields the appointment IDs of the tag
+    private static final QueryTemplate UPCOMING_APPOINTMENTS_BY_TAG = QueryTemplate.of(DSL.select(APPOINTMENT.fields())
+            .from(APPOINTMENTTAG)
+            .join(APPOINTMENT).on(APPOINTMENT.APPOINTMENTID.eq(APPOINTMENTTAG.APPOINTMENTID))
+            .where(APPOINTMENT.ENDDATE.greaterThan(param("date", APPOINTMENT.ENDDATE)))
+            .and(APPOINTMENTTAG.TAGID.eq(param("tagId", APPOINTMENTTAG.TAGID)))
+            .and(APPOINTMENT.RECURRENCERULE.isNull())
+            .orderBy(APPOINTMENT.STARTDATE.asc(), APPOINTMENT.APPOINTMENTID.asc())
+            .limit(DSL.param("amount", SQLDataType.INTEGER))
+            .unionAll(DSL.select(APPOINTMENT.fields())
+                    .from(APPOINTMENTTAG)
+                    .join(APPOINTMENT).on(APPOINTMENT.APPOINTMENTID.eq(APPOINTMENTTAG.APPOINTMENTID))
+                    .where(SERIES_NOT_ENDED)
+                    .and(APPOINTMENTTAG.TAGID.eq(param("seriesTagId", APPOINTMENTTAG.TAGID)))));
+    private static final QueryTemplate UPCOMING_APPOINTMENTS_BY_TAG_AFTER = QueryTemplate.of(DSL.select(APPOINTMENT.fields())
+            .from(APPOINTMENTTAG)
+            .join(APPOINTMENT).on(APPOINTMENT.APPOINTMENTID.eq(APPOINTMENTTAG.APPOINTMENTID))
+            .where(APPOINTMENT.ENDDATE.greaterThan(param("date", APPOINTMENT.ENDDATE)))
+            .and(APPOINTMENTTAG.TAGID.eq(param("tagId", APPOINTMENTTAG.TAGID)))
+            .and(APPOINTMENT.RECURRENCERULE.isNull())
+            .and(DSL.row(APPOINTMENT.STARTDATE, APPOINTMENT.APPOINTMENTID)
+                    .gt(param("afterStartDate", APPOINTMENT.STARTDATE), param("afterAppointmentId", APPOINTMENT.APPOINTMENTID)))
+            .orderBy(APPOINTMENT.STARTDATE.asc(), APPOINTMENT.APPOINTMENTID.asc())
+            .limit(DSL.param("amount", SQLDataType.INTEGER))
+            .unionAll(DSL.select(APPOINTMENT.fields())
+                    .from(APPOINTMENTTAG)
+                    .join(APPOINTMENT).on(APPOINTMENT.APPOINTMENTID.eq(APPOINTMENTTAG.APPOINTMENTID))
+                    .where(SERIES_NOT_ENDED)
+                    .and(APPOINTMENTTAG.TAGID.eq(param("seriesTagId", APPOINTMENTTAG.TAGID)))));
+
     private final HikariDataSource dataSource;
+    private final DSLContext reader;
+    private final WriterLane writerLane;
+    private final ExecuteListener[] executeListeners;
+    /**
+     * Set for the views handed to a {@link UnitOfWork}, all their statements run on this context.
+     */
+    private final DSLContext transaction;
+    /**
+     * The commit count of the writer lane, views of a unit of work share it with the manager that created them.
+     */
+    private final LongSupplier dataVersion;
+    /**
+     * Tag IDs by {@link #nocaseKey(String) name key}, loaded by the first tag filtered query and dropped
+     * after every tag write. Views of a unit of work don't use it, they look the tag up in their transaction.
+     */
+    private Map<String, Integer> tagIdsByName;
+    private long tagGeneration;
+    private final OccurrenceCache occurrenceCache = new OccurrenceCache();
+    /**
+     * The appointments as intervals for overlap queries, loaded by the first one and kept current by every write
+     * once it is committed. Views of a unit of work don't use it, they query their transaction instead.
+     */
+    private IntervalTree intervalTree;
+    private long intervalGeneration;
+
+    /**
+     * Opens the database with the {@link SqliteProfile#DURABLE} settings.
+     *
+     * @param path_to_database path of the SQLite file
+     * @param executeListeners optional jOOQ listeners attached to every statement, e.g. for counting queries in tests
+     */
+    public JooqDataManager(String path_to_database, ExecuteListener... executeListeners) {
+        this(path_to_database, SqliteProfile.DURABLE, executeListeners);
+    }
+
+    /**
+     * Writes go through a {@link WriterLane} on a single connection, reads use a pool of read-only
+     * connections, one per core. In WAL mode readers never wait for the writer.
+     *
+     * @param path_to_database path of the SQLite file
+     * @param profile          SQLite settings applied to every connection
+     * @param executeListeners optional jOOQ listeners attached to every statement, e.g. for counting queries in tests
+     */
+    public JooqDataManager(String path_to_database, SqliteProfile profile, ExecuteListener... executeListeners) {
+        this(path_to_database, profile, Runtime.getRuntime().availableProcessors(), executeListeners);
+    }
 
-    public JooqDataManager(String path_to_database) {
-        logger.info("Initializing JooqDataManager with connection pooling: {}", path_to_database);
+    /**
+     * @param readerPoolSize maximum number of pooled read-only connections
+     */
+    public JooqDataManager(String path_to_database, SqliteProfile profile, int readerPoolSize, ExecuteListener... executeListeners) {
+        logger.info("Initializing JooqDataManager with connection pooling: {} ({} profile)", path_to_database, profile);
+        String url = "jdbc:sqlite:" + path_to_database;
+        this.executeListeners = executeListeners;
+        this.transaction = null;
+
+        Connection writerConnection = null;
+        try {
+            writerConnection = DriverManager.getConnection(url, profile.writerProperties());
+            SchemaMigrator.migrate(writerConnection);
+        } catch (SQLException e) {
+            logger.error("Could not migrate database schema of {}", path_to_database, e);
+            closeQuietly(writerConnection);
+            throw new IllegalStateException("Could not migrate database schema: " + e.getMessage(), e);
+        }
+        this.writerLane = new WriterLane(writerConnection, profile, executeListeners);
+        this.dataVersion = writerLane::getCommitCount;
 
+        // the readers open the file read-only, so it has to exist with its schema before
         HikariConfig config = new HikariConfig();
-        config.setJdbcUrl("jdbc:sqlite:" + path_to_database);
-        config.setMaximumPoolSize(10);
-        config.setMinimumIdle(2);
+        config.setJdbcUrl(url);
+        config.setDataSourceProperties(profile.readerProperties());
+        // has to match the open mode, sqlite-jdbc cannot switch it on an open connection
+        config.setReadOnly(true);
+        config.setMaximumPoolSize(readerPoolSize);
+        config.setMinimumIdle(1);
         config.setIdleTimeout(30000);
         config.setMaxLifetime(60000);
 
         this.dataSource = new HikariDataSource(config);
+        this.reader = DSL.using(JooqSettings.configuration(new DataSourceConnectionProvider(dataSource), executeListeners));
     }
 
-    @FunctionalInterface
-    private interface DSLContextConsumer<T> {
-        T execute(DSLContext create) throws Exception;
+    private JooqDataManager(WriterLane writerLane, DSLContext transaction, LongSupplier dataVersion, ExecuteListener[] executeListeners) {
+        this.dataSource = null;
+        this.reader = null;
+        this.writerLane = writerLane;
+        this.executeListeners = executeListeners;
+        this.transaction = transaction;
+        this.dataVersion = dataVersion;
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warn("Could not close connection", e);
+        }
     }
 
+    /**
+     * Runs a read on the reader pool, every statement borrows a read-only connection while it executes.
+     */
     private <T> T tryWithDSL(DSLContextConsumer<T> consumer) throws DataManagerException {
-        try (Connection connection = dataSource.getConnection()) {
-            DSLContext create = DSL.using(connection, SQLDialect.SQLITE);
-            return consumer.execute(create);
+        if (transaction != null) {
+            return tryInTransaction(consumer);
+        }
+        try {
+            return consumer.execute(reader);
+        } catch (Exception e) {
+            logger.error("Database operation failed", e);
+            throw new DataManagerException("Database operation failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs a write on the writer connection. It is atomic and committed when this method returns,
+     * possibly in one transaction together with writes of other threads.
+     */
+    private <T> T tryWithWriter(DSLContextConsumer<T> consumer) throws DataManagerException {
+        if (transaction != null) {
+            return tryInTransaction(consumer);
+        }
+        try {
+            return writerLane.execute(consumer);
+        } catch (Exception e) {
+            logger.error("Database operation failed", e);
+            throw new DataManagerException("Database operation failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Queues a write without waiting for it. The future completes once the write is committed,
+     * or fails with a {@link DataManagerException} if only this write was rolled back.
+     */
+    private <T> CompletableFuture<T> submitWrite(DSLContextConsumer<T> consumer, boolean durable) {
+        if (transaction != null) {
+            // part of the unit of work, it is committed together with it
+            try {
+                return CompletableFuture.completedFuture(tryInTransaction(consumer));
+            } catch (DataManagerException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return writerLane.submit(consumer, durable).exceptionallyCompose(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            logger.error("Database operation failed", cause);
+            return CompletableFuture.failedFuture(new DataManagerException("Database operation failed: " + cause.getMessage(), cause));
+        });
+    }
+
+    private <T> T tryInTransaction(DSLContextConsumer<T> consumer) throws DataManagerException {
+        try {
+            return consumer.execute(transaction);
+        } catch (DataManagerException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Database operation failed", e);
             throw new DataManagerException("Database operation failed: " + e.getMessage());
         }
     }
 
+    /**
+     * Runs the work as one write on the writer connection, so its reads never need a second connection.
+     */
+    @Override
+    public <T> T inTransaction(UnitOfWork<T> work) throws DataManagerException {
+        if (transaction != null) {
+            return tryInTransaction(create -> work.execute(this));
+        }
+        try {
+            return tryWithWriter(create -> {
+                logger.info("Running unit of work");
+                return work.execute(new JooqDataManager(writerLane, create, dataVersion, executeListeners));
+            });
+        } finally {
+            // the work may have written tags and appointments through its view
+            invalidateTagIds();
+            invalidateIntervals();
+        }
+    }
+
+    /**
+     * Counts the commits of the writer lane. Inside a unit of work it is the version before the work,
+     * its writes count once it is committed.
+     */
+    @Override
+    public long getDataVersion() {
+        return dataVersion.getAsLong();
+    }
+
+    /**
+     * Runs a write that changes tags. The name dictionary is dropped once the write is committed,
+     * a reader that loaded it before the commit does not keep its copy.
+     */
+    private <T> T tryWithTagWriter(DSLContextConsumer<T> consumer) throws DataManagerException {
+        try {
+            return tryWithWriter(consumer);
+        } finally {
+            invalidateTagIds();
+        }
+    }
+
+    private Optional<Integer> findTagId(DSLContext create, String tagName) {
+        if (transaction != null) {
+            return TAG_BY_NAME.bind(create, tagName).fetchOptional(TAG.TAGID);
+        }
+        return Optional.ofNullable(getTagIdDictionary(create).get(nocaseKey(tagName)));
+    }
+
+    private Map<String, Integer> getTagIdDictionary(DSLContext create) {
+        long loadGeneration;
+        synchronized (this) {
+            if (tagIdsByName != null) {
+                return tagIdsByName;
+            }
+            loadGeneration = tagGeneration;
+        }
+
+        Map<String, Integer> loaded = new HashMap<>();
+        for (Record record : ALL_TAGS.bind(create).fetch()) {
+            loaded.put(nocaseKey(record.get(TAG.NAME)), record.get(TAG.TAGID));
+        }
+        logger.debug("Loaded the IDs of {} tags", loaded.size());
+
+        synchronized (this) {
+            if (tagGeneration == loadGeneration) {
+                tagIdsByName = loaded;
+            }
+            return loaded;
+        }
+    }
+
+    private synchronized void invalidateTagIds() {
+        tagGeneration++;
+        tagIdsByName = null;
+    }
+
+    /**
+     * Updates the interval tree with a write once it is committed. The writes of a unit of work register
+     * nothing, the tree is dropped when the unit of work ends.
+     */
+    private void afterCommit(Runnable action) {
+        if (transaction == null) {
+            writerLane.afterCommit(action);
+        }
+    }
+
+    /**
+     * @return the interval tree, loaded first if needed. It may only be read while holding the lock of this manager,
+     * the writer changes it after every commit.
+     */
+    private IntervalTree getIntervalTree(DSLContext create) {
+        long loadGeneration;
+        synchronized (this) {
+            if (intervalTree != null) {
+                return intervalTree;
+            }
+            loadGeneration = intervalGeneration;
+        }
+
+        IntervalTree loaded;
+        try (var cursor = ALL_INTERVALS.bind(create).fetchLazy()) {
+            loaded = IntervalTree.of(toIntervalEntries(cursor));
+        }
+        logger.debug("Loaded the intervals of {} appointments", loaded.size());
+
+        synchronized (this) {
+            // a write committed meanwhile may be missing, the tree answers this query only
+            if (intervalGeneration == loadGeneration) {
+                intervalTree = loaded;
+            }
+            return loaded;
+        }
+    }
+
+    /**
+     * @param records rows of an interval query, the rows of one appointment one after another
+     */
+    private static List<IntervalTree.Entry> toIntervalEntries(Iterable<? extends Record> records) {
+        List<IntervalTree.Entry> entries = new ArrayList<>();
+        Record current = null;
+        List<Integer> tagIds = new ArrayList<>();
+        for (Record record : records) {
+            if (current != null && !current.get(APPOINTMENT.APPOINTMENTID).equals(record.get(APPOINTMENT.APPOINTMENTID))) {
+                entries.add(toIntervalEntry(current, tagIds));
+                tagIds.clear();
+            }
+            current = record;
+            if (record.get(APPOINTMENTTAG.TAGID) != null) {
+                tagIds.add(record.get(APPOINTMENTTAG.TAGID));
+            }
+        }
+        if (current != null) {
+            entries.add(toIntervalEntry(current, tagIds));
+        }
+        return entries;
+    }
+
+    private static IntervalTree.Entry toIntervalEntry(Record record, List<Integer> tagIds) {
+        return new IntervalTree.Entry(record.get(APPOINTMENT.APPOINTMENTID), record.get(APPOINTMENT.STARTDATE),
+                record.get(APPOINTMENT.ENDDATE), RecordMappers.toRecurrence(record),
+                tagIds.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private synchronized boolean hasIntervalTree() {
+        return intervalTree != null;
+    }
+
+    private synchronized void putIntervals(List<IntervalTree.Entry> entries) {
+        intervalGeneration++;
+        if (intervalTree != null) {
+            entries.forEach(intervalTree::put);
+        }
+    }
+
+    private synchronized void removeInterval(int appointmentId) {
+        intervalGeneration++;
+        if (intervalTree != null) {
+            intervalTree.remove(appointmentId);
+        }
+    }
+
+    private synchronized void clearIntervals() {
+        intervalGeneration++;
+        if (intervalTree != null) {
+            intervalTree = IntervalTree.of(List.of());
+        }
+    }
+
+    private synchronized void invalidateIntervals() {
+        intervalGeneration++;
+        intervalTree = null;
+    }
+
+    /**
+     * Folds only A to Z, like the NOCASE collation of Tag.name, so a key matches exactly the tags the database would match.
+     */
+    public static String nocaseKey(String name) {
+        char[] chars = name.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= 'A' && chars[i] <= 'Z') {
+                chars[i] = (char) (chars[i] + ('a' - 'A'));
+            }
+        }
+        return new String(chars);
+    }
+
+    private static <T> Param<T> param(String name, Field<T> field) {
+        return DSL.param(name, field.getDataType());
+    }
+
     public enum DateFilter {
         STARTDATE,
         ENDDATE
     }
 
-    private Appointment mapToAppointment(Record record) throws DataManagerException {
-        LocalDateTime startDate = LocalDateTime.parse(record.getValue(APPOINTMENT.STARTDATE), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-        LocalDateTime endDate = LocalDateTime.parse(record.getValue(APPOINTMENT.ENDDATE), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-        List<Tag> tags = getTagsByAppointmentId(record.getValue(APPOINTMENT.APPOINTMENTID));
-        return new Appointment(
-                record.getValue(APPOINTMENT.APPOINTMENTID),
-                startDate,
-                endDate,
-                record.getValue(APPOINTMENT.TITLE),
-                record.getValue(APPOINTMENT.DESCRIPTION),
-                tags
-        );
+    private List<Appointment> mapToAppointments(DSLContext create, Result<? extends Record> result) {
+        List<Integer> appointmentIds = result.getValues(APPOINTMENT.APPOINTMENTID);
+        Map<Integer, List<Tag>> tagsByAppointmentId = fetchTagsByAppointmentIds(create, appointmentIds);
+
+        List<Appointment> appointmentList = new ArrayList<>(result.size());
+        for (Record record : result) {
+            Appointment appointment = RecordMappers.TO_APPOINTMENT.map(record);
+            List<Tag> tags = tagsByAppointmentId.get(appointment.getAppointmentId());
+            if (tags != null) {
+                appointment.setTags(tags);
+            }
+            appointment.markClean();
+            appointmentList.add(appointment);
+        }
+        return appointmentList;
+    }
+
+    /**
+     * Loads the tags of all given appointments with one query instead of one query per appointment.
+     * The ids are bound as a single JSON array, so there is no limit on the number of bound parameters.
+     */
+    private Map<Integer, List<Tag>> fetchTagsByAppointmentIds(DSLContext create, List<Integer> appointmentIds) {
+        Map<Integer, List<Tag>> tagsByAppointmentId = new HashMap<>();
+        TAGS_BY_APPOINTMENT_IDS.bind(create, toJsonArray(appointmentIds))
+                .forEach(record -> tagsByAppointmentId
+                        .computeIfAbsent(record.get(APPOINTMENTTAG.APPOINTMENTID), id -> new ArrayList<>())
+                        .add(RecordMappers.TO_TAG.map(record)));
+        return tagsByAppointmentId;
+    }
+
+    /**
+     * @return the ids as a JSON array for the {@code json_each} table of a query
+     */
+    private static String toJsonArray(Collection<Integer> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(",", "[", "]"));
+    }
+
+    /**
+     * Replaces every series by its occurrences overlapping the range and sorts all appointments by start.
+     */
+    private List<Appointment> expandInRange(List<Appointment> appointments, LocalDateTime from, LocalDateTime to) {
+        List<Appointment> expanded = new ArrayList<>(appointments.size());
+        for (Appointment appointment : appointments) {
+            if (!appointment.isRecurring()) {
+                expanded.add(appointment);
+                continue;
+            }
+            for (LocalDateTime start : occurrenceCache.startsBetween(appointment, from, to)) {
+                expanded.add(appointment.occurrenceAt(start));
+            }
+        }
+        expanded.sort(BY_START);
+        return expanded;
+    }
+
+    /**
+     * Replaces every series by its next occurrences and keeps the first {@code limit} appointments by start.
+     * The single appointments are the first {@code limit} of their kind already, so no series has to be expanded further.
+     *
+     * @param after position of the previous page, only occurrences after it are expanded, null for the first page
+     */
+    private static List<Appointment> expandUpcoming(List<Appointment> appointments, LocalDateTime date, PageToken after, int limit) {
+        List<Appointment> expanded = new ArrayList<>(appointments.size());
+        for (Appointment appointment : appointments) {
+            if (!appointment.isRecurring()) {
+                expanded.add(appointment);
+                continue;
+            }
+            Duration length = Duration.between(appointment.getStartDate(), appointment.getEndDate());
+            // one more, the occurrence at the position itself may be the last one of the previous page
+            List<LocalDateTime> starts = after == null
+                    ? appointment.getRecurrence().startsAfter(appointment.getStartDate(), length, date, null, limit)
+                    : appointment.getRecurrence().startsAfter(appointment.getStartDate(), length, date, after.startDate(), limit + 1);
+            for (LocalDateTime start : starts) {
+                if (after != null && start.equals(after.startDate()) && appointment.getAppointmentId() <= after.appointmentId()) {
+                    continue;
+                }
+                expanded.add(appointment.occurrenceAt(start));
+            }
+        }
+        expanded.sort(BY_START);
+        return expanded.size() > limit ? new ArrayList<>(expanded.subList(0, limit)) : expanded;
     }
 
     public Optional<Appointment> getAppointmentById(int appointmentId) throws DataManagerException {
         return tryWithDSL(create -> {
             logger.info("Fetching appointment with ID: {}", appointmentId);
 
-            Record record = create.select()
-                    .from(APPOINTMENT)
-                    .where(APPOINTMENT.APPOINTMENTID.eq(appointmentId))
-                    .fetchOne();
+            Result<?> result = APPOINTMENT_BY_ID.bind(create, appointmentId).fetch();
 
-            if (record == null) {
+            if (result.isEmpty()) {
                 logger.warn("No appointment found in database for ID: {}", appointmentId);
                 return Optional.empty();
             }
 
             logger.debug("Successfully fetched appointment");
-            return Optional.of(mapToAppointment(record));
+            return Optional.of(mapToAppointments(create, result).getFirst());
         });
     }
 
     public List<Tag> getTagsByAppointmentId(int appointmentId) throws DataManagerException {
         return tryWithDSL(create -> {
             logger.info("Fetching Tags assigned to Appointment: {}", appointmentId);
-            Result<?> result = create.select()
-                    .from(APPOINTMENTTAG)
-                    .join(TAG).on(APPOINTMENTTAG.TAGID.eq(TAG.TAGID))
-                    .where(APPOINTMENTTAG.APPOINTMENTID.eq(appointmentId))
-                    .fetch();
-
-            return result.isEmpty() ? new ArrayList<>() : result.stream()
-                    .map(record -> new Tag(
-                            record.getValue(TAG.TAGID),
-                            record.getValue(TAG.NAME),
-                            record.getValue(TAG.COLOR)
-                    ))
-                    .collect(Collectors.toList());
+            return TAGS_BY_APPOINTMENT_ID.bind(create, appointmentId).fetch(RecordMappers.TO_TAG);
         });
     }
 
     public List<Appointment> getAppointmentsByDate(LocalDate date, DateFilter dateFilter) throws DataManagerException {
         return tryWithDSL(create -> {
             logger.info("Fetching appointments on date: {} with filter: {}", date, dateFilter);
-            String datePrefix = date.toString() + "T";
+            LocalDateTime dayStart = date.atStartOfDay();
+            LocalDateTime nextDayStart = date.plusDays(1).atStartOfDay();
 
             Result<?> result = switch (dateFilter) {
-                case STARTDATE ->
-                        create.select().from(APPOINTMENT).where(APPOINTMENT.STARTDATE.like(datePrefix + "%")).fetch();
-                case ENDDATE ->
-                        create.select().from(APPOINTMENT).where(APPOINTMENT.ENDDATE.like(datePrefix + "%")).fetch();
+                case STARTDATE -> APPOINTMENTS_BY_START_DATE.bind(create, dayStart, nextDayStart).fetch();
+                case ENDDATE -> APPOINTMENTS_BY_END_DATE.bind(create, dayStart, nextDayStart).fetch();
             };
 
             if (result.isEmpty()) {
@@ -131,16 +703,7 @@ public class JooqDataManager implements DataManager {
                 return new ArrayList<>();
             }
 
-            List<Appointment> appointmentList = result.stream()
-                    .map(record -> {
-                        try {
-                            return mapToAppointment(record);
-                        } catch (DataManagerException e) {
-                            logger.error("Error mapping record to appointment: {}", record, e);
-                            throw new RuntimeException(e);
-                        }
-                    })
-                    .collect(Collectors.toList());
+            List<Appointment> appointmentList = mapToAppointments(create, result);
 
             logger.debug("Successfully fetched {} appointments for date: {}", appointmentList.size(), date);
             return appointmentList;
@@ -151,140 +714,324 @@ public class JooqDataManager implements DataManager {
         return tryWithDSL(create -> {
             logger.info("Fetching the next {} upcoming appointments after {}", amount, date);
 
-            Result<?> result = create.select()
-                    .from(APPOINTMENT)
-                    .where(APPOINTMENT.ENDDATE.greaterThan(date.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)))
-                    .orderBy(APPOINTMENT.STARTDATE.asc())
-                    .limit(amount)
-                    .fetch();
+            Result<?> result = UPCOMING_APPOINTMENTS.bind(create, date, amount, date).fetch();
+            List<Appointment> appointmentList = expandUpcoming(mapToAppointments(create, result), date, null, amount);
 
-            if (result.isEmpty()) {
+            if (appointmentList.isEmpty()) {
                 logger.warn("No appointments found after {}", date);
-                return new ArrayList<>();
+                return appointmentList;
             }
 
-            if (result.size() < amount) {
-                logger.warn("Only {}/{} appointments found after {}", result.size(), amount, date);
+            if (appointmentList.size() < amount) {
+                logger.warn("Only {}/{} appointments found after {}", appointmentList.size(), amount, date);
             }
 
-            List<Appointment> appointmentList = result.stream()
-                    .map(record -> {
-                        try {
-                            return mapToAppointment(record);
-                        } catch (DataManagerException e) {
-                            logger.error("Error mapping record to appointment: {}", record, e);
-                            throw new RuntimeException(e);
-                        }
-                    })
-                    .collect(Collectors.toList());
-
             logger.debug("Successfully fetched {} upcoming appointments after {}", appointmentList.size(), date);
             return appointmentList;
         });
     }
 
+    @Override
+    public AppointmentPage getUpcomingAppointmentsPage(LocalDateTime date, int pageSize, String pageToken) throws DataManagerException {
+        PageToken after = checkPageRequest(pageSize, pageToken);
+        return tryWithDSL(create -> {
+            logger.info("Fetching a page of {} upcoming appointments after {}", pageSize, date);
+
+            // one row more than requested tells whether there is a next page
+            Result<?> result = after == null
+                    ? UPCOMING_APPOINTMENTS.bind(create, date, pageSize + 1, date).fetch()
+                    : UPCOMING_APPOINTMENTS_AFTER.bind(create, date, after.startDate(), after.appointmentId(), pageSize + 1, date).fetch();
+
+            return toPage(expandUpcoming(mapToAppointments(create, result), date, after, pageSize + 1), pageSize);
+        });
+    }
+
+    @Override
+    public AppointmentPage getUpcomingAppointmentsByTagPage(LocalDateTime date, int pageSize, String tagName, String pageToken) throws DataManagerException {
+        PageToken after = checkPageRequest(pageSize, pageToken);
+        return tryWithDSL(create -> {
+            logger.info("Fetching a page of {} upcoming appointments after {} with the tag {}", pageSize, date, tagName);
+
+            Optional<Integer> tagId = findTagId(create, tagName);
+            if (tagId.isEmpty()) {
+                logger.warn("No tag found with name: {}", tagName);
+                return new AppointmentPage(new ArrayList<>(), Optional.empty());
+            }
+
+            Result<?> result = after == null
+                    ? UPCOMING_APPOINTMENTS_BY_TAG.bind(create, date, tagId.get(), pageSize + 1, date, tagId.get()).fetch()
+                    : UPCOMING_APPOINTMENTS_BY_TAG_AFTER.bind(create, date, tagId.get(),
+                    after.startDate(), after.appointmentId(), pageSize + 1, date, tagId.get()).fetch();
+
+            return toPage(expandUpcoming(mapToAppointments(create, result), date, after, pageSize + 1), pageSize);
+        });
+    }
+
+    private static PageToken checkPageRequest(int pageSize, String pageToken) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("The page size has to be at least 1.");
+        }
+        return pageToken == null ? null : PageToken.decode(pageToken);
+    }
+
+    private AppointmentPage toPage(List<Appointment> appointmentList, int pageSize) {
+        if (appointmentList.size() <= pageSize) {
+            logger.debug("Successfully fetched the last page with {} appointments", appointmentList.size());
+            return new AppointmentPage(appointmentList, Optional.empty());
+        }
+
+        appointmentList.removeLast();
+        logger.debug("Successfully fetched a page with {} appointments", appointmentList.size());
+        return new AppointmentPage(appointmentList, Optional.of(PageToken.after(appointmentList.getLast()).encode()));
+    }
+
+    /**
+     * Fetches all appointments overlapping the given range, including appointments that started before it
+     * and are still running. Candidates come from the R*Tree interval index and are checked again against
+     * the exact dates, since the index stores its coordinates with single precision.
+     */
     public List<Appointment> getAppointmentsByRange(LocalDateTime startDateTime, LocalDateTime endDateTime) throws DataManagerException {
         return tryWithDSL(create -> {
             logger.info("Fetching appointments between {} and {}", startDateTime, endDateTime);
 
-            Result<?> result = create.select()
-                    .from(APPOINTMENT)
-                    .where(APPOINTMENT.STARTDATE.between(
-                            startDateTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
-                            endDateTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)))
-                    .fetch();
-
-            if (result.isEmpty()) {
+            List<Appointment> appointmentList = fetchAppointmentsByRange(create, startDateTime, endDateTime);
+            if (appointmentList.isEmpty()) {
                 logger.warn("No appointments found between {} and {}", startDateTime, endDateTime);
+                return appointmentList;
+            }
+
+            logger.debug("Successfully fetched {} appointments between {} and {}", appointmentList.size(), startDateTime, endDateTime);
+            return appointmentList;
+        });
+    }
+
+    private List<Appointment> fetchAppointmentsByRange(DSLContext create, LocalDateTime startDateTime, LocalDateTime endDateTime) {
+        Result<?> result = APPOINTMENTS_BY_RANGE.bind(create,
+                (double) toEpochSecond(endDateTime), (double) toEpochSecond(startDateTime),
+                endDateTime, startDateTime, endDateTime, startDateTime).fetch();
+        if (result.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return expandInRange(mapToAppointments(create, result), startDateTime, endDateTime);
+    }
+
+    /**
+     * The single appointments are read from the DaySummary table, which the triggers of the Appointment table keep
+     * current, so this reads one small row per day with appointments. The occurrences of the series in the range
+     * are added on top, they are never stored.
+     */
+    @Override
+    public List<DaySummary> getDaySummaries(LocalDate firstDay, LocalDate lastDay) throws DataManagerException {
+        return tryWithDSL(create -> {
+            logger.info("Fetching the day summaries from {} to {}", firstDay, lastDay);
+
+            Map<LocalDate, DaySummary> summariesByDay = new TreeMap<>();
+            for (Record record : DAY_SUMMARIES.bind(create, (int) firstDay.toEpochDay(), (int) lastDay.toEpochDay()).fetch()) {
+                LocalDate day = LocalDate.ofEpochDay(record.get(DAYSUMMARY.DAY));
+                summariesByDay.put(day, new DaySummary(day, record.get(DAYSUMMARY.APPOINTMENTCOUNT),
+                        record.get(DAYSUMMARY.FIRSTSTARTDATE), record.get(DAYSUMMARY.FIRSTAPPOINTMENTID), record.get(FIRST_TAG_COLOR)));
+            }
+
+            LocalDateTime from = firstDay.atStartOfDay();
+            LocalDateTime to = lastDay.atTime(Recurrence.LAST_SECOND_OF_DAY);
+            Result<?> series = SERIES_BY_RANGE.bind(create, to, from).fetch();
+            for (Appointment appointment : series.isEmpty() ? List.<Appointment>of() : mapToAppointments(create, series)) {
+                Duration length = Duration.between(appointment.getStartDate(), appointment.getEndDate());
+                String tagColor = appointment.getTags().isEmpty() ? null : appointment.getTags().getFirst().getColor();
+                for (LocalDateTime start : occurrenceCache.startsBetween(appointment, from, to)) {
+                    LocalDateTime end = start.plus(length);
+                    LocalDate lastOccurrenceDay = (end.isAfter(start) ? end : start).toLocalDate();
+                    for (LocalDate day = start.toLocalDate().isBefore(firstDay) ? firstDay : start.toLocalDate();
+                         !day.isAfter(lastOccurrenceDay) && !day.isAfter(lastDay); day = day.plusDays(1)) {
+                        DaySummary summary = summariesByDay.get(day);
+                        summariesByDay.put(day, summary == null
+                                ? new DaySummary(day, 1, start, appointment.getAppointmentId(), tagColor)
+                                : summary.plus(start, appointment.getAppointmentId(), tagColor));
+                    }
+                }
+            }
+
+            logger.debug("Successfully fetched {} day summaries from {} to {}", summariesByDay.size(), firstDay, lastDay);
+            return new ArrayList<>(summariesByDay.values());
+        });
+    }
+
+    /**
+     * Answered by the in-memory interval tree, the database is only asked for the appointments it finds.
+     */
+    @Override
+    public List<Appointment> getOverlappingAppointments(LocalDateTime startDateTime, LocalDateTime endDateTime, String tagName) throws DataManagerException {
+        return tryWithDSL(create -> {
+            logger.info("Fetching appointments overlapping {} to {} with the tag {}", startDateTime, endDateTime, tagName);
+
+            Integer tagId = null;
+            if (tagName != null) {
+                Optional<Integer> foundTagId = findTagId(create, tagName);
+                if (foundTagId.isEmpty()) {
+                    logger.warn("No tag found with name: {}", tagName);
+                    return new ArrayList<>();
+                }
+                tagId = foundTagId.get();
+            }
+
+            if (transaction != null) {
+                // the tree does not know the writes of the unit of work yet
+                int requiredTagId = tagId == null ? 0 : tagId;
+                List<Appointment> appointmentList = new ArrayList<>();
+                for (Appointment appointment : fetchAppointmentsByRange(create, startDateTime, endDateTime)) {
+                    if (IntervalTree.overlaps(appointment.getStartDate(), appointment.getEndDate(), startDateTime, endDateTime)
+                            && (tagName == null || appointment.getTags().stream().anyMatch(tag -> tag.getTagId() == requiredTagId))) {
+                        appointmentList.add(appointment);
+                    }
+                }
+                return appointmentList;
+            }
+
+            IntervalTree tree = getIntervalTree(create);
+            List<IntervalTree.Overlap> overlaps;
+            synchronized (this) {
+                overlaps = tree.overlapping(startDateTime, endDateTime, tagId);
+            }
+            if (overlaps.isEmpty()) {
+                logger.debug("No appointments overlap {} to {}", startDateTime, endDateTime);
                 return new ArrayList<>();
             }
 
-            List<Appointment> appointmentList = result.stream()
-                    .map(record -> {
-                        try {
-                            return mapToAppointment(record);
-                        } catch (DataManagerException e) {
-                            logger.error("Error mapping record to appointment: {}", record, e);
-                            throw new RuntimeException(e);
-                        }
-                    })
-                    .collect(Collectors.toList());
+            List<Integer> appointmentIds = overlaps.stream().map(IntervalTree.Overlap::appointmentId).distinct().toList();
+            Map<Integer, Appointment> appointmentsById = new HashMap<>();
+            for (Appointment appointment : mapToAppointments(create, APPOINTMENTS_BY_IDS.bind(create, toJsonArray(appointmentIds)).fetch())) {
+                appointmentsById.put(appointment.getAppointmentId(), appointment);
+            }
 
-            logger.debug("Successfully fetched {} appointments between {} and {}", appointmentList.size(), startDateTime, endDateTime);
+            List<Appointment> appointmentList = new ArrayList<>(overlaps.size());
+            for (IntervalTree.Overlap overlap : overlaps) {
+                Appointment appointment = appointmentsById.get(overlap.appointmentId());
+                if (appointment == null) {
+                    // removed since the tree was read
+                    continue;
+                }
+                appointmentList.add(appointment.isRecurring() ? appointment.occurrenceAt(overlap.startDate()) : appointment);
+            }
+
+            logger.debug("Found {} appointments overlapping {} to {}", appointmentList.size(), startDateTime, endDateTime);
             return appointmentList;
         });
     }
 
+    /**
+     * Streams appointments joined with their tags through a lazy cursor. The rows of one appointment
+     * arrive consecutively and are collected into one {@link Appointment} before it is passed on.
+     */
+    @Override
+    public int forEachAppointment(AppointmentConsumer consumer) throws DataManagerException {
+        return tryWithDSL(create -> {
+            logger.info("Streaming all appointments");
+            int count = 0;
+
+            try (var cursor = ALL_APPOINTMENTS_WITH_TAGS.bind(create).fetchLazy()) {
+
+                Appointment current = null;
+                for (Record record : cursor) {
+                    if (current == null || current.getAppointmentId() != record.get(APPOINTMENT.APPOINTMENTID)) {
+                        if (current != null) {
+                            current.markClean();
+                            consumer.accept(current);
+                            count++;
+                        }
+                        current = RecordMappers.TO_APPOINTMENT.map(record);
+                    }
+                    if (record.get(TAG.TAGID) != null) {
+                        current.getTags().add(RecordMappers.TO_TAG.map(record));
+                    }
+                }
+                if (current != null) {
+                    current.markClean();
+                    consumer.accept(current);
+                    count++;
+                }
+            }
+
+            logger.debug("Successfully streamed {} appointments", count);
+            return count;
+        });
+    }
+
+    /**
+     * Epoch second coordinate of the interval index, written the same way as the stored appointment dates.
+     */
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return EPOCH_SECOND_CONVERTER.to(dateTime);
+    }
+
+    /**
+     * Sweeps over the interval tree in start order and stops as soon as enough slots are found,
+     * so the time depends on how far the first free slots are and not on the size of the calendar.
+     */
+    @Override
+    public List<FreeSlot> findFreeSlots(LocalDateTime startDateTime, LocalDateTime endDateTime, Duration length,
+                                        WorkingHours workingHours, Collection<String> ignoredTagNames, int limit) throws DataManagerException {
+        if (length.isNegative() || length.isZero()) {
+            throw new IllegalArgumentException("A free slot has to be longer than zero.");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("At least one free slot has to be asked for.");
+        }
+        if (!startDateTime.isBefore(endDateTime)) {
+            return new ArrayList<>();
+        }
+
+        return tryWithDSL(create -> {
+            logger.info("Finding {} free slots of {} between {} and {} ignoring the tags {}",
+                    limit, length, startDateTime, endDateTime, ignoredTagNames);
+
+            // tags that do not exist cannot mark an appointment as ignorable
+            Set<Integer> ignoredTagIds = new HashSet<>();
+            for (String tagName : ignoredTagNames) {
+                findTagId(create, tagName).ifPresent(ignoredTagIds::add);
+            }
+
+            FreeSlotFinder finder = new FreeSlotFinder(startDateTime, endDateTime, length, workingHours, limit);
+            if (transaction != null) {
+                // the tree does not know the writes of the unit of work yet
+                for (Appointment appointment : fetchAppointmentsByRange(create, startDateTime, endDateTime)) {
+                    boolean ignored = appointment.getTags().stream().anyMatch(tag -> ignoredTagIds.contains(tag.getTagId()));
+                    if (!ignored && IntervalTree.overlaps(appointment.getStartDate(), appointment.getEndDate(), startDateTime, endDateTime)
+                            && !finder.visit(appointment.getStartDate(), appointment.getEndDate())) {
+                        break;
+                    }
+                }
+            } else {
+                IntervalTree tree = getIntervalTree(create);
+                synchronized (this) {
+                    tree.forEachOverlapping(startDateTime, endDateTime,
+                            entry -> Arrays.stream(entry.tagIds()).anyMatch(ignoredTagIds::contains), finder);
+                }
+            }
+
+            List<FreeSlot> slots = finder.finish();
+            logger.debug("Found {} free slots between {} and {}", slots.size(), startDateTime, endDateTime);
+            return slots;
+        });
+    }
+
     public Optional<Tag> getTagById(int tagId) throws DataManagerException {
         return tryWithDSL(create -> {
             logger.info("Fetching Tag with ID: {}", tagId);
 
-            Record record = create.select().from(TAG).where(TAG.TAGID.eq(tagId)).fetchOne();
+            Optional<Tag> tag = TAG_BY_ID.bind(create, tagId).fetchOptional(RecordMappers.TO_TAG);
 
-            if (record == null) {
+            if (tag.isEmpty()) {
                 logger.warn("No Tag found with ID: {}", tagId);
-                return Optional.empty();
+            } else {
+                logger.debug("Successfully fetched Tag with ID: {}", tagId);
             }
-
-            Tag tag = new Tag(
-                    record.getValue(TAG.TAGID),
-                    record.getValue(TAG.NAME),
-                    record.getValue(TAG.COLOR)
-            );
-
-            logger.debug("Successfully fetched Tag with ID: {}", tagId);
-            return Optional.of(tag);
+            return tag;
         });
     }
 
     public int addAppointment(Appointment appointment) throws DataManagerException {
         try {
-            return tryWithDSL(create ->
-                    create.transactionResult(configuration -> {
-                        DSLContext ctx = DSL.using(configuration);
-                        logger.info("Adding new appointment in transaction: {}", appointment);
-
-                        LocalDateTime startDate = appointment.getStartDate();
-                        LocalDateTime endDate = appointment.getEndDate();
-                        String title = appointment.getTitle();
-                        String description = appointment.getDescription();
-                        List<Tag> tags = appointment.getTags();
-
-                        Record record = ctx.insertInto(APPOINTMENT, APPOINTMENT.STARTDATE, APPOINTMENT.ENDDATE,
-                                        APPOINTMENT.TITLE, APPOINTMENT.DESCRIPTION)
-                                .values(startDate.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
-                                        endDate.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
-                                        title, description)
-                                .returning(APPOINTMENT.APPOINTMENTID)
-                                .fetchOne();
-
-                        if (record == null) {
-                            throw new DataManagerException("Failed to insert appointment. No ID returned.");
-                        }
-
-                        int insertedId = record.getValue(APPOINTMENT.APPOINTMENTID);
-
-                        if (tags != null && !tags.isEmpty()) {
-                            for (Tag tag : tags) {
-                                boolean exists = ctx.fetchExists(
-                                        ctx.selectOne()
-                                                .from(APPOINTMENTTAG)
-                                                .where(APPOINTMENTTAG.APPOINTMENTID.eq(insertedId)
-                                                        .and(APPOINTMENTTAG.TAGID.eq(tag.getTagId())))
-                                );
-                                if (!exists) {
-                                    logger.info("Adding Tag {} to Appointment ID: {}", tag, insertedId);
-                                    ctx.insertInto(APPOINTMENTTAG, APPOINTMENTTAG.APPOINTMENTID, APPOINTMENTTAG.TAGID)
-                                            .values(insertedId, tag.getTagId())
-                                            .execute();
-                                }
-                            }
-                        }
-
-                        logger.info("Successfully added appointment with ID: {}", insertedId);
-                        return insertedId;
-                    })
-            );
+            return tryWithWriter(insertAppointment(appointment));
         } catch (org.jooq.exception.IntegrityConstraintViolationException e) {
             logger.error("Integrity constraint violation while adding appointment: {}", e.getMessage());
             throw new DataManagerException("Integrity constraint violation: " + e.getMessage());
@@ -294,8 +1041,154 @@ public class JooqDataManager implements DataManager {
         }
     }
 
+    @Override
+    public CompletableFuture<Integer> addAppointmentAsync(Appointment appointment, boolean durable) {
+        return submitWrite(insertAppointment(appointment), durable);
+    }
+
+    private DSLContextConsumer<Integer> insertAppointment(Appointment appointment) {
+        return ctx -> {
+            logger.info("Adding new appointment in transaction: {}", appointment);
+
+            LocalDateTime startDate = appointment.getStartDate();
+            LocalDateTime endDate = appointment.getEndDate();
+            String title = appointment.getTitle();
+            String description = appointment.getDescription();
+            List<Tag> tags = appointment.getTags();
+
+            Record record = ctx.insertInto(APPOINTMENT, APPOINTMENT.STARTDATE, APPOINTMENT.ENDDATE,
+                            APPOINTMENT.TITLE, APPOINTMENT.DESCRIPTION, APPOINTMENT.RECURRENCERULE,
+                            APPOINTMENT.RECURRENCEEXCEPTIONS, APPOINTMENT.RECURRENCEEND)
+                    .values(startDate, endDate, title, description, recurrenceRuleOf(appointment),
+                            recurrenceExceptionsOf(appointment), recurrenceEndOf(appointment))
+                    .returning(APPOINTMENT.APPOINTMENTID)
+                    .fetchOne();
+
+            if (record == null) {
+                throw new DataManagerException("Failed to insert appointment. No ID returned.");
+            }
+
+            int insertedId = record.getValue(APPOINTMENT.APPOINTMENTID);
+            List<IntervalTree.Entry> interval = List.of(IntervalTree.Entry.of(insertedId, appointment));
+            afterCommit(() -> putIntervals(interval));
+
+            if (tags != null && !tags.isEmpty()) {
+                for (Tag tag : tags) {
+                    boolean exists = ctx.fetchExists(
+                            ctx.selectOne()
+                                    .from(APPOINTMENTTAG)
+                                    .where(APPOINTMENTTAG.APPOINTMENTID.eq(insertedId)
+                                            .and(APPOINTMENTTAG.TAGID.eq(tag.getTagId())))
+                    );
+                    if (!exists) {
+                        logger.info("Adding Tag {} to Appointment ID: {}", tag, insertedId);
+                        ctx.insertInto(APPOINTMENTTAG, APPOINTMENTTAG.APPOINTMENTID, APPOINTMENTTAG.TAGID)
+                                .values(insertedId, tag.getTagId())
+                                .execute();
+                    }
+                }
+            }
+
+            logger.info("Successfully added appointment with ID: {}", insertedId);
+            return insertedId;
+        };
+    }
+
+    @Override
+    public List<Integer> addAppointments(Collection<Appointment> appointments) throws DataManagerException {
+        return addAppointments(appointments, BULK_CHUNK_SIZE);
+    }
+
+    /**
+     * Inserts all appointments and their tags in one transaction. Every chunk is written with one multi-row
+     * INSERT for the appointments and one for their tags, instead of a statement per appointment and tag.
+     *
+     * @param chunkSize rows per INSERT, bounded by SQLite's limit of bound parameters per statement
+     * @return the generated IDs in the order of the given appointments
+     */
+    public List<Integer> addAppointments(Collection<Appointment> appointments, int chunkSize) throws DataManagerException {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size has to be at least 1.");
+        }
+        if (appointments.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        return tryWithWriter(ctx -> {
+            logger.info("Adding {} appointments in chunks of {}", appointments.size(), chunkSize);
+
+            List<Appointment> appointmentList = new ArrayList<>(appointments);
+            List<Integer> insertedIds = new ArrayList<>(appointmentList.size());
+
+            for (int from = 0; from < appointmentList.size(); from += chunkSize) {
+                List<Appointment> chunk = appointmentList.subList(from, Math.min(from + chunkSize, appointmentList.size()));
+
+                var insertAppointments = ctx.insertInto(APPOINTMENT, APPOINTMENT.STARTDATE, APPOINTMENT.ENDDATE,
+                        APPOINTMENT.TITLE, APPOINTMENT.DESCRIPTION, APPOINTMENT.RECURRENCERULE,
+                        APPOINTMENT.RECURRENCEEXCEPTIONS, APPOINTMENT.RECURRENCEEND);
+                for (Appointment appointment : chunk) {
+                    insertAppointments = insertAppointments.values(appointment.getStartDate(),
+                            appointment.getEndDate(), appointment.getTitle(), appointment.getDescription(),
+                            recurrenceRuleOf(appointment), recurrenceExceptionsOf(appointment), recurrenceEndOf(appointment));
+                }
+
+                // jOOQ reads the generated key through JDBC, which only reports the last row of the statement.
+                // AUTOINCREMENT numbers the rows of one INSERT consecutively, so the chunk ends at that ID.
+                Record record = insertAppointments
+                        .returning(APPOINTMENT.APPOINTMENTID)
+                        .fetchOne();
+
+                if (record == null) {
+                    throw new DataManagerException("Failed to insert appointments. No ID returned.");
+                }
+
+                int firstId = record.getValue(APPOINTMENT.APPOINTMENTID) - chunk.size() + 1;
+                List<Integer> chunkIds = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    chunkIds.add(firstId + i);
+                }
+
+                var insertTags = ctx.insertInto(APPOINTMENTTAG, APPOINTMENTTAG.APPOINTMENTID, APPOINTMENTTAG.TAGID);
+                boolean hasTags = false;
+                for (int i = 0; i < chunk.size(); i++) {
+                    List<Tag> tags = chunk.get(i).getTags();
+                    if (tags == null) {
+                        continue;
+                    }
+                    for (Tag tag : tags) {
+                        insertTags = insertTags.values(chunkIds.get(i), tag.getTagId());
+                        hasTags = true;
+                    }
+                }
+                if (hasTags) {
+                    insertTags.onConflictDoNothing().execute();
+                }
+
+                insertedIds.addAll(chunkIds);
+            }
+
+            List<IntervalTree.Entry> intervals = new ArrayList<>(appointmentList.size());
+            for (int i = 0; i < appointmentList.size(); i++) {
+                intervals.add(IntervalTree.Entry.of(insertedIds.get(i), appointmentList.get(i)));
+            }
+            afterCommit(() -> putIntervals(intervals));
+
+            logger.info("Successfully added {} appointments", insertedIds.size());
+            return insertedIds;
+        });
+    }
+
     public void removeAppointmentById(int appointmentId) throws DataManagerException {
-        tryWithDSL(create -> {
+        tryWithWriter(deleteAppointment(appointmentId));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAppointmentByIdAsync(int appointmentId, boolean durable) {
+        return submitWrite(deleteAppointment(appointmentId), durable);
+    }
+
+    private DSLContextConsumer<Void> deleteAppointment(int appointmentId) {
+        return create -> {
             logger.info("Removing appointment with ID: {}", appointmentId);
 
             create.deleteFrom(APPOINTMENTTAG)
@@ -305,10 +1198,11 @@ public class JooqDataManager implements DataManager {
             create.deleteFrom(APPOINTMENT)
                     .where(APPOINTMENT.APPOINTMENTID.eq(appointmentId))
                     .execute();
+            afterCommit(() -> removeInterval(appointmentId));
 
             logger.info("Successfully removed appointment with ID: {}", appointmentId);
             return null;
-        });
+        };
     }
 
     public void removeAppointment(Appointment appointment) throws DataManagerException {
@@ -317,27 +1211,24 @@ public class JooqDataManager implements DataManager {
     }
 
     public void removeTagByTagId(int tagId) throws DataManagerException {
-        tryWithDSL(create ->
-                create.transactionResult(configuration -> {
-                    DSLContext ctx = DSL.using(configuration);
-                    logger.info("Removing tag with ID: {}", tagId);
+        tryWithTagWriter(ctx -> {
+            logger.info("Removing tag with ID: {}", tagId);
 
-                    ctx.deleteFrom(APPOINTMENTTAG)
-                            .where(APPOINTMENTTAG.TAGID.eq(tagId))
-                            .execute();
+            ctx.deleteFrom(APPOINTMENTTAG)
+                    .where(APPOINTMENTTAG.TAGID.eq(tagId))
+                    .execute();
 
-                    int rowsDeleted = ctx.deleteFrom(TAG)
-                            .where(TAG.TAGID.eq(tagId))
-                            .execute();
+            int rowsDeleted = ctx.deleteFrom(TAG)
+                    .where(TAG.TAGID.eq(tagId))
+                    .execute();
 
-                    if (rowsDeleted == 0) {
-                        throw new DataManagerException("No tag found with ID: " + tagId);
-                    }
+            if (rowsDeleted == 0) {
+                throw new DataManagerException("No tag found with ID: " + tagId);
+            }
 
-                    logger.info("Successfully removed tag with ID: {}", tagId);
-                    return true;
-                })
-        );
+            logger.info("Successfully removed tag with ID: {}", tagId);
+            return true;
+        });
     }
 
     public void removeTag(Tag tag) throws DataManagerException {
@@ -346,7 +1237,7 @@ public class JooqDataManager implements DataManager {
     }
 
     public int addTag(Tag tag) throws DataManagerException {
-        return tryWithDSL(create -> {
+        return tryWithTagWriter(create -> {
             logger.info("Adding new tag: {}", tag);
 
             Record record = create.insertInto(TAG, TAG.NAME, TAG.COLOR)
@@ -369,9 +1260,7 @@ public class JooqDataManager implements DataManager {
         return tryWithDSL(create -> {
             logger.info("Fetching all tags from the database");
 
-            List<Tag> tags = create.select()
-                    .from(TAG)
-                    .fetchInto(Tag.class);
+            List<Tag> tags = ALL_TAGS.bind(create).fetch(RecordMappers.TO_TAG);
 
             logger.debug("Successfully fetched {} tags from the database", tags.size());
             return tags;
@@ -380,39 +1269,151 @@ public class JooqDataManager implements DataManager {
 
     @Override
     public void updateAppointment(Appointment appointment) throws DataManagerException {
-        tryWithDSL(create -> {
-            logger.info("Updating appointment: {}", appointment);
+        tryWithWriter(changeAppointment(appointment));
+    }
 
-            if (getAppointmentById(appointment.getAppointmentId()).isEmpty()) {
-                logger.warn("No appointment found with ID: {}", appointment.getAppointmentId());
-                throw new DataManagerException("No appointment found with ID: " + appointment.getAppointmentId());
-            }
+    @Override
+    public CompletableFuture<Void> updateAppointmentAsync(Appointment appointment, boolean durable) {
+        return submitWrite(changeAppointment(appointment), durable);
+    }
 
-            create.update(APPOINTMENT)
-                    .set(APPOINTMENT.STARTDATE, appointment.getStartDate().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
-                    .set(APPOINTMENT.ENDDATE, appointment.getEndDate().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
-                    .set(APPOINTMENT.TITLE, appointment.getTitle())
-                    .set(APPOINTMENT.DESCRIPTION, appointment.getDescription())
-                    .where(APPOINTMENT.APPOINTMENTID.eq(appointment.getAppointmentId()))
-                    .execute();
+    /**
+     * Writes only the changed columns and tags of the appointment, nothing if it has not changed since it was loaded.
+     * The changes are taken now and the appointment is marked clean once they are committed, inside a unit of work
+     * when the unit of work is.
+     *
+     * @throws IllegalArgumentException if the appointment is an occurrence, saving it would move the whole series
+     */
+    private DSLContextConsumer<Void> changeAppointment(Appointment changedAppointment) {
+        if (changedAppointment.isOccurrence()) {
+            throw new IllegalArgumentException("An occurrence of a series cannot be saved, update the series instead: "
+                    + changedAppointment.getAppointmentId());
+        }
+        Appointment.Changes changes = changedAppointment.getChanges();
+        Set<Appointment.Field> changedFields = changes.fields();
+        Appointment appointment = changes.values();
+        return create -> {
+            int appointmentId = appointment.getAppointmentId();
+            if (changedFields.isEmpty()) {
+                logger.info("Appointment with ID {} is unchanged, skipping the update", appointmentId);
+                return null;
+            }
+            logger.info("Updating {} of appointment: {}", changedFields, appointment);
 
-            logger.info("Successfully updated basic appointment data for ID: {}", appointment.getAppointmentId());
+            Map<Field<?>, Object> changedColumns = new LinkedHashMap<>();
+            if (changedFields.contains(Appointment.Field.START_DATE)) {
+                changedColumns.put(APPOINTMENT.STARTDATE, appointment.getStartDate());
+            }
+            if (changedFields.contains(Appointment.Field.END_DATE)) {
+                changedColumns.put(APPOINTMENT.ENDDATE, appointment.getEndDate());
+            }
+            if (changedFields.contains(Appointment.Field.TITLE)) {
+                changedColumns.put(APPOINTMENT.TITLE, appointment.getTitle());
+            }
+            if (changedFields.contains(Appointment.Field.DESCRIPTION)) {
+                changedColumns.put(APPOINTMENT.DESCRIPTION, appointment.getDescription());
+            }
+            if (changedFields.contains(Appointment.Field.RECURRENCE)) {
+                changedColumns.put(APPOINTMENT.RECURRENCERULE, recurrenceRuleOf(appointment));
+                changedColumns.put(APPOINTMENT.RECURRENCEEXCEPTIONS, recurrenceExceptionsOf(appointment));
+            }
+            // the end of a series moves with its start, its length and its rule
+            if (appointment.isRecurring() || changedFields.contains(Appointment.Field.RECURRENCE)) {
+                if (changedFields.contains(Appointment.Field.START_DATE) || changedFields.contains(Appointment.Field.END_DATE)
+                        || changedFields.contains(Appointment.Field.RECURRENCE)) {
+                    changedColumns.put(APPOINTMENT.RECURRENCEEND, recurrenceEndOf(appointment));
+                }
+            }
 
-            create.deleteFrom(APPOINTMENTTAG)
-                    .where(APPOINTMENTTAG.APPOINTMENTID.eq(appointment.getAppointmentId()))
-                    .execute();
+            boolean exists = changedColumns.isEmpty()
+                    ? create.fetchExists(APPOINTMENT, APPOINTMENT.APPOINTMENTID.eq(appointmentId))
+                    : create.update(APPOINTMENT)
+                    .set(changedColumns)
+                    .where(APPOINTMENT.APPOINTMENTID.eq(appointmentId))
+                    .execute() > 0;
 
-            logger.info("Deleted existing tags for appointment ID: {}", appointment.getAppointmentId());
+            if (!exists) {
+                logger.warn("No appointment found with ID: {}", appointmentId);
+                throw new DataManagerException("No appointment found with ID: " + appointmentId);
+            }
 
-            for (Tag tag : appointment.getTags()) {
-                create.insertInto(APPOINTMENTTAG, APPOINTMENTTAG.APPOINTMENTID, APPOINTMENTTAG.TAGID)
-                        .values(appointment.getAppointmentId(), tag.getTagId())
-                        .execute();
+            if (changedFields.contains(Appointment.Field.TAGS)) {
+                synchronizeTags(create, appointmentId, appointment.getTags());
+            }
+            writerLane.afterCommit(() -> changedAppointment.markClean(changes));
+            if (transaction == null && (changedFields.contains(Appointment.Field.START_DATE)
+                    || changedFields.contains(Appointment.Field.END_DATE)
+                    || changedFields.contains(Appointment.Field.RECURRENCE)
+                    || changedFields.contains(Appointment.Field.TAGS))) {
+                if (hasIntervalTree()) {
+                    // read back, the row also has the end of a series
+                    List<IntervalTree.Entry> interval = toIntervalEntries(INTERVAL_BY_ID.bind(create, appointmentId).fetch());
+                    afterCommit(() -> putIntervals(interval));
+                } else {
+                    // a tree loaded before the commit would miss the change
+                    afterCommit(this::invalidateIntervals);
+                }
             }
 
-            logger.info("Successfully updated tags for appointment ID: {}", appointment.getAppointmentId());
+            logger.info("Successfully updated appointment with ID: {}", appointmentId);
             return null;
-        });
+        };
+    }
+
+    private static String recurrenceRuleOf(Appointment appointment) {
+        return appointment.isRecurring() ? appointment.getRecurrence().toRRule() : null;
+    }
+
+    private static String recurrenceExceptionsOf(Appointment appointment) {
+        return appointment.isRecurring() && !appointment.getRecurrence().exceptions().isEmpty()
+                ? appointment.getRecurrence().toExDate()
+                : null;
+    }
+
+    private static LocalDateTime recurrenceEndOf(Appointment appointment) {
+        return appointment.isRecurring() ? appointment.getLastEndDate().orElse(null) : null;
+    }
+
+    /**
+     * Brings the AppointmentTag rows of the appointment in line with the given tags by deleting the removed
+     * and inserting the added ones in one batch, rows of tags that stay are left alone.
+     */
+    private void synchronizeTags(DSLContext create, int appointmentId, List<Tag> tags) {
+        Set<Integer> storedTagIds = new HashSet<>(create.select(APPOINTMENTTAG.TAGID)
+                .from(APPOINTMENTTAG)
+                .where(APPOINTMENTTAG.APPOINTMENTID.eq(appointmentId))
+                .fetch(APPOINTMENTTAG.TAGID));
+
+        Set<Integer> newTagIds = new LinkedHashSet<>();
+        if (tags != null) {
+            for (Tag tag : tags) {
+                newTagIds.add(tag.getTagId());
+            }
+        }
+
+        Set<Integer> removedTagIds = new HashSet<>(storedTagIds);
+        removedTagIds.removeAll(newTagIds);
+        Set<Integer> addedTagIds = new LinkedHashSet<>(newTagIds);
+        addedTagIds.removeAll(storedTagIds);
+
+        List<Query> queries = new ArrayList<>(2);
+        if (!removedTagIds.isEmpty()) {
+            queries.add(create.deleteFrom(APPOINTMENTTAG)
+                    .where(APPOINTMENTTAG.APPOINTMENTID.eq(appointmentId))
+                    .and(APPOINTMENTTAG.TAGID.in(removedTagIds)));
+        }
+        if (!addedTagIds.isEmpty()) {
+            var insert = create.insertInto(APPOINTMENTTAG, APPOINTMENTTAG.APPOINTMENTID, APPOINTMENTTAG.TAGID);
+            for (int tagId : addedTagIds) {
+                insert = insert.values(appointmentId, tagId);
+            }
+            queries.add(insert);
+        }
+        if (!queries.isEmpty()) {
+            create.batch(queries).execute();
+        }
+
+        logger.info("Removed {} and added {} tags of appointment ID: {}", removedTagIds.size(), addedTagIds.size(), appointmentId);
     }
 
     @Override
@@ -420,26 +1421,14 @@ public class JooqDataManager implements DataManager {
         return tryWithDSL(create -> {
             logger.info("Fetching appointments with title: {}", title);
 
-            Result<?> result = create.select()
-                    .from(APPOINTMENT)
-                    .where(APPOINTMENT.TITLE.eq(title))
-                    .fetch();
+            Result<?> result = APPOINTMENTS_BY_TITLE.bind(create, title).fetch();
 
             if (result.isEmpty()) {
                 logger.warn("No appointments found with title: {}", title);
                 return new ArrayList<>();
             }
 
-            List<Appointment> appointmentList = result.stream()
-                    .map(record -> {
-                        try {
-                            return mapToAppointment(record);
-                        } catch (DataManagerException e) {
-                            logger.error("Error mapping record to appointment: {}", record, e);
-                            throw new RuntimeException(e);
-                        }
-                    })
-                    .collect(Collectors.toList());
+            List<Appointment> appointmentList = mapToAppointments(create, result);
 
             logger.debug("Successfully fetched {} appointments with title: {}", appointmentList.size(), title);
             return appointmentList;
@@ -450,10 +1439,7 @@ public class JooqDataManager implements DataManager {
         return tryWithDSL(create -> {
             logger.info("Fetching tag by title: {}", title);
 
-            Optional<Tag> tag = create.select()
-                    .from(TAG)
-                    .where(TAG.NAME.eq(title))
-                    .fetchOptionalInto(Tag.class);
+            Optional<Tag> tag = TAG_BY_NAME.bind(create, title).fetchOptional(RecordMappers.TO_TAG);
 
             if (tag.isEmpty()) {
                 logger.warn("No tag found with title: {}", title);
@@ -465,22 +1451,63 @@ public class JooqDataManager implements DataManager {
         });
     }
 
+    @Override
+    public List<AppointmentMatch> searchAppointments(String query, int limit) throws DataManagerException {
+        String matchExpression = toMatchExpression(query);
+        if (matchExpression.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        return tryWithDSL(create -> {
+            logger.info("Searching the {} best appointments matching: {}", limit, query);
+
+            Result<Record> result = SEARCH_APPOINTMENTS.bind(create, matchExpression, limit).fetch();
+            List<Appointment> appointmentList = mapToAppointments(create, result);
+
+            List<AppointmentMatch> matches = new ArrayList<>(appointmentList.size());
+            for (int i = 0; i < appointmentList.size(); i++) {
+                matches.add(new AppointmentMatch(appointmentList.get(i), result.get(i).get(SEARCH_SNIPPET)));
+            }
+
+            logger.debug("Found {} appointments matching: {}", matches.size(), query);
+            return matches;
+        });
+    }
+
+    /**
+     * Turns the words of a user query into an FTS5 expression that matches every word as a prefix.
+     * Each word is quoted, so characters like '-' or '*' in the input cannot break the expression.
+     */
+    private static String toMatchExpression(String query) {
+        StringBuilder expression = new StringBuilder();
+        for (String word : query.trim().split("\\s+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (!expression.isEmpty()) {
+                expression.append(' ');
+            }
+            expression.append('"').append(word.replace("\"", "\"\"")).append("\"*");
+        }
+        return expression.toString();
+    }
+
     @Override
     public void updateTag(Tag tag) throws DataManagerException {
-        tryWithDSL(create -> {
+        tryWithTagWriter(create -> {
             logger.info("Updating tag: {}", tag);
 
-            getTagById(tag.getTagId()).ifPresentOrElse(
-                    existingTag -> {
-                        create.update(TAG)
-                                .set(TAG.NAME, tag.getName())
-                                .set(TAG.COLOR, tag.getColor())
-                                .where(TAG.TAGID.eq(existingTag.getTagId()))
-                                .execute();
-                        logger.info("Successfully updated tag with ID: {}", existingTag.getTagId());
-                    },
-                    () -> logger.warn("No tag found with ID: {}", tag.getTagId())
-            );
+            int rowsUpdated = create.update(TAG)
+                    .set(TAG.NAME, tag.getName())
+                    .set(TAG.COLOR, tag.getColor())
+                    .where(TAG.TAGID.eq(tag.getTagId()))
+                    .execute();
+
+            if (rowsUpdated == 0) {
+                logger.warn("No tag found with ID: {}", tag.getTagId());
+            } else {
+                logger.info("Successfully updated tag with ID: {}", tag.getTagId());
+            }
 
             return null;
         });
@@ -488,7 +1515,7 @@ public class JooqDataManager implements DataManager {
 
     @Override
     public void removeAllAppointments() throws DataManagerException {
-        tryWithDSL(create -> {
+        tryWithWriter(create -> {
             logger.info("Removing all appointments from the database");
 
             create.deleteFrom(APPOINTMENTTAG).execute();
@@ -496,6 +1523,7 @@ public class JooqDataManager implements DataManager {
 
             create.deleteFrom(APPOINTMENT).execute();
             logger.debug("Removed all appointments");
+            afterCommit(this::clearIntervals);
 
             return null;
         });
@@ -503,7 +1531,7 @@ public class JooqDataManager implements DataManager {
 
     @Override
     public void removeAllTags() throws DataManagerException {
-        tryWithDSL(create -> {
+        tryWithTagWriter(create -> {
             logger.info("Removing all tags from the database");
 
             create.deleteFrom(APPOINTMENTTAG).execute();
@@ -520,43 +1548,37 @@ public class JooqDataManager implements DataManager {
         return tryWithDSL(create -> {
             logger.info("Fetching the next {} upcoming appointments after {} with the tag {}", amount, date, tagName);
 
-            Result<?> result = create.select()
-                    .from(APPOINTMENT).naturalJoin(APPOINTMENTTAG).naturalJoin(TAG)
-                    .where(APPOINTMENT.ENDDATE.greaterThan(date.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)))
-                    .and(DSL.lower(TAG.NAME).eq(tagName.toLowerCase()))
-                    .orderBy(APPOINTMENT.STARTDATE.asc())
-                    .limit(amount)
-                    .fetch();
-
-            if (result.isEmpty()) {
-                logger.warn("No appointments with tag {} found after {}", tagName, date);
+            Optional<Integer> tagId = findTagId(create, tagName);
+            if (tagId.isEmpty()) {
+                logger.warn("No tag found with name: {}", tagName);
                 return new ArrayList<>();
             }
 
-            if (result.size() < amount) {
-                logger.warn("Only {}/{} appointments with tag {} found after {}", result.size(), amount, tagName, date);
+            Result<?> result = UPCOMING_APPOINTMENTS_BY_TAG.bind(create, date, tagId.get(), amount, date, tagId.get()).fetch();
+            List<Appointment> appointmentList = expandUpcoming(mapToAppointments(create, result), date, null, amount);
+
+            if (appointmentList.isEmpty()) {
+                logger.warn("No appointments with tag {} found after {}", tagName, date);
+                return appointmentList;
             }
 
-            List<Appointment> appointmentList = result.stream()
-                    .map(record -> {
-                        try {
-                            return mapToAppointment(record);
-                        } catch (DataManagerException e) {
-                            logger.error("Error mapping record to appointment: {}", record, e);
-                            throw new RuntimeException(e);
-                        }
-                    })
-                    .collect(Collectors.toList());
+            if (appointmentList.size() < amount) {
+                logger.warn("Only {}/{} appointments with tag {} found after {}", appointmentList.size(), amount, tagName, date);
+            }
 
             logger.debug("Successfully fetched {} upcoming appointments after {} with tag {}", appointmentList.size(), date, tagName);
             return appointmentList;
         });
     }
 
+    @Override
     public void close() {
-        if (dataSource != null) {
-            dataSource.close();
-            logger.info("Database connection pool closed.");
+        if (transaction != null) {
+            // the connection belongs to the manager that started the unit of work
+            return;
         }
+        writerLane.close();
+        dataSource.close();
+        logger.info("Database connection pool closed.");
     }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package Model.Database;
+
+import org.jooq.Configuration;
+import org.jooq.ConnectionProvider;
+import org.jooq.ExecuteListener;
+import org.jooq.SQLDialect;
+import org.jooq.conf.Settings;
+import org.jooq.impl.DefaultConfiguration;
+
+/**
+ * The jOOQ settings shared by the reader pool and the writer connection. Both build their
+ * {@link Configuration} once and keep it for the lifetime of the {@link JooqDataManager}.
+ */
+final class JooqSettings {
+    static final Settings SETTINGS = new Settings()
+            // the data manager logs every operation itself, jOOQ's debug logging only costs time
+            .withExecuteLogging(false)
+            // SQLite has no warnings worth a getWarnings() round trip after every statement
+            .withFetchWarnings(false)
+            .withRenderFormatted(false)
+            .withRenderCatalog(false)
+            .withRenderSchema(false)
+            .withCacheRecordMappers(true)
+            .withReflectionCaching(true);
+
+    private JooqSettings() {
+    }
+
+    static Configuration configuration(ConnectionProvider connectionProvider, ExecuteListener... executeListeners) {
+        return new DefaultConfiguration()
+                .set(connectionProvider)
+                .set(SQLDialect.SQLITE)
+                .set(SETTINGS)
+                .set(executeListeners);
+    }
+}
@@ -0,0 +1,49 @@
+package Model.Database;
+
+import Model.Entities.Appointment;
+import Model.Entities.Recurrence;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The occurrence starts of series per queried window, so showing a month again does not expand its series again.
+ * A window is keyed by everything its expansion depends on instead of the appointment ID. An edited series
+ * therefore never finds the starts of its old version, they are just no longer used and evicted eventually.
+ */
+final class OccurrenceCache {
+    private static final int MAX_WINDOWS = 1024;
+
+    private record Window(LocalDateTime seriesStart, Duration length, Recurrence recurrence, LocalDateTime from, LocalDateTime to) {
+    }
+
+    private final LinkedHashMap<Window, List<LocalDateTime>> startsByWindow = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Window, List<LocalDateTime>> eldest) {
+            return size() > MAX_WINDOWS;
+        }
+    };
+
+    /**
+     * @return the starts of the occurrences of the series overlapping {@code [from, to]}
+     */
+    List<LocalDateTime> startsBetween(Appointment series, LocalDateTime from, LocalDateTime to) {
+        Duration length = Duration.between(series.getStartDate(), series.getEndDate());
+        Window window = new Window(series.getStartDate(), length, series.getRecurrence(), from, to);
+        synchronized (this) {
+            List<LocalDateTime> cached = startsByWindow.get(window);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        List<LocalDateTime> starts = List.copyOf(series.getRecurrence().startsBetween(series.getStartDate(), length, from, to));
+        synchronized (this) {
+            startsByWindow.put(window, starts);
+        }
+        return starts;
+    }
+}
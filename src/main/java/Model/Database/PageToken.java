@@ -0,0 +1,39 @@
+package Model.Database;
+
+import Model.Entities.Appointment;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last appointment of a page in the (startDate, appointmentId) order. The next page is read
+ * with one seek to this key instead of skipping all rows of the pages before.
+ * Callers only see the encoded form, which is URL safe Base64.
+ */
+record PageToken(LocalDateTime startDate, int appointmentId) {
+    private static final char SEPARATOR = '/';
+
+    static PageToken after(Appointment appointment) {
+        return new PageToken(appointment.getStartDate(), appointment.getAppointmentId());
+    }
+
+    String encode() {
+        String key = startDate.toString() + SEPARATOR + appointmentId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not created by {@link #encode()}
+     */
+    static PageToken decode(String token) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = key.lastIndexOf(SEPARATOR);
+            return new PageToken(LocalDateTime.parse(key.substring(0, separator)), Integer.parseInt(key.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page token: " + token, e);
+        }
+    }
+}
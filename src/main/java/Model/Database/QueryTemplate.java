@@ -0,0 +1,72 @@
+package Model.Database;
+
+import org.jooq.DSLContext;
+import org.jooq.DataType;
+import org.jooq.Field;
+import org.jooq.Param;
+import org.jooq.QueryPart;
+import org.jooq.Record;
+import org.jooq.ResultQuery;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A read query whose SQL is rendered once, when the template is created. A call only binds the values
+ * of its named parameters instead of building and rendering the query tree again.
+ * The records keep the types and converters of the selected fields, so they can be read with them as usual.
+ */
+final class QueryTemplate {
+    private static final DSLContext RENDERER = DSL.using(SQLDialect.SQLITE, JooqSettings.SETTINGS);
+
+    private final String sql;
+    private final Field<?>[] fields;
+    private final List<String> parameterNames;
+    private final List<DataType<?>> parameterTypes;
+
+    private QueryTemplate(String sql, Field<?>[] fields, List<String> parameterNames, List<DataType<?>> parameterTypes) {
+        this.sql = sql;
+        this.fields = fields;
+        this.parameterNames = parameterNames;
+        this.parameterTypes = parameterTypes;
+    }
+
+    /**
+     * @param query query with a named {@link DSL#param(String, DataType)} for every value that changes between calls,
+     *              each name may be used only once
+     */
+    static QueryTemplate of(ResultQuery<?> query) {
+        // inlined values are part of the rendered SQL and need no binding
+        Map<String, Param<?>> params = new LinkedHashMap<>(query.getParams());
+        params.values().removeIf(Param::isInline);
+        if (params.size() != query.getBindValues().size()) {
+            throw new IllegalArgumentException("Every parameter of a query template needs its own name: " + params.keySet());
+        }
+
+        List<String> parameterNames = new ArrayList<>(params.keySet());
+        List<DataType<?>> parameterTypes = new ArrayList<>(params.size());
+        for (Param<?> param : params.values()) {
+            parameterTypes.add(param.getDataType());
+        }
+        return new QueryTemplate(RENDERER.render(query), query.fields(), List.copyOf(parameterNames), List.copyOf(parameterTypes));
+    }
+
+    /**
+     * @param values one value per parameter, in the order the parameters appear in the query
+     */
+    ResultQuery<Record> bind(DSLContext create, Object... values) {
+        if (values.length != parameterTypes.size()) {
+            throw new IllegalArgumentException("Expected values for " + parameterNames + ", got " + values.length);
+        }
+
+        QueryPart[] bindings = new QueryPart[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bindings[i] = DSL.val(values[i], parameterTypes.get(i));
+        }
+        return create.resultQuery(sql, (Object[]) bindings).coerce(fields);
+    }
+}
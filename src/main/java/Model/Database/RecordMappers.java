@@ -0,0 +1,56 @@
+package Model.Database;
+
+import Model.Entities.Appointment;
+import Model.Entities.Recurrence;
+import Model.Entities.Tag;
+import org.jooq.Record;
+import org.jooq.RecordMapper;
+
+import java.util.ArrayList;
+
+import static org.jooq.generated.Tables.APPOINTMENT;
+import static org.jooq.generated.Tables.TAG;
+
+/**
+ * Maps records to entities by their generated fields instead of letting jOOQ find
+ * matching constructors and setters through reflection.
+ */
+final class RecordMappers {
+    static final RecordMapper<Record, Tag> TO_TAG = record -> new Tag(
+            record.get(TAG.TAGID),
+            record.get(TAG.NAME),
+            record.get(TAG.COLOR));
+
+    /**
+     * The appointment starts with an empty, modifiable tag list, the tags are loaded separately.
+     * The record has to contain the recurrence columns, a series is returned as stored, without its occurrences.
+     */
+    static final RecordMapper<Record, Appointment> TO_APPOINTMENT = record -> {
+        Appointment appointment = new Appointment(
+                record.get(APPOINTMENT.APPOINTMENTID),
+                record.get(APPOINTMENT.STARTDATE),
+                record.get(APPOINTMENT.ENDDATE),
+                record.get(APPOINTMENT.TITLE),
+                record.get(APPOINTMENT.DESCRIPTION),
+                new ArrayList<>());
+        appointment.setRecurrence(toRecurrence(record));
+        return appointment;
+    };
+
+    /**
+     * @return the recurrence stored in the recurrence columns of the record, null if the appointment does not repeat
+     */
+    static Recurrence toRecurrence(Record record) {
+        String rule = record.get(APPOINTMENT.RECURRENCERULE);
+        if (rule == null) {
+            return null;
+        }
+        String exceptions = record.get(APPOINTMENT.RECURRENCEEXCEPTIONS);
+        return exceptions == null
+                ? Recurrence.parse(rule)
+                : Recurrence.parse(rule).withExceptions(Recurrence.parseExDate(exceptions));
+    }
+
+    private RecordMappers() {
+    }
+}
@@ -0,0 +1,367 @@
+package Model.Database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Brings a SQLite database up to the newest schema version.
+ * The applied version is stored in {@code PRAGMA user_version}, so every migration runs exactly once per file.
+ * Each migration is applied in its own transaction.
+ */
+class SchemaMigrator {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private record Migration(int version, String description, List<String> statements) {
+    }
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "baseline schema", List.of(
+                    """
+                    CREATE TABLE IF NOT EXISTS Appointment (
+                        appointmentId INTEGER PRIMARY KEY AUTOINCREMENT,
+                        startDate TEXT NOT NULL,
+                        endDate TEXT NOT NULL,
+                        title TEXT NOT NULL,
+                        description TEXT
+                    )""",
+                    """
+                    CREATE TABLE IF NOT EXISTS Tag (
+                        tagId INTEGER PRIMARY KEY AUTOINCREMENT,
+                        name TEXT NOT NULL UNIQUE,
+                        color TEXT NOT NULL
+                    )""",
+                    """
+                    CREATE TABLE IF NOT EXISTS AppointmentTag (
+                        appointmentId INTEGER NOT NULL,
+                        tagId INTEGER NOT NULL,
+                        PRIMARY KEY (appointmentId, tagId),
+                        FOREIGN KEY (appointmentId)
+                            REFERENCES Appointment(appointmentId)
+                            ON DELETE CASCADE,
+                        FOREIGN KEY (tagId)
+                            REFERENCES Tag(tagId)
+                            ON DELETE CASCADE
+                    )"""
+            )),
+            new Migration(2, "interval index on appointment start and end", List.of(
+                    "CREATE INDEX IF NOT EXISTS idx_appointment_startDate ON Appointment(startDate)",
+                    "CREATE INDEX IF NOT EXISTS idx_appointment_endDate ON Appointment(endDate)",
+                    // R*Tree over epoch seconds, answers "which appointments overlap [a, b]" without a table scan
+                    "CREATE VIRTUAL TABLE IF NOT EXISTS AppointmentInterval USING rtree(appointmentId, startEpoch, endEpoch)",
+                    """
+                    INSERT INTO AppointmentInterval (appointmentId, startEpoch, endEpoch)
+                    SELECT appointmentId, unixepoch(startDate), max(unixepoch(startDate), unixepoch(endDate))
+                    FROM Appointment""",
+                    """
+                    CREATE TRIGGER IF NOT EXISTS appointment_interval_insert AFTER INSERT ON Appointment
+                    BEGIN
+                        INSERT INTO AppointmentInterval (appointmentId, startEpoch, endEpoch)
+                        VALUES (NEW.appointmentId, unixepoch(NEW.startDate), max(unixepoch(NEW.startDate), unixepoch(NEW.endDate)));
+                    END""",
+                    """
+                    CREATE TRIGGER IF NOT EXISTS appointment_interval_update AFTER UPDATE OF startDate, endDate ON Appointment
+                    BEGIN
+                        UPDATE AppointmentInterval
+                        SET startEpoch = unixepoch(NEW.startDate),
+                            endEpoch = max(unixepoch(NEW.startDate), unixepoch(NEW.endDate))
+                        WHERE appointmentId = NEW.appointmentId;
+                    END""",
+                    """
+                    CREATE TRIGGER IF NOT EXISTS appointment_interval_delete AFTER DELETE ON Appointment
+                    BEGIN
+                        DELETE FROM AppointmentInterval WHERE appointmentId = OLD.appointmentId;
+                    END"""
+            )),
+            new Migration(3, "store appointment dates as epoch seconds", List.of(
+                    """
+                    CREATE TABLE Appointment_new (
+                        appointmentId INTEGER PRIMARY KEY AUTOINCREMENT,
+                        startDate BIGINT NOT NULL,
+                        endDate BIGINT NOT NULL,
+                        title TEXT NOT NULL,
+                        description TEXT
+                    )""",
+                    """
+                    INSERT INTO Appointment_new (appointmentId, startDate, endDate, title, description)
+                    SELECT appointmentId, unixepoch(startDate), unixepoch(endDate), title, description
+                    FROM Appointment""",
+                    // keep AUTOINCREMENT from handing out ids of appointments that were deleted before
+                    """
+                    UPDATE sqlite_sequence
+                    SET seq = max(seq, coalesce((SELECT seq FROM sqlite_sequence WHERE name = 'Appointment'), 0))
+                    WHERE name = 'Appointment_new'""",
+                    """
+                    INSERT INTO sqlite_sequence (name, seq)
+                    SELECT 'Appointment_new', seq FROM sqlite_sequence
+                    WHERE name = 'Appointment'
+                      AND NOT EXISTS (SELECT 1 FROM sqlite_sequence WHERE name = 'Appointment_new')""",
+                    "DROP TABLE Appointment",
+                    "ALTER TABLE Appointment_new RENAME TO Appointment",
+                    "CREATE INDEX idx_appointment_startDate ON Appointment(startDate)",
+                    "CREATE INDEX idx_appointment_endDate ON Appointment(endDate)",
+                    """
+                    CREATE TRIGGER appointment_interval_insert AFTER INSERT ON Appointment
+                    BEGIN
+                        INSERT INTO AppointmentInterval (appointmentId, startEpoch, endEpoch)
+                        VALUES (NEW.appointmentId, NEW.startDate, max(NEW.startDate, NEW.endDate));
+                    END""",
+                    """
+                    CREATE TRIGGER appointment_interval_update AFTER UPDATE OF startDate, endDate ON Appointment
+                    BEGIN
+                        UPDATE AppointmentInterval
+                        SET startEpoch = NEW.startDate,
+                            endEpoch = max(NEW.startDate, NEW.endDate)
+                        WHERE appointmentId = NEW.appointmentId;
+                    END""",
+                    """
+                    CREATE TRIGGER appointment_interval_delete AFTER DELETE ON Appointment
+                    BEGIN
+                        DELETE FROM AppointmentInterval WHERE appointmentId = OLD.appointmentId;
+                    END"""
+            )),
+            new Migration(4, "full-text search over appointment titles and descriptions", List.of(
+                    // external content table: the index refers to the Appointment rows instead of storing a copy of the text
+                    """
+                    CREATE VIRTUAL TABLE AppointmentSearch USING fts5(
+                        title,
+                        description,
+                        content = 'Appointment',
+                        content_rowid = 'appointmentId',
+                        tokenize = 'unicode61 remove_diacritics 2',
+                        prefix = '2 3'
+                    )""",
+                    "INSERT INTO AppointmentSearch (AppointmentSearch) VALUES ('rebuild')",
+                    """
+                    CREATE TRIGGER appointment_search_insert AFTER INSERT ON Appointment
+                    BEGIN
+                        INSERT INTO AppointmentSearch (rowid, title, description)
+                        VALUES (NEW.appointmentId, NEW.title, NEW.description);
+                    END""",
+                    """
+                    CREATE TRIGGER appointment_search_update AFTER UPDATE OF title, description ON Appointment
+                    BEGIN
+                        INSERT INTO AppointmentSearch (AppointmentSearch, rowid, title, description)
+                        VALUES ('delete', OLD.appointmentId, OLD.title, OLD.description);
+                        INSERT INTO AppointmentSearch (rowid, title, description)
+                        VALUES (NEW.appointmentId, NEW.title, NEW.description);
+                    END""",
+                    """
+                    CREATE TRIGGER appointment_search_delete AFTER DELETE ON Appointment
+                    BEGIN
+                        INSERT INTO AppointmentSearch (AppointmentSearch, rowid, title, description)
+                        VALUES ('delete', OLD.appointmentId, OLD.title, OLD.description);
+                    END"""
+            )),
+            new Migration(5, "case-insensitive tag names and a tag index on AppointmentTag", List.of(
+                    // tags that only differ in case become one, it keeps the oldest ID and the appointments of all of them
+                    """
+                    INSERT OR IGNORE INTO AppointmentTag (appointmentId, tagId)
+                    SELECT AppointmentTag.appointmentId, (SELECT min(first.tagId) FROM Tag first WHERE first.name = Tag.name COLLATE NOCASE)
+                    FROM AppointmentTag JOIN Tag ON Tag.tagId = AppointmentTag.tagId""",
+                    "DELETE FROM AppointmentTag WHERE tagId NOT IN (SELECT min(tagId) FROM Tag GROUP BY name COLLATE NOCASE)",
+                    "DELETE FROM Tag WHERE tagId NOT IN (SELECT min(tagId) FROM Tag GROUP BY name COLLATE NOCASE)",
+                    """
+                    CREATE TABLE Tag_new (
+                        tagId INTEGER PRIMARY KEY AUTOINCREMENT,
+                        name TEXT COLLATE NOCASE NOT NULL UNIQUE,
+                        color TEXT NOT NULL
+                    )""",
+                    "INSERT INTO Tag_new (tagId, name, color) SELECT tagId, name, color FROM Tag",
+                    """
+                    UPDATE sqlite_sequence
+                    SET seq = max(seq, coalesce((SELECT seq FROM sqlite_sequence WHERE name = 'Tag'), 0))
+                    WHERE name = 'Tag_new'""",
+                    """
+                    INSERT INTO sqlite_sequence (name, seq)
+                    SELECT 'Tag_new', seq FROM sqlite_sequence
+                    WHERE name = 'Tag'
+                      AND NOT EXISTS (SELECT 1 FROM sqlite_sequence WHERE name = 'Tag_new')""",
+                    "DROP TABLE Tag",
+                    "ALTER TABLE Tag_new RENAME TO Tag",
+                    // covers the tag filter, the primary key only helps when the appointment is known
+                    "CREATE INDEX idx_appointmentTag_tagId ON AppointmentTag(tagId, appointmentId)"
+            )),
+            new Migration(6, "recurring appointments", List.of(
+                    // RRULE and EXDATE values of RFC 5545, a series is stored once and expanded when it is read
+                    "ALTER TABLE Appointment ADD COLUMN recurrenceRule TEXT",
+                    "ALTER TABLE Appointment ADD COLUMN recurrenceExceptions TEXT",
+                    // epoch seconds when the last occurrence ends, NULL if the series never ends
+                    "ALTER TABLE Appointment ADD COLUMN recurrenceEnd BIGINT",
+                    // only the few series, so finding those that reach into a window does not depend on the single appointments
+                    "CREATE INDEX idx_appointment_series ON Appointment(startDate) WHERE recurrenceRule IS NOT NULL"
+            )),
+            new Migration(7, "per day summary of the single appointments for the month view", List.of(
+                    // day in days since 1970-01-01, the first appointment is the one starting first, then the lowest ID
+                    """
+                    CREATE TABLE DaySummary (
+                        day INTEGER PRIMARY KEY,
+                        appointmentCount INTEGER NOT NULL,
+                        firstStartDate BIGINT NOT NULL,
+                        firstAppointmentId INTEGER NOT NULL
+                    )""",
+                    """
+                    INSERT INTO DaySummary (day, appointmentCount, firstStartDate, firstAppointmentId)
+                    WITH RECURSIVE AppointmentDay (appointmentId, startDate, day, lastDay) AS (
+                        SELECT appointmentId, startDate, %s, %s
+                        FROM Appointment
+                        WHERE recurrenceRule IS NULL
+                        UNION ALL
+                        SELECT appointmentId, startDate, day + 1, lastDay FROM AppointmentDay WHERE day < lastDay
+                    )
+                    SELECT day, appointmentCount, startDate, appointmentId
+                    FROM (SELECT day, startDate, appointmentId,
+                                 count(*) OVER (PARTITION BY day) AS appointmentCount,
+                                 row_number() OVER (PARTITION BY day ORDER BY startDate, appointmentId) AS position
+                          FROM AppointmentDay)
+                    WHERE position = 1""".formatted(epochDay("startDate"), epochDay("max(startDate, endDate)")),
+                    """
+                    CREATE TRIGGER appointment_day_summary_insert AFTER INSERT ON Appointment
+                    WHEN NEW.recurrenceRule IS NULL
+                    BEGIN
+                        %s
+                    END""".formatted(addToDaySummary()),
+                    """
+                    CREATE TRIGGER appointment_day_summary_update AFTER UPDATE OF startDate, endDate, recurrenceRule ON Appointment
+                    BEGIN
+                        %s
+                        %s
+                    END""".formatted(removeFromDaySummary(), addToDaySummary()),
+                    """
+                    CREATE TRIGGER appointment_day_summary_delete AFTER DELETE ON Appointment
+                    WHEN OLD.recurrenceRule IS NULL
+                    BEGIN
+                        %s
+                    END""".formatted(removeFromDaySummary())
+            ))
+    );
+
+    static final int LATEST_VERSION = MIGRATIONS.getLast().version();
+
+    private SchemaMigrator() {
+    }
+
+    /**
+     * @return SQL for the day the epoch second is in, the start of the day is exact also before 1970
+     */
+    private static String epochDay(String epochSecond) {
+        return "unixepoch(" + epochSecond + ", 'unixepoch', 'start of day') / 86400";
+    }
+
+    /**
+     * Counts the single appointment NEW on every day from its start to its end. Statements of the trigger body.
+     */
+    private static String addToDaySummary() {
+        return """
+                INSERT INTO DaySummary (day, appointmentCount, firstStartDate, firstAppointmentId)
+                WITH RECURSIVE AppointmentDay (day) AS (
+                    SELECT %s
+                    UNION ALL
+                    SELECT day + 1 FROM AppointmentDay WHERE day < %s
+                )
+                SELECT day, 1, NEW.startDate, NEW.appointmentId FROM AppointmentDay WHERE NEW.recurrenceRule IS NULL
+                ON CONFLICT (day) DO UPDATE SET
+                    appointmentCount = appointmentCount + 1,
+                    firstStartDate = iif((NEW.startDate, NEW.appointmentId) < (firstStartDate, firstAppointmentId), NEW.startDate, firstStartDate),
+                    firstAppointmentId = iif((NEW.startDate, NEW.appointmentId) < (firstStartDate, firstAppointmentId), NEW.appointmentId, firstAppointmentId);"""
+                .formatted(epochDay("NEW.startDate"), epochDay("max(NEW.startDate, NEW.endDate)"));
+    }
+
+    /**
+     * Takes the single appointment OLD off its days. A day it was the first appointment of looks its new first one
+     * up in the interval index, among the appointments of that day only. Statements of the trigger body.
+     */
+    private static String removeFromDaySummary() {
+        String days = "day BETWEEN %s AND %s AND OLD.recurrenceRule IS NULL"
+                .formatted(epochDay("OLD.startDate"), epochDay("max(OLD.startDate, OLD.endDate)"));
+        return """
+                DELETE FROM DaySummary WHERE %1$s AND appointmentCount = 1;
+                UPDATE DaySummary SET appointmentCount = appointmentCount - 1 WHERE %1$s AND firstAppointmentId <> OLD.appointmentId;
+                UPDATE DaySummary SET
+                    appointmentCount = appointmentCount - 1,
+                    (firstStartDate, firstAppointmentId) = (
+                        SELECT Appointment.startDate, Appointment.appointmentId
+                        FROM AppointmentInterval
+                        JOIN Appointment ON Appointment.appointmentId = AppointmentInterval.appointmentId
+                        WHERE AppointmentInterval.startEpoch < (DaySummary.day + 1) * 86400
+                          AND AppointmentInterval.endEpoch >= DaySummary.day * 86400
+                          AND Appointment.startDate < (DaySummary.day + 1) * 86400
+                          AND max(Appointment.startDate, Appointment.endDate) >= DaySummary.day * 86400
+                          AND Appointment.recurrenceRule IS NULL
+                        ORDER BY Appointment.startDate, Appointment.appointmentId
+                        LIMIT 1)
+                WHERE %1$s AND firstAppointmentId = OLD.appointmentId;""".formatted(days);
+    }
+
+    static void migrate(Connection connection) throws SQLException {
+        int currentVersion = getUserVersion(connection);
+        if (currentVersion >= LATEST_VERSION) {
+            logger.debug("Database schema is up to date (version {})", currentVersion);
+            return;
+        }
+
+        boolean autoCommit = connection.getAutoCommit();
+        try (Statement statement = connection.createStatement()) {
+            // tables are rebuilt by some migrations, dropping them must not cascade into AppointmentTag
+            boolean foreignKeys = isForeignKeysEnabled(statement);
+            statement.executeUpdate("PRAGMA foreign_keys = OFF");
+            connection.setAutoCommit(false);
+
+            for (Migration migration : MIGRATIONS) {
+                if (migration.version() <= currentVersion) {
+                    continue;
+                }
+                logger.info("Migrating database schema to version {}: {}", migration.version(), migration.description());
+                try {
+                    for (String sql : migration.statements()) {
+                        statement.executeUpdate(sql);
+                    }
+                    statement.executeUpdate("PRAGMA user_version = " + migration.version());
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    logger.error("Migration to schema version {} failed", migration.version(), e);
+                    throw e;
+                }
+            }
+
+            connection.setAutoCommit(true);
+            statement.executeUpdate("PRAGMA foreign_keys = " + (foreignKeys ? "ON" : "OFF"));
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static boolean isForeignKeysEnabled(Statement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("PRAGMA foreign_keys")) {
+            return resultSet.next() && resultSet.getInt(1) == 1;
+        }
+    }
+
+    private static int getUserVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA user_version")) {
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Migrates the database file given as first argument. Used to keep the bundled database,
+     * which the jOOQ classes are generated from, on the newest schema version.
+     */
+    public static void main(String[] args) throws SQLException {
+        if (args.length != 1) {
+            System.err.println("Usage: SchemaMigrator <path to database>");
+            return;
+        }
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + args[0])) {
+            migrate(connection);
+        }
+    }
+}
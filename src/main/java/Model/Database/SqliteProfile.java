@@ -0,0 +1,83 @@
+package Model.Database;
+
+import org.sqlite.SQLiteConfig;
+
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Named SQLite connection settings, applied by the driver to every connection the pool opens.
+ * Both presets use WAL, so readers no longer block the writer, and enable foreign keys,
+ * so the ON DELETE CASCADE of AppointmentTag is enforced.
+ */
+public enum SqliteProfile {
+    /**
+     * Every commit is synced to disk before it returns and survives a power loss.
+     */
+    DURABLE(SQLiteConfig.SynchronousMode.FULL, 64L * 1024 * 1024, 16 * 1024),
+    /**
+     * Commits only sync at WAL checkpoints. The database stays consistent, but the last commits
+     * before a power loss or OS crash can be lost.
+     */
+    FAST(SQLiteConfig.SynchronousMode.NORMAL, 256L * 1024 * 1024, 64 * 1024);
+
+    private static final int BUSY_TIMEOUT_MILLIS = 5000;
+
+    private final SQLiteConfig.SynchronousMode synchronous;
+    private final long mmapSizeBytes;
+    private final int cacheSizeKibibytes;
+
+    SqliteProfile(SQLiteConfig.SynchronousMode synchronous, long mmapSizeBytes, int cacheSizeKibibytes) {
+        this.synchronous = synchronous;
+        this.mmapSizeBytes = mmapSizeBytes;
+        this.cacheSizeKibibytes = cacheSizeKibibytes;
+    }
+
+    SQLiteConfig.SynchronousMode getSynchronous() {
+        return synchronous;
+    }
+
+    /**
+     * @return the driver properties of the single writer connection, sqlite-jdbc runs them as PRAGMAs when it connects
+     */
+    Properties writerProperties() {
+        SQLiteConfig config = baseConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        // take the write lock when the transaction starts instead of failing to upgrade a read lock later
+        config.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+        return config.toProperties();
+    }
+
+    /**
+     * @return the driver properties of the pooled read-only connections
+     */
+    Properties readerProperties() {
+        SQLiteConfig config = baseConfig();
+        config.setReadOnly(true);
+        return config.toProperties();
+    }
+
+    private SQLiteConfig baseConfig() {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setSynchronous(synchronous);
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, Long.toString(mmapSizeBytes));
+        // negative values are KiB instead of pages
+        config.setCacheSize(-cacheSizeKibibytes);
+        config.setTempStore(SQLiteConfig.TempStore.MEMORY);
+        config.setBusyTimeout(BUSY_TIMEOUT_MILLIS);
+        config.enforceForeignKeys(true);
+        return config;
+    }
+
+    /**
+     * @param name name of the preset, case is ignored
+     * @throws IllegalArgumentException if there is no preset with this name
+     */
+    public static SqliteProfile fromName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown SQLite profile \"" + name + "\", expected durable or fast.");
+        }
+    }
+}
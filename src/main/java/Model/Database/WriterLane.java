@@ -0,0 +1,291 @@
+package Model.Database;
+
+import org.jooq.DSLContext;
+import org.jooq.ExecuteListener;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultConnectionProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sqlite.SQLiteConfig;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every write of a database on one connection and one thread, so writers never compete for
+ * SQLite's write lock. Writes that queue up while a transaction is running are committed together in
+ * the next one (group commit). Each write runs in its own savepoint, a failing write is rolled back
+ * alone and does not affect the others of its group. A write that throws an {@link Error} fails only its own
+ * future as well, the writer thread keeps running.
+ * <p>
+ * Asynchronous writes may wait up to {@link #GROUP_WINDOW_NANOS} for more writes to share their commit.
+ * Blocking and durable writes end that window, durable ones are also synced to disk with synchronous=FULL.
+ * <p>
+ * A write can register actions with {@link #afterCommit(Runnable)} to keep in-memory state in line with the database.
+ * They run on the writer thread in commit order, so they see the writes in the order the database applied them.
+ */
+class WriterLane implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(WriterLane.class);
+    private static final int MAX_GROUP_SIZE = 128;
+    private static final long GROUP_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    /**
+     * @param mayWait the write can wait for the group window to fill up
+     * @param durable the commit has to be synced to disk
+     */
+    private record WriteTask<T>(DSLContextConsumer<T> work, CompletableFuture<T> result, boolean mayWait, boolean durable) {
+    }
+
+    private record Failure(Throwable cause) {
+    }
+
+    private static final WriteTask<Void> STOP = new WriteTask<>(create -> null, new CompletableFuture<>(), false, false);
+
+    private final Connection connection;
+    private final SqliteProfile profile;
+    private final DSLContext create;
+    private final BlockingQueue<WriteTask<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    /**
+     * Actions of the writes of the current transaction, only touched by the writer thread.
+     */
+    private final List<Runnable> afterCommitActions = new ArrayList<>();
+    /**
+     * Only incremented by the writer thread.
+     */
+    private volatile long commitCount;
+    private volatile boolean closed;
+
+    WriterLane(Connection connection, SqliteProfile profile, ExecuteListener... executeListeners) {
+        this.connection = connection;
+        this.profile = profile;
+        this.create = DSL.using(JooqSettings.configuration(new DefaultConnectionProvider(connection), executeListeners));
+        this.thread = Thread.ofPlatform().name("javender-writer").daemon().start(this::run);
+    }
+
+    /**
+     * Queues the write and waits until the transaction containing it has been committed.
+     * Writes issued from within another write run directly as part of it.
+     */
+    <T> T execute(DSLContextConsumer<T> work) throws Exception {
+        if (Thread.currentThread() == thread) {
+            return work.execute(create);
+        }
+
+        try {
+            return enqueue(new WriteTask<>(work, new CompletableFuture<>(), false, false)).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Queues the write without waiting for it, the future completes after its commit.
+     */
+    <T> CompletableFuture<T> submit(DSLContextConsumer<T> work, boolean durable) {
+        return enqueue(new WriteTask<>(work, new CompletableFuture<>(), !durable, durable));
+    }
+
+    /**
+     * Runs the action once the transaction of the current write has been committed, before the write's future
+     * completes. The action is dropped if the write or its transaction is rolled back.
+     *
+     * @throws IllegalStateException if not called from within a write
+     */
+    void afterCommit(Runnable action) {
+        if (Thread.currentThread() != thread) {
+            throw new IllegalStateException("Actions after a commit can only be registered by a write.");
+        }
+        afterCommitActions.add(action);
+    }
+
+    /**
+     * @return the number of committed transactions that changed something, incremented before their writes complete
+     */
+    long getCommitCount() {
+        return commitCount;
+    }
+
+    private <T> CompletableFuture<T> enqueue(WriteTask<T> task) {
+        synchronized (this) {
+            if (closed) {
+                task.result().completeExceptionally(new IllegalStateException("The database has already been closed."));
+                return task.result();
+            }
+            queue.add(task);
+        }
+        return task.result();
+    }
+
+    private void run() {
+        List<WriteTask<?>> group = new ArrayList<>(MAX_GROUP_SIZE);
+        try {
+            while (true) {
+                WriteTask<?> first = queue.take();
+                group.add(first);
+                if (first.mayWait()) {
+                    collectWindow(group);
+                } else {
+                    queue.drainTo(group, MAX_GROUP_SIZE - 1);
+                }
+
+                boolean stop = group.remove(STOP);
+                if (!group.isEmpty()) {
+                    commitGroup(group);
+                }
+                group.clear();
+                if (stop) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.warn("Writer thread interrupted, {} writes are not executed", queue.size());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Adds the writes arriving within the group window, until the group is full or a write must not wait.
+     */
+    private void collectWindow(List<WriteTask<?>> group) throws InterruptedException {
+        long deadline = System.nanoTime() + GROUP_WINDOW_NANOS;
+        while (group.size() < MAX_GROUP_SIZE) {
+            WriteTask<?> task = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (task == null) {
+                return;
+            }
+            group.add(task);
+            if (!task.mayWait()) {
+                queue.drainTo(group, MAX_GROUP_SIZE - group.size());
+                return;
+            }
+        }
+    }
+
+    private void commitGroup(List<WriteTask<?>> group) {
+        List<Object> results = new ArrayList<>(group.size());
+        boolean forceSync = profile.getSynchronous() != SQLiteConfig.SynchronousMode.FULL
+                && group.stream().anyMatch(WriteTask::durable);
+        try {
+            if (forceSync) {
+                setSynchronous(SQLiteConfig.SynchronousMode.FULL);
+            }
+            connection.setAutoCommit(false);
+            for (WriteTask<?> task : group) {
+                results.add(executeInSavepoint(task));
+            }
+            connection.commit();
+            logger.debug("Committed {} writes in one transaction", group.size());
+        } catch (Throwable e) {
+            // also errors, a dead writer thread would leave every queued future waiting forever
+            logger.error("Could not commit {} writes", group.size(), e);
+            afterCommitActions.clear();
+            rollback();
+            group.forEach(task -> task.result().completeExceptionally(e));
+            return;
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+                if (forceSync) {
+                    setSynchronous(profile.getSynchronous());
+                }
+            } catch (SQLException e) {
+                logger.error("Could not reset the writer connection", e);
+            }
+        }
+
+        if (!results.stream().allMatch(Failure.class::isInstance)) {
+            commitCount++;
+        }
+        runAfterCommitActions();
+        for (int i = 0; i < group.size(); i++) {
+            complete(group.get(i), results.get(i));
+        }
+    }
+
+    private void runAfterCommitActions() {
+        for (Runnable action : afterCommitActions) {
+            try {
+                action.run();
+            } catch (Throwable e) {
+                // the data is committed, a failing action must not fail the write
+                logger.error("Action after commit failed", e);
+            }
+        }
+        afterCommitActions.clear();
+    }
+
+    private void setSynchronous(SQLiteConfig.SynchronousMode synchronous) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA synchronous = " + synchronous.getValue());
+        }
+    }
+
+    private Object executeInSavepoint(WriteTask<?> task) throws SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+        int actionCount = afterCommitActions.size();
+        try {
+            Object result = task.work().execute(create);
+            connection.releaseSavepoint(savepoint);
+            return result;
+        } catch (Throwable e) {
+            afterCommitActions.subList(actionCount, afterCommitActions.size()).clear();
+            connection.rollback(savepoint);
+            connection.releaseSavepoint(savepoint);
+            return new Failure(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void complete(WriteTask<T> task, Object result) {
+        if (result instanceof Failure failure) {
+            task.result().completeExceptionally(failure.cause());
+        } else {
+            task.result().complete((T) result);
+        }
+    }
+
+    private void rollback() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            logger.error("Could not roll back the writer connection", e);
+        }
+    }
+
+    /**
+     * Executes the writes that are already queued, then closes the connection.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(STOP);
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.error("Could not close the writer connection", e);
+        }
+    }
+}
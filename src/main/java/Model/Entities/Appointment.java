@@ -1,16 +1,48 @@
 package Model.Entities;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class Appointment {
+    /**
+     * The stored parts of an appointment, see {@link #getChangedFields()}.
+     */
+    public enum Field {
+        START_DATE,
+        END_DATE,
+        TITLE,
+        DESCRIPTION,
+        TAGS,
+        RECURRENCE
+    }
+
+    /**
+     * The changed fields of an appointment and a copy of its values when they were taken, see {@link #getChanges()}.
+     */
+    public record Changes(Set<Field> fields, Appointment values) {
+    }
+
     private int appointmentId;
     private LocalDateTime startDate;
     private LocalDateTime endDate;
     private String title;
     private String description;
     private List<Tag> tags;
+    // null if the appointment does not repeat
+    private Recurrence recurrence;
+    // set on the copies made by occurrenceAt
+    private boolean occurrence;
+
+    private final EnumSet<Field> changedFields = EnumSet.noneOf(Field.class);
+    // null until the appointment is known to match the database
+    private Set<Integer> storedTagIds;
 
     public Appointment(LocalDateTime startDate, LocalDateTime endDate, String title, String description, List<Tag> tags) {
         this.startDate = startDate;
@@ -42,7 +74,10 @@ public class Appointment {
         return startDate;
     }
 
-    public void setStartDate(LocalDateTime startDate) {
+    public synchronized void setStartDate(LocalDateTime startDate) {
+        if (!Objects.equals(this.startDate, startDate)) {
+            changedFields.add(Field.START_DATE);
+        }
         this.startDate = startDate;
     }
 
@@ -50,7 +85,10 @@ public class Appointment {
         return endDate;
     }
 
-    public void setEndDate(LocalDateTime endDate) {
+    public synchronized void setEndDate(LocalDateTime endDate) {
+        if (!Objects.equals(this.endDate, endDate)) {
+            changedFields.add(Field.END_DATE);
+        }
         this.endDate = endDate;
     }
 
@@ -58,7 +96,10 @@ public class Appointment {
         return title;
     }
 
-    public void setTitle(String title) {
+    public synchronized void setTitle(String title) {
+        if (!Objects.equals(this.title, title)) {
+            changedFields.add(Field.TITLE);
+        }
         this.title = title;
     }
 
@@ -66,7 +107,10 @@ public class Appointment {
         return description;
     }
 
-    public void setDescription(String description) {
+    public synchronized void setDescription(String description) {
+        if (!Objects.equals(this.description, description)) {
+            changedFields.add(Field.DESCRIPTION);
+        }
         this.description = description;
     }
 
@@ -74,21 +118,140 @@ public class Appointment {
         return tags;
     }
 
-    public void setTags(List<Tag> tags) {
+    public synchronized void setTags(List<Tag> tags) {
         this.tags = tags;
     }
 
+    public Recurrence getRecurrence() {
+        return recurrence;
+    }
+
+    public synchronized void setRecurrence(Recurrence recurrence) {
+        if (!Objects.equals(this.recurrence, recurrence)) {
+            changedFields.add(Field.RECURRENCE);
+        }
+        this.recurrence = recurrence;
+    }
+
+    public boolean isRecurring() {
+        return recurrence != null;
+    }
+
+    /**
+     * @return when the last occurrence ends, the end date if the appointment does not repeat, empty if the series never ends
+     */
+    public Optional<LocalDateTime> getLastEndDate() {
+        if (recurrence == null) {
+            return Optional.of(endDate);
+        }
+        Duration length = Duration.between(startDate, endDate);
+        return recurrence.lastStart(startDate).map(lastStart -> lastStart.plus(length));
+    }
+
+    /**
+     * The copy has the ID and recurrence of the series for showing it, but it cannot be saved:
+     * its dates are not those of the series, so changes to the series have to be made on the series itself.
+     *
+     * @return a copy of this series moved to the occurrence starting at {@code occurrenceStart}
+     */
+    public Appointment occurrenceAt(LocalDateTime occurrenceStart) {
+        Duration length = Duration.between(startDate, endDate);
+        Appointment occurrence = new Appointment(appointmentId, occurrenceStart, occurrenceStart.plus(length),
+                title, description, tags == null ? null : new ArrayList<>(tags));
+        occurrence.recurrence = recurrence;
+        occurrence.occurrence = true;
+        occurrence.markClean();
+        return occurrence;
+    }
+
+    /**
+     * @return whether this is a single occurrence of a series, see {@link #occurrenceAt(LocalDateTime)}
+     */
+    public boolean isOccurrence() {
+        return occurrence;
+    }
+
+    /**
+     * Tags count as changed when the set of tag IDs differs from the stored one, so changes made
+     * directly on the list returned by {@link #getTags()} are noticed as well.
+     *
+     * @return the fields changed since the appointment was loaded or saved,
+     * all fields if it was created by the caller and its stored state is unknown
+     */
+    public synchronized Set<Field> getChangedFields() {
+        if (storedTagIds == null) {
+            return EnumSet.allOf(Field.class);
+        }
+        EnumSet<Field> changed = EnumSet.copyOf(changedFields);
+        if (!storedTagIds.equals(tagIds(tags))) {
+            changed.add(Field.TAGS);
+        }
+        return changed;
+    }
+
+    /**
+     * Records the current state as the stored one, called by the data manager after loading or saving the appointment.
+     */
+    public synchronized void markClean() {
+        changedFields.clear();
+        storedTagIds = tagIds(tags);
+    }
+
+    /**
+     * Taken when an update is submitted, the update writes these values even if the appointment is changed
+     * before it is committed.
+     *
+     * @return the changed fields and a copy of the current values
+     */
+    public synchronized Changes getChanges() {
+        Appointment values = new Appointment(appointmentId, startDate, endDate, title, description,
+                tags == null ? null : new ArrayList<>(tags));
+        values.recurrence = recurrence;
+        return new Changes(getChangedFields(), values);
+    }
+
+    /**
+     * Records the written values as the stored ones, called by the data manager once the update is committed.
+     * A field changed again since the changes were taken stays changed.
+     */
+    public synchronized void markClean(Changes written) {
+        for (Field field : written.fields()) {
+            if (field == Field.TAGS) {
+                storedTagIds = tagIds(written.values().tags);
+            } else if (Objects.equals(valueOf(field), written.values().valueOf(field))) {
+                changedFields.remove(field);
+            } else {
+                changedFields.add(field);
+            }
+        }
+    }
+
+    private Object valueOf(Field field) {
+        return switch (field) {
+            case START_DATE -> startDate;
+            case END_DATE -> endDate;
+            case TITLE -> title;
+            case DESCRIPTION -> description;
+            case TAGS -> tagIds(tags);
+            case RECURRENCE -> recurrence;
+        };
+    }
+
+    private static Set<Integer> tagIds(List<Tag> tags) {
+        return tags == null ? Set.of() : tags.stream().map(Tag::getTagId).collect(Collectors.toUnmodifiableSet());
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Appointment that = (Appointment) o;
-        return Objects.equals(startDate, that.startDate) && Objects.equals(endDate, that.endDate) && Objects.equals(title, that.title) && Objects.equals(description, that.description) && Objects.equals(tags, that.tags);
+        return Objects.equals(startDate, that.startDate) && Objects.equals(endDate, that.endDate) && Objects.equals(title, that.title) && Objects.equals(description, that.description) && Objects.equals(tags, that.tags) && Objects.equals(recurrence, that.recurrence);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(appointmentId, startDate, endDate, title, description, tags);
+        return Objects.hash(appointmentId, startDate, endDate, title, description, tags, recurrence);
     }
 
     @Override
@@ -100,6 +263,7 @@ public class Appointment {
                 ", title='" + title + '\'' +
                 ", description='" + description + '\'' +
                 ", tags=" + tags +
+                ", recurrence=" + recurrence +
                 '}';
     }
 }
@@ -0,0 +1,12 @@
+package Model.Entities;
+
+/**
+ * An appointment found by a full-text search.
+ *
+ * @param snippet the part of the title or description that matched best, the matching words are enclosed in
+ *                {@link #HIGHLIGHT_START} and {@link #HIGHLIGHT_END}
+ */
+public record AppointmentMatch(Appointment appointment, String snippet) {
+    public static final String HIGHLIGHT_START = "\u0002";
+    public static final String HIGHLIGHT_END = "\u0003";
+}
@@ -0,0 +1,27 @@
+package Model.Entities;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * What the month view shows of a day instead of its appointments: how many there are and which comes first.
+ * An appointment counts on every day from its start to its end.
+ *
+ * @param firstStartDate     start of the first appointment of the day, on an earlier day if it began before
+ * @param firstAppointmentId ID of the first appointment, the lower ID comes first if two start at the same time
+ * @param firstTagColor      color of the first tag of the first appointment, null if it has no tags
+ */
+public record DaySummary(LocalDate day, int appointmentCount, LocalDateTime firstStartDate, int firstAppointmentId,
+                         String firstTagColor) {
+
+    /**
+     * @return this summary with one more appointment on the day
+     */
+    public DaySummary plus(LocalDateTime startDate, int appointmentId, String tagColor) {
+        boolean first = startDate.isBefore(firstStartDate)
+                || (startDate.equals(firstStartDate) && appointmentId < firstAppointmentId);
+        return first
+                ? new DaySummary(day, appointmentCount + 1, startDate, appointmentId, tagColor)
+                : new DaySummary(day, appointmentCount + 1, firstStartDate, firstAppointmentId, firstTagColor);
+    }
+}
@@ -0,0 +1,14 @@
+package Model.Entities;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * A free period without appointments, within the working hours it was searched with.
+ */
+public record FreeSlot(LocalDateTime startDate, LocalDateTime endDate) {
+
+    public Duration length() {
+        return Duration.between(startDate, endDate);
+    }
+}
@@ -0,0 +1,274 @@
+package Model.Entities;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * How an appointment repeats, a subset of the iCalendar (RFC 5545) RRULE: a frequency with an interval,
+ * ended by a number of occurrences or by a last start, plus the starts of skipped occurrences.
+ * The first occurrence is the appointment itself.
+ * <p>
+ * Occurrences are never stored. They are computed on demand, and only for the asked window: the index of the first
+ * occurrence in it is calculated directly, so the cost depends on the window and not on how long the series runs.
+ * Unlike RFC 5545, a monthly or yearly occurrence whose day does not exist in a month moves to the last day of that
+ * month instead of being skipped, e.g. a series starting on January 31st repeats on February 28th.
+ *
+ * @param interval   repeat every {@code interval} days, weeks, months or years, at least 1
+ * @param count      total number of occurrences including skipped ones, 0 if the series is not limited by a count
+ * @param until      last possible start of an occurrence, null if the series is not limited by a date
+ * @param exceptions starts of occurrences that are skipped
+ */
+public record Recurrence(Frequency frequency, int interval, int count, LocalDateTime until, Set<LocalDateTime> exceptions) {
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    public static final LocalTime LAST_SECOND_OF_DAY = LocalTime.of(23, 59, 59);
+
+    public enum Frequency {
+        DAILY(ChronoUnit.DAYS),
+        WEEKLY(ChronoUnit.WEEKS),
+        MONTHLY(ChronoUnit.MONTHS),
+        YEARLY(ChronoUnit.YEARS);
+
+        private final ChronoUnit unit;
+
+        Frequency(ChronoUnit unit) {
+            this.unit = unit;
+        }
+    }
+
+    public Recurrence {
+        if (frequency == null) {
+            throw new IllegalArgumentException("A recurrence needs a frequency.");
+        }
+        if (interval < 1) {
+            throw new IllegalArgumentException("The interval has to be at least 1.");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("The count must not be negative.");
+        }
+        if (count > 0 && until != null) {
+            throw new IllegalArgumentException("A recurrence ends either after a count or at a date, not both.");
+        }
+        exceptions = exceptions == null ? Set.of() : Set.copyOf(exceptions);
+    }
+
+    /**
+     * @return a series without end and without exceptions
+     */
+    public static Recurrence of(Frequency frequency, int interval) {
+        return new Recurrence(frequency, interval, 0, null, Set.of());
+    }
+
+    public Recurrence withCount(int count) {
+        return new Recurrence(frequency, interval, count, null, exceptions);
+    }
+
+    public Recurrence withUntil(LocalDateTime until) {
+        return new Recurrence(frequency, interval, 0, until, exceptions);
+    }
+
+    public Recurrence withExceptions(Collection<LocalDateTime> exceptions) {
+        return new Recurrence(frequency, interval, count, until, Set.copyOf(exceptions));
+    }
+
+    public Recurrence withException(LocalDateTime occurrenceStart) {
+        Set<LocalDateTime> withException = new TreeSet<>(exceptions);
+        withException.add(occurrenceStart);
+        return withExceptions(withException);
+    }
+
+    /**
+     * @return the start of the occurrence with the given index, 0 being the series start
+     */
+    public LocalDateTime startOf(LocalDateTime seriesStart, long index) {
+        // always from the series start, so a clamped month end does not shift the following occurrences
+        return seriesStart.plus(index * interval, frequency.unit);
+    }
+
+    /**
+     * @return the start of the last occurrence, skipped or not, empty if the series never ends
+     */
+    public Optional<LocalDateTime> lastStart(LocalDateTime seriesStart) {
+        if (count > 0) {
+            return Optional.of(startOf(seriesStart, count - 1));
+        }
+        if (until == null) {
+            return Optional.empty();
+        }
+        if (!until.isAfter(seriesStart)) {
+            return Optional.of(seriesStart);
+        }
+
+        long index = firstIndexFrom(seriesStart, until);
+        while (!startOf(seriesStart, index + 1).isAfter(until)) {
+            index++;
+        }
+        while (index > 0 && startOf(seriesStart, index).isAfter(until)) {
+            index--;
+        }
+        return Optional.of(startOf(seriesStart, index));
+    }
+
+    /**
+     * @return the starts of all occurrences that overlap {@code [from, to]}, in order
+     */
+    public List<LocalDateTime> startsBetween(LocalDateTime seriesStart, Duration length, LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (long index = firstIndexFrom(seriesStart, from.minus(length)); ; index++) {
+            LocalDateTime start = startOf(seriesStart, index);
+            if (isPastEnd(index, start) || start.isAfter(to)) {
+                return starts;
+            }
+            if (!start.plus(length).isBefore(from) && !exceptions.contains(start)) {
+                starts.add(start);
+            }
+        }
+    }
+
+    /**
+     * @param notBefore earliest start of a returned occurrence, null for any
+     * @return the starts of the first {@code limit} occurrences that end after {@code date}, in order
+     */
+    public List<LocalDateTime> startsAfter(LocalDateTime seriesStart, Duration length, LocalDateTime date,
+                                           LocalDateTime notBefore, int limit) {
+        LocalDateTime earliest = notBefore != null && notBefore.isAfter(date.minus(length)) ? notBefore : date.minus(length);
+        List<LocalDateTime> starts = new ArrayList<>(Math.min(limit, 64));
+        for (long index = firstIndexFrom(seriesStart, earliest); starts.size() < limit; index++) {
+            LocalDateTime start = startOf(seriesStart, index);
+            if (isPastEnd(index, start)) {
+                break;
+            }
+            if (start.plus(length).isAfter(date) && (notBefore == null || !start.isBefore(notBefore))
+                    && !exceptions.contains(start)) {
+                starts.add(start);
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * @return the index of the last occurrence starting at or before {@code date}, 0 if the series starts after it
+     */
+    private long firstIndexFrom(LocalDateTime seriesStart, LocalDateTime date) {
+        if (!date.isAfter(seriesStart)) {
+            return 0;
+        }
+        // whole units, so the occurrence at this index cannot start after the date
+        return frequency.unit.between(seriesStart, date) / interval;
+    }
+
+    private boolean isPastEnd(long index, LocalDateTime start) {
+        return (count > 0 && index >= count) || (until != null && start.isAfter(until));
+    }
+
+    /**
+     * @return the rule as the value of an iCalendar RRULE property, without the exceptions
+     */
+    public String toRRule() {
+        StringBuilder rule = new StringBuilder("FREQ=").append(frequency);
+        if (interval > 1) {
+            rule.append(";INTERVAL=").append(interval);
+        }
+        if (count > 0) {
+            rule.append(";COUNT=").append(count);
+        }
+        if (until != null) {
+            rule.append(";UNTIL=").append(until.format(DATE_TIME_FORMAT));
+        }
+        return rule.toString();
+    }
+
+    /**
+     * @return the exceptions as the value of an iCalendar EXDATE property, empty if there are none
+     */
+    public String toExDate() {
+        return exceptions.stream()
+                .sorted()
+                .map(DATE_TIME_FORMAT::format)
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Reads an RRULE value as written by {@link #toRRule()}. A WKST part is ignored,
+     * since it only matters for the BY parts, which are not supported.
+     *
+     * @throws IllegalArgumentException if the rule is malformed or uses parts that are not supported
+     */
+    public static Recurrence parse(String rrule) {
+        Frequency frequency = null;
+        int interval = 1;
+        int count = 0;
+        LocalDateTime until = null;
+
+        for (String part : rrule.trim().split(";")) {
+            int separator = part.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed recurrence rule part: " + part);
+            }
+            String name = part.substring(0, separator).trim().toUpperCase(Locale.ROOT);
+            String value = part.substring(separator + 1).trim();
+            try {
+                switch (name) {
+                    case "FREQ" -> frequency = Frequency.valueOf(value.toUpperCase(Locale.ROOT));
+                    case "INTERVAL" -> interval = Integer.parseInt(value);
+                    case "COUNT" -> count = Integer.parseInt(value);
+                    case "UNTIL" -> until = parseUntil(value);
+                    case "WKST" -> {
+                    }
+                    default -> throw new IllegalArgumentException("Unsupported recurrence rule part: " + name);
+                }
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Malformed recurrence rule part: " + part, e);
+            }
+        }
+        return new Recurrence(frequency, interval, count, until, Set.of());
+    }
+
+    /**
+     * Reads an EXDATE value as written by {@link #toExDate()}.
+     *
+     * @throws IllegalArgumentException if one of the dates is malformed
+     */
+    public static List<LocalDateTime> parseExDate(String exDate) {
+        List<LocalDateTime> dates = new ArrayList<>();
+        for (String value : exDate.split(",")) {
+            if (value.isBlank()) {
+                continue;
+            }
+            try {
+                dates.add(LocalDateTime.parse(value.trim(), DATE_TIME_FORMAT));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Malformed exception date: " + value, e);
+            }
+        }
+        return dates;
+    }
+
+    private static LocalDateTime parseUntil(String value) {
+        if (value.length() == 8) {
+            // a date only includes the whole day, to the second since that is what the database keeps
+            return LocalDate.parse(value, DATE_FORMAT).atTime(LAST_SECOND_OF_DAY);
+        }
+        if (value.endsWith("Z")) {
+            // converted like a UTC start, the last occurrence has to keep matching it
+            LocalDateTime utc = LocalDateTime.parse(value.substring(0, value.length() - 1), DATE_TIME_FORMAT);
+            return utc.atZone(ZoneOffset.UTC).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        }
+        return LocalDateTime.parse(value, DATE_TIME_FORMAT);
+    }
+}
@@ -0,0 +1,46 @@
+package Model.Entities;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The part of each day free time is looked for in, the same hours on every included day.
+ *
+ * @param end end of the hours, {@link LocalTime#MIDNIGHT} for the end of the day
+ */
+public record WorkingHours(LocalTime start, LocalTime end, Set<DayOfWeek> days) {
+    public static final WorkingHours ALWAYS = new WorkingHours(LocalTime.MIDNIGHT, LocalTime.MIDNIGHT, EnumSet.allOf(DayOfWeek.class));
+
+    public WorkingHours {
+        if (start == null || end == null || days == null) {
+            throw new IllegalArgumentException("Working hours need a start, an end and their days.");
+        }
+        if (!end.equals(LocalTime.MIDNIGHT) && !start.isBefore(end)) {
+            throw new IllegalArgumentException("Working hours have to start before they end.");
+        }
+        days = Set.copyOf(days);
+    }
+
+    /**
+     * @return the hours from Monday to Friday
+     */
+    public static WorkingHours weekdays(LocalTime start, LocalTime end) {
+        return new WorkingHours(start, end, EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+    }
+
+    public boolean includes(LocalDate day) {
+        return days.contains(day.getDayOfWeek());
+    }
+
+    public LocalDateTime startOn(LocalDate day) {
+        return day.atTime(start);
+    }
+
+    public LocalDateTime endOn(LocalDate day) {
+        return end.equals(LocalTime.MIDNIGHT) ? day.plusDays(1).atStartOfDay() : day.atTime(end);
+    }
+}
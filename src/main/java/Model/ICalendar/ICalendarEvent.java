@@ -0,0 +1,15 @@
+package Model.ICalendar;
+
+import Model.Entities.Recurrence;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A VEVENT read from an iCalendar file, with its CATEGORIES as plain tag names.
+ *
+ * @param recurrence its RRULE with the EXDATEs as exceptions, null if the event does not repeat
+ */
+public record ICalendarEvent(LocalDateTime startDate, LocalDateTime endDate, String title, String description,
+                             List<String> categories, Recurrence recurrence) {
+}
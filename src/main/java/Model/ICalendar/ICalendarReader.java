@@ -0,0 +1,295 @@
+package Model.ICalendar;
+
+import Model.Entities.Recurrence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads the VEVENTs of an iCalendar (RFC 5545) file one at a time, so the file never has to fit into memory.
+ * Other components like VTIMEZONE or VALARM are skipped. Events without a readable start are skipped
+ * and counted, see {@link #getSkippedEventCount()}.
+ * <p>
+ * Times in UTC or with a TZID are converted to the local time of this machine, floating times are taken as they are.
+ * All-day events last until the end of their last day. An RRULE that uses parts the appointments cannot express,
+ * like BYDAY, is dropped and the event is imported as its first occurrence only.
+ */
+public class ICalendarReader implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ICalendarReader.class);
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final LocalTime END_OF_DAY = LocalTime.of(23, 59);
+    private static final String UNTITLED = "Untitled";
+
+    private final BufferedReader reader;
+    private String nextLine;
+    private int skippedEventCount;
+
+    private record Property(String name, String parameters, String value) {
+        Optional<String> parameter(String parameterName) {
+            for (String parameter : parameters.split(";")) {
+                int separator = parameter.indexOf('=');
+                if (separator > 0 && parameter.substring(0, separator).equalsIgnoreCase(parameterName)) {
+                    return Optional.of(parameter.substring(separator + 1).replace("\"", ""));
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    private record EventDate(LocalDateTime dateTime, boolean allDay) {
+    }
+
+    public ICalendarReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader bufferedReader ? bufferedReader : new BufferedReader(reader);
+    }
+
+    public int getSkippedEventCount() {
+        return skippedEventCount;
+    }
+
+    /**
+     * @return the next event of the file, empty once all events have been read
+     */
+    public Optional<ICalendarEvent> readEvent() throws IOException {
+        String line;
+        while ((line = readUnfoldedLine()) != null) {
+            if (line.equalsIgnoreCase("BEGIN:VEVENT")) {
+                Optional<ICalendarEvent> event = readEventBody();
+                if (event.isPresent()) {
+                    return event;
+                }
+                skippedEventCount++;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<ICalendarEvent> readEventBody() throws IOException {
+        EventDate start = null;
+        EventDate end = null;
+        Duration duration = null;
+        String title = UNTITLED;
+        String description = null;
+        List<String> categories = new ArrayList<>();
+        Recurrence recurrence = null;
+        List<EventDate> exceptions = new ArrayList<>();
+        int nestedComponents = 0;
+
+        String line;
+        while ((line = readUnfoldedLine()) != null) {
+            Property property = parseProperty(line);
+            if (property == null) {
+                continue;
+            }
+
+            if (property.name().equals("BEGIN")) {
+                nestedComponents++;
+                continue;
+            }
+            if (property.name().equals("END")) {
+                if (nestedComponents == 0) {
+                    break;
+                }
+                nestedComponents--;
+                continue;
+            }
+            if (nestedComponents > 0) {
+                // properties of a VALARM or similar belong to that component, not to the event
+                continue;
+            }
+
+            try {
+                switch (property.name()) {
+                    case "DTSTART" -> start = parseDate(property);
+                    case "DTEND" -> end = parseDate(property);
+                    case "DURATION" -> duration = parseDuration(property.value());
+                    case "SUMMARY" -> title = unescape(property.value());
+                    case "DESCRIPTION" -> description = unescape(property.value());
+                    case "CATEGORIES" -> categories.addAll(splitList(property.value()));
+                    case "RRULE" -> recurrence = Recurrence.parse(property.value());
+                    case "EXDATE" -> exceptions.addAll(parseDates(property));
+                    default -> {
+                    }
+                }
+            } catch (DateTimeException | IllegalArgumentException e) {
+                logger.warn("Ignoring unreadable property {}: {}", property.name(), e.getMessage());
+            }
+        }
+
+        if (start == null) {
+            logger.warn("Skipping event \"{}\" without a readable start", title);
+            return Optional.empty();
+        }
+
+        LocalDateTime endDate;
+        if (end != null) {
+            endDate = end.allDay() ? end.dateTime().minusDays(1).toLocalDate().atTime(END_OF_DAY) : end.dateTime();
+        } else if (duration != null) {
+            endDate = start.dateTime().plus(duration);
+        } else {
+            endDate = start.allDay() ? start.dateTime().toLocalDate().atTime(END_OF_DAY) : start.dateTime();
+        }
+        if (endDate.isBefore(start.dateTime())) {
+            endDate = start.dateTime();
+        }
+
+        if (recurrence != null && !exceptions.isEmpty()) {
+            LocalTime startTime = start.dateTime().toLocalTime();
+            // an EXDATE without a time skips the occurrence on that day
+            recurrence = recurrence.withExceptions(exceptions.stream()
+                    .map(exception -> exception.allDay() ? exception.dateTime().toLocalDate().atTime(startTime) : exception.dateTime())
+                    .toList());
+        }
+        return Optional.of(new ICalendarEvent(start.dateTime(), endDate, title, description, categories, recurrence));
+    }
+
+    /**
+     * Reads the next content line and joins the continuation lines that start with a space or a tab.
+     */
+    private String readUnfoldedLine() throws IOException {
+        String line = nextLine != null ? nextLine : reader.readLine();
+        nextLine = null;
+        if (line == null) {
+            return null;
+        }
+
+        StringBuilder unfolded = null;
+        String continuation;
+        while ((continuation = reader.readLine()) != null
+                && !continuation.isEmpty()
+                && (continuation.charAt(0) == ' ' || continuation.charAt(0) == '\t')) {
+            if (unfolded == null) {
+                unfolded = new StringBuilder(line);
+            }
+            unfolded.append(continuation, 1, continuation.length());
+        }
+        nextLine = continuation;
+        return unfolded == null ? line : unfolded.toString();
+    }
+
+    private static Property parseProperty(String line) {
+        boolean quoted = false;
+        int parametersStart = -1;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && c == ';' && parametersStart < 0) {
+                parametersStart = i;
+            } else if (!quoted && c == ':') {
+                int nameEnd = parametersStart < 0 ? i : parametersStart;
+                String parameters = parametersStart < 0 ? "" : line.substring(parametersStart + 1, i);
+                return new Property(line.substring(0, nameEnd).toUpperCase(), parameters, line.substring(i + 1));
+            }
+        }
+        return null;
+    }
+
+    private static EventDate parseDate(Property property) {
+        String value = property.value().trim();
+        boolean dateOnly = property.parameter("VALUE").map("DATE"::equalsIgnoreCase).orElse(value.length() == 8);
+        if (dateOnly) {
+            return new EventDate(LocalDate.parse(value, DATE_FORMAT).atStartOfDay(), true);
+        }
+
+        if (value.endsWith("Z")) {
+            LocalDateTime utc = LocalDateTime.parse(value.substring(0, value.length() - 1), ICalendarWriter.DATE_TIME_FORMAT);
+            return new EventDate(utc.atZone(ZoneOffset.UTC).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime(), false);
+        }
+
+        LocalDateTime dateTime = LocalDateTime.parse(value, ICalendarWriter.DATE_TIME_FORMAT);
+        Optional<String> zone = property.parameter("TZID");
+        if (zone.isPresent()) {
+            try {
+                dateTime = dateTime.atZone(ZoneId.of(zone.get())).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            } catch (DateTimeException e) {
+                // e.g. Windows zone names, the wall clock time is the best guess left
+                logger.debug("Unknown time zone {}, keeping the local time", zone.get());
+            }
+        }
+        return new EventDate(dateTime, false);
+    }
+
+    /**
+     * Parses a list of dates like EXDATE, all with the parameters of the property.
+     */
+    private static List<EventDate> parseDates(Property property) {
+        List<EventDate> dates = new ArrayList<>();
+        for (String value : property.value().split(",")) {
+            if (!value.isBlank()) {
+                dates.add(parseDate(new Property(property.name(), property.parameters(), value)));
+            }
+        }
+        return dates;
+    }
+
+    private static Duration parseDuration(String value) {
+        String duration = value.trim();
+        boolean negative = duration.startsWith("-");
+        if (negative || duration.startsWith("+")) {
+            duration = duration.substring(1);
+        }
+
+        Duration parsed;
+        if (duration.endsWith("W")) {
+            parsed = Duration.ofDays(7L * Long.parseLong(duration.substring(1, duration.length() - 1)));
+        } else {
+            parsed = Duration.parse(duration);
+        }
+        return negative ? parsed.negated() : parsed;
+    }
+
+    static String unescape(String text) {
+        StringBuilder unescaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                unescaped.append(next == 'n' || next == 'N' ? '\n' : next);
+            } else {
+                unescaped.append(c);
+            }
+        }
+        return unescaped.toString();
+    }
+
+    /**
+     * Splits a comma separated value like CATEGORIES, commas escaped with a backslash belong to the value.
+     */
+    private static List<String> splitList(String value) {
+        List<String> values = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == ',') {
+                values.add(unescape(value.substring(start, i)));
+                start = i + 1;
+            }
+        }
+        values.add(unescape(value.substring(start)));
+        values.removeIf(String::isBlank);
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,107 @@
+package Model.ICalendar;
+
+import Model.Database.DataManager;
+import Model.Database.DataManagerException;
+import Model.Database.JooqDataManager;
+import Model.Entities.Appointment;
+import Model.Entities.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Moves appointments between the database and iCalendar files. Both directions stream, the export reads
+ * the appointments through a database cursor and the import writes them in batches of {@link #IMPORT_BATCH_SIZE},
+ * so memory use does not depend on the size of the calendar.
+ */
+public class ICalendarTransfer {
+    private static final Logger logger = LoggerFactory.getLogger(ICalendarTransfer.class);
+    private static final int IMPORT_BATCH_SIZE = 1000;
+    private static final String IMPORTED_TAG_COLOR = "white";
+
+    private final DataManager dataManager;
+
+    public record ImportResult(int importedCount, int skippedCount) {
+    }
+
+    public ICalendarTransfer(DataManager dataManager) {
+        this.dataManager = dataManager;
+    }
+
+    /**
+     * @return the number of exported appointments
+     */
+    public int exportTo(Path path) throws IOException, DataManagerException {
+        logger.info("Exporting appointments to {}", path);
+        try (ICalendarWriter writer = new ICalendarWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            int count = dataManager.forEachAppointment(writer::writeEvent);
+            logger.info("Exported {} appointments to {}", count, path);
+            return count;
+        }
+    }
+
+    /**
+     * Adds all events of the file as new appointments. Categories are matched to tags by name ignoring case,
+     * like the database compares tag names, tags that do not exist yet are created.
+     */
+    public ImportResult importFrom(Path path) throws IOException, DataManagerException {
+        logger.info("Importing appointments from {}", path);
+        Map<String, Tag> tagsByName = new HashMap<>();
+        for (Tag tag : dataManager.getAllTags()) {
+            tagsByName.put(JooqDataManager.nocaseKey(tag.getName()), tag);
+        }
+
+        int importedCount = 0;
+        List<Appointment> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+
+        try (BufferedReader bufferedReader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+             ICalendarReader reader = new ICalendarReader(bufferedReader)) {
+            Optional<ICalendarEvent> event;
+            while ((event = reader.readEvent()).isPresent()) {
+                batch.add(toAppointment(event.get(), tagsByName));
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    importedCount += dataManager.addAppointments(batch).size();
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                importedCount += dataManager.addAppointments(batch).size();
+            }
+
+            logger.info("Imported {} appointments from {}, skipped {}", importedCount, path, reader.getSkippedEventCount());
+            return new ImportResult(importedCount, reader.getSkippedEventCount());
+        }
+    }
+
+    /**
+     * @param tagsByName tags by {@link JooqDataManager#nocaseKey(String) name key}
+     */
+    private Appointment toAppointment(ICalendarEvent event, Map<String, Tag> tagsByName) throws DataManagerException {
+        List<Tag> tags = new ArrayList<>(event.categories().size());
+        for (String category : event.categories()) {
+            String key = JooqDataManager.nocaseKey(category);
+            Tag tag = tagsByName.get(key);
+            if (tag == null) {
+                int tagId = dataManager.addTag(new Tag(category, IMPORTED_TAG_COLOR));
+                tag = new Tag(tagId, category, IMPORTED_TAG_COLOR);
+                tagsByName.put(key, tag);
+            }
+            if (!tags.contains(tag)) {
+                tags.add(tag);
+            }
+        }
+        Appointment appointment = new Appointment(event.startDate(), event.endDate(), event.title(), event.description(), tags);
+        appointment.setRecurrence(event.recurrence());
+        return appointment;
+    }
+}
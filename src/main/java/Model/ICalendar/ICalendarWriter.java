@@ -0,0 +1,116 @@
+package Model.ICalendar;
+
+import Model.Entities.Appointment;
+import Model.Entities.Tag;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.stream.Collectors;
+
+/**
+ * Writes appointments as VEVENTs of an iCalendar (RFC 5545) file, one event at a time.
+ * Appointment dates have no zone and are written as floating local times. Tags become CATEGORIES,
+ * a recurrence becomes an RRULE with its skipped occurrences as EXDATE.
+ * The calendar is finished by {@link #close()}.
+ */
+public class ICalendarWriter implements Closeable {
+    static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final Writer writer;
+    private final String timestamp;
+    private boolean closed;
+
+    public ICalendarWriter(Writer writer) throws IOException {
+        this.writer = writer;
+        this.timestamp = LocalDateTime.now(ZoneOffset.UTC).format(DATE_TIME_FORMAT) + "Z";
+
+        writeLine("BEGIN:VCALENDAR");
+        writeLine("VERSION:2.0");
+        writeLine("PRODID:-//Javender//Javender 1.0//EN");
+        writeLine("CALSCALE:GREGORIAN");
+    }
+
+    public void writeEvent(Appointment appointment) throws IOException {
+        writeLine("BEGIN:VEVENT");
+        writeLine("UID:javender-" + appointment.getAppointmentId() + "@javender");
+        writeLine("DTSTAMP:" + timestamp);
+        writeLine("DTSTART:" + appointment.getStartDate().format(DATE_TIME_FORMAT));
+        writeLine("DTEND:" + appointment.getEndDate().format(DATE_TIME_FORMAT));
+        writeLine("SUMMARY:" + escape(appointment.getTitle()));
+        if (appointment.getDescription() != null) {
+            writeLine("DESCRIPTION:" + escape(appointment.getDescription()));
+        }
+        if (appointment.isRecurring()) {
+            writeLine("RRULE:" + appointment.getRecurrence().toRRule());
+            if (!appointment.getRecurrence().exceptions().isEmpty()) {
+                writeLine("EXDATE:" + appointment.getRecurrence().toExDate());
+            }
+        }
+        if (appointment.getTags() != null && !appointment.getTags().isEmpty()) {
+            writeLine("CATEGORIES:" + appointment.getTags().stream()
+                    .map(Tag::getName)
+                    .map(ICalendarWriter::escape)
+                    .collect(Collectors.joining(",")));
+        }
+        writeLine("END:VEVENT");
+    }
+
+    static String escape(String text) {
+        return text
+                .replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n");
+    }
+
+    /**
+     * Writes a content line, folded after 75 octets as the RFC demands without splitting a UTF-8 character.
+     */
+    private void writeLine(String line) throws IOException {
+        int octets = 0;
+        for (int i = 0; i < line.length(); ) {
+            int codePoint = line.codePointAt(i);
+            int length = Character.charCount(codePoint);
+            int codePointOctets = utf8Length(codePoint);
+
+            if (octets + codePointOctets > MAX_LINE_OCTETS) {
+                writer.write("\r\n ");
+                // the leading space of a continuation line counts towards its length
+                octets = 1;
+            }
+            writer.write(line, i, length);
+            octets += codePointOctets;
+            i += length;
+        }
+        writer.write("\r\n");
+    }
+
+    private static int utf8Length(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            return 2;
+        }
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writeLine("END:VCALENDAR");
+        } finally {
+            writer.close();
+        }
+    }
+}
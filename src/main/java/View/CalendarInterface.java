@@ -1,11 +1,12 @@
 package View;
 
 import Model.Entities.Appointment;
+import Model.Entities.AppointmentMatch;
+import Model.Entities.DaySummary;
+import Model.Entities.FreeSlot;
 import Model.Entities.Tag;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
+import java.io.PrintStream;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -13,52 +14,36 @@ import java.util.*;
 
 public class CalendarInterface implements UserInterface {
 
-    private static final Logger logger = LoggerFactory.getLogger(CalendarInterface.class);
-    private final Scanner scanner = new Scanner(System.in);
+    private static final String DAYS_HEADER = "MO TU WE TH FR SA SU ";
+    private static final int YEAR_COLUMNS = 3;
+    private static final String YEAR_COLUMN_GAP = "   ";
+    /**
+     * Name, days and the six weeks a month can touch.
+     */
+    private static final int MONTH_BLOCK_LINES = 8;
+
+    private final TerminalScreen screen = TerminalScreen.ofSystem();
+    private final PrintStream out = screen.out();
+    private final Scanner scanner = new Scanner(screen.in());
     private final int COMMENT_LINE_LENGTH = 30;
     @SuppressWarnings("FieldCanBeLocal")
     private final int MAX_COMMENT_LENGTH = COMMENT_LINE_LENGTH * 2 - 3; // intentionally declared as a constant to make adding further features easier
     @SuppressWarnings("FieldCanBeLocal")
     private final int SPACING = 10;   // Space between the calendar & upcoming appointments & intentionally declared as a constant to make adding further features easier
+    private final MonthRenderer monthRenderer = new MonthRenderer();
 
-    private String getMonthDaysFormatted(LocalDate date) {
-        StringBuilder monthString = new StringBuilder();
-
-        int offset = getDayOffset(date);
-        monthString.append("   ".repeat(Math.max(0, offset)));
-
-        int dayPosition = offset;
-        for (int day = 1; day <= date.lengthOfMonth(); day++) {
-            monthString.append(String.format("%2d ", day));
-            dayPosition = (dayPosition + 1) % 7;
-            if (dayPosition == 0) {
-                monthString.append("\n");
-            }
-        }
-        monthString.append("   ".repeat(7 - dayPosition));
-
-        return monthString.toString();
-    }
-
-    private int getDayOffset(LocalDate date) {
-        int offset;
-        DayOfWeek firstDayOfMonth = date.minusDays(date.getDayOfMonth() - 1).getDayOfWeek();
-        offset = firstDayOfMonth.getValue() - 1;
-        return offset;
-    }
-
-    public String getCalendar(LocalDate date, List<Appointment> appointmentList, int monthAmount) {
-        StringBuilder calendarView = new StringBuilder();
-        String days = monthAmount == 1 ? "MO TU WE TH FR SA SU " : "    MO TU WE TH FR SA SU ";
+    public String getCalendar(LocalDate date, List<DaySummary> daySummaries, int monthAmount) {
+        String days = monthAmount == 1 ? DAYS_HEADER : "    " + DAYS_HEADER;
         int maxLineLength = days.length();
 
         if (monthAmount == 1) {
-            return getSingleMonthCalendar(date, appointmentList, days, maxLineLength);
+            return getSingleMonthCalendar(date, daySummaries, days, maxLineLength);
         }
 
         String currentDay = formatCurrentDayHeader();
         int repeatCountDate = Math.max(0, maxLineLength - currentDay.length());
         int repeatCountCalender = Math.max(0, currentDay.length() - days.length());
+        StringBuilder calendarView = new StringBuilder(256 + monthAmount * (MonthRenderer.MAX_LENGTH + 6 * (4 + repeatCountCalender + 1)));
 
         if (!isLocalDateMonthEqual(date, LocalDate.now())) {
             calendarView.append(ColorManager.getColoredText("yellow", getWarningString(date)));
@@ -68,14 +53,16 @@ public class CalendarInterface implements UserInterface {
                 .append(" ".repeat(repeatCountDate)).append("\n")
                 .append(days).append(" ".repeat(repeatCountCalender));
 
+        StringBuilder month = new StringBuilder(MonthRenderer.MAX_LENGTH);
         for (int i = 0; i < monthAmount; i++) {
-            calendarView.append(formatCalendarMonthWithMargin(date.plusMonths(i), appointmentList, repeatCountCalender));
+            month.setLength(0);
+            appendCalendarMonthWithMargin(calendarView, month, date.plusMonths(i), daySummaries, repeatCountCalender);
         }
         return calendarView.toString();
     }
 
-    private String getSingleMonthCalendar(LocalDate date, List<Appointment> appointmentList, String days, int maxLineLength) {
-        StringBuilder calendarView = new StringBuilder();
+    private String getSingleMonthCalendar(LocalDate date, List<DaySummary> daySummaries, String days, int maxLineLength) {
+        StringBuilder calendarView = new StringBuilder(128 + MonthRenderer.MAX_LENGTH);
         String dateHeader = date.getMonth() + " " + date.getYear();
         int margin = (days.length() - dateHeader.length()) / 2;
 
@@ -86,10 +73,10 @@ public class CalendarInterface implements UserInterface {
             calendarView.append(ColorManager.getColoredText("yellow", getWarningString(date)));
         }
 
-        return calendarView.append(ColorManager.getColoredText("bold", dateHeaderCentered))
-                .append("\n").append(days).append("\n")
-                .append(getMonthWithAppointments(date, appointmentList))
-                .toString();
+        calendarView.append(ColorManager.getColoredText("bold", dateHeaderCentered))
+                .append("\n").append(days).append("\n");
+        monthRenderer.appendMonth(calendarView, YearMonth.from(date), daySummaries, LocalDate.now());
+        return calendarView.toString();
     }
 
     private String formatCurrentDayHeader() {
@@ -110,16 +97,28 @@ public class CalendarInterface implements UserInterface {
                 + " " + date.getYear() + ")\n\n";
     }
 
-    private String formatCalendarMonthWithMargin(LocalDate date, List<Appointment> appointmentList, int repeatCountCalender) {
-        String[] month = getMonthWithAppointments(date, appointmentList).split("\n");
-        StringBuilder formattedMonth = new StringBuilder();
+    /**
+     * @param month buffer the grid is rendered into before its lines are copied with the margin
+     */
+    private void appendCalendarMonthWithMargin(StringBuilder calendarView, StringBuilder month, LocalDate date,
+                                               List<DaySummary> daySummaries, int repeatCountCalender) {
+        monthRenderer.appendMonth(month, YearMonth.from(date), daySummaries, LocalDate.now());
 
-        for (int j = 0; j < month.length; j++) {
-            String preString = (j == 0) ? date.getMonth().toString().substring(0, 3) + " " : "    ";
-            formattedMonth.append("\n").append(preString).append(month[j]).append(" ".repeat(repeatCountCalender));
+        int lineStart = 0;
+        for (int j = 0; lineStart <= month.length(); j++) {
+            int lineEnd = month.indexOf("\n", lineStart);
+            if (lineEnd < 0) {
+                lineEnd = month.length();
+            }
+            calendarView.append("\n");
+            if (j == 0) {
+                calendarView.append(date.getMonth().toString(), 0, 3).append(' ');
+            } else {
+                calendarView.append("    ");
+            }
+            calendarView.append(month, lineStart, lineEnd).repeat(' ', repeatCountCalender);
+            lineStart = lineEnd + 1;
         }
-
-        return formattedMonth.toString();
     }
 
     private String getNumberSuffix(int number) {
@@ -134,55 +133,67 @@ public class CalendarInterface implements UserInterface {
         };
     }
 
-    private String getMonthWithAppointments(LocalDate date, List<Appointment> appointmentList) {
-        String monthString = getMonthDaysFormatted(date);
+    /**
+     * Renders every month on its own and places them in rows of three. A month takes a few microseconds,
+     * handing them to other threads would cost more than it saves.
+     *
+     * @param daySummaries the summaries of the year, ordered by day
+     */
+    public String getYearCalendar(Year year, List<DaySummary> daySummaries) {
         LocalDate today = LocalDate.now();
+        String[][] monthBlocks = new String[12][];
+        for (Month month : Month.values()) {
+            monthBlocks[month.ordinal()] = getMonthBlock(year.atMonth(month), daySummaries, today);
+        }
 
-        for (int day = 1; day <= date.lengthOfMonth(); day++) {
-            LocalDate currentDay = date.withDayOfMonth(day);
-
-            // Check whether the day is today or has appointments
-            boolean isToday = currentDay.isEqual(today);
-            List<Appointment> dayAppointments = appointmentList.stream()
-                    .filter(appointment ->
-                            (currentDay.isEqual(appointment.getStartDate().toLocalDate()) || currentDay.isAfter(appointment.getStartDate()
-                                    .toLocalDate())) &&
-                                    (currentDay.isEqual(appointment.getEndDate().toLocalDate())
-                                            || currentDay.isBefore(appointment.getEndDate().toLocalDate())))
-                    .toList();
-
-            // Only replace if the day is today or appointments exist
-            if (!dayAppointments.isEmpty() || isToday) {
-                String color = "white";
-                if (!dayAppointments.isEmpty()) {
-                    color = dayAppointments.getFirst().getTags().isEmpty() ? "white" :
-                            dayAppointments.getFirst().getTags().getFirst().getColor();
+        int width = YEAR_COLUMNS * DAYS_HEADER.length() + (YEAR_COLUMNS - 1) * YEAR_COLUMN_GAP.length();
+        String yearHeader = Integer.toString(year.getValue());
+        StringBuilder yearView = new StringBuilder(12 * (MonthRenderer.MAX_LENGTH + 2 * DAYS_HEADER.length() + 32));
+        yearView.append(" ".repeat((width - yearHeader.length()) / 2))
+                .append(ColorManager.getColoredText("bold", yearHeader)).append("\n");
+
+        for (int first = 0; first < monthBlocks.length; first += YEAR_COLUMNS) {
+            for (int line = 0; line < MONTH_BLOCK_LINES; line++) {
+                yearView.append("\n");
+                for (int column = 0; column < YEAR_COLUMNS; column++) {
+                    yearView.append(column == 0 ? "" : YEAR_COLUMN_GAP).append(monthBlocks[first + column][line]);
                 }
-
-                String formattedDay = ColorManager.getColoredText(isToday ? "bg_" + color : color, Integer.toString(day));
-
-
-                // Set the formatting of the numbers correctly
-                String dayRegex = "\\b" + String.format(day < 10 ? "%d" : "%2d", day) + "\\b";
-                String formattedReplacement = String.format(day < 10 ? "%10s" : "%11s", formattedDay);
-
-                // Replace the tag in the string
-                monthString = monthString.replaceFirst(dayRegex, formattedReplacement);
             }
+            yearView.append("\n");
         }
-
-        return monthString;
+        return yearView.toString();
+    }
+
+    /**
+     * @return the lines of the month, padded to {@link #MONTH_BLOCK_LINES} lines of equal width
+     */
+    private String[] getMonthBlock(YearMonth month, List<DaySummary> daySummaries, LocalDate today) {
+        StringBuilder days = new StringBuilder(MonthRenderer.MAX_LENGTH);
+        monthRenderer.appendMonth(days, month, daySummaries, today);
+        String[] weeks = days.toString().split("\n");
+
+        String name = month.getMonth().toString();
+        int margin = (DAYS_HEADER.length() - name.length()) / 2;
+        String[] block = new String[MONTH_BLOCK_LINES];
+        block[0] = " ".repeat(margin) + ColorManager.getColoredText("bold", name)
+                + " ".repeat(DAYS_HEADER.length() - margin - name.length());
+        block[1] = DAYS_HEADER;
+        for (int line = 2; line < MONTH_BLOCK_LINES; line++) {
+            block[line] = line - 2 < weeks.length ? weeks[line - 2] : " ".repeat(DAYS_HEADER.length());
+        }
+        return block;
     }
 
-    public String getCalendarWithUpcomingAppointments(LocalDate date, List<Appointment> appointmentList, int monthAmount) {
-        String calendarString = getCalendar(date, appointmentList, monthAmount);
+    public void displayYearCalendar(Year year, List<DaySummary> daySummaries) {
+        clearScreen();
+        out.println(getYearCalendar(year, daySummaries));
+        out.println("Enter anything to return to the calendar.");
+        scanner.nextLine();
+    }
 
-        List<Appointment> upcomingAppointments = appointmentList.stream()
-                .filter(appointment -> appointment.getStartDate().isAfter(LocalDateTime.now()) // All appointments in the future
-                        || (appointment.getStartDate().isBefore(LocalDateTime.now()) // All appointments which are currently running
-                        && appointment.getEndDate().isAfter(LocalDateTime.now())))
-                .sorted(Comparator.comparing(Appointment::getStartDate))
-                .toList();
+    public String getCalendarWithUpcomingAppointments(LocalDate date, List<DaySummary> daySummaries,
+                                                      List<Appointment> upcomingAppointments, int monthAmount) {
+        String calendarString = getCalendar(date, daySummaries, monthAmount);
 
         if (upcomingAppointments.isEmpty()) {
             return calendarString;
@@ -312,54 +323,60 @@ public class CalendarInterface implements UserInterface {
     }
 
     public void startAppointmentCreation() {
-        System.out.println("Enter the details of your appointment:\n");
+        out.println("Enter the details of your appointment:\n");
     }
 
     public String getTitle() {
-        System.out.print("Title: ");
+        out.print("Title: ");
         return scanner.nextLine();
     }
 
     public String getStartDate() {
-        System.out.print("Start Date (e.g: YYYY-MM-DD): ");
+        out.print("Start Date (e.g: YYYY-MM-DD): ");
         String startDate = scanner.next();
         scanner.nextLine(); //consumes \n from the input above, since scanner.next doesn't read \n characters
         return startDate;
     }
 
     public String getEndDate() {
-        System.out.print("End Date (e.g: YYYY-MM-DD): ");
+        out.print("End Date (e.g: YYYY-MM-DD): ");
         String endDate = scanner.next();
         scanner.nextLine(); //consumes \n from the input above, since scanner.next doesn't read \n characters
         return endDate;
     }
 
     public String getStartTime() {
-        System.out.print("Start Time (e.g hh:mm): ");
+        out.print("Start Time (e.g hh:mm): ");
         String startTime = scanner.next();
         scanner.nextLine(); //consumes \n from the input above, since scanner.next doesn't read \n characters
         return startTime;
     }
 
     public String getEndTime() {
-        System.out.print("End Time (e.g hh:mm): ");
+        out.print("End Time (e.g hh:mm): ");
         String endTime = scanner.next();
         scanner.nextLine(); //consumes \n from the input above, since scanner.next doesn't read \n characters
         return endTime;
     }
 
     public String getDescription() {
-        System.out.println("Description: ");
+        out.println("Description: ");
+        return scanner.nextLine();
+    }
+
+    public String getRecurrence() {
+        out.println("Repeat (daily, weekly, monthly or yearly, optionally followed by the interval and the number of times "
+                + "or the last date, e.g. \"weekly 2 10\" or \"monthly 1 2025-12-31\"). Leave empty if it does not repeat:");
         return scanner.nextLine();
     }
 
     public Optional<Tag> getTag(List<Tag> allTags, List<Tag> appliedTags) {
-        System.out.println("Select the tags you want to add to your appointment:");
+        out.println("Select the tags you want to add to your appointment:");
         for (int i = 0; i < allTags.size(); i++) {
-            System.out.println(i + 1 + ". [" + (appliedTags.contains(allTags.get(i)) ? "X" : " ") + "] "
+            out.println(i + 1 + ". [" + (appliedTags.contains(allTags.get(i)) ? "X" : " ") + "] "
                     + ColorManager.getColoredText(allTags.get(i).getColor(), allTags.get(i).getName()));
         }
-        System.out.println(allTags.size() + 1 + ". Exit\n");
+        out.println(allTags.size() + 1 + ". Exit\n");
 
         int input = scanner.nextInt();
         scanner.nextLine();
@@ -370,17 +387,17 @@ public class CalendarInterface implements UserInterface {
     }
 
     public void startTagCreation() {
-        System.out.println("Enter the details of the new Tag");
+        out.println("Enter the details of the new Tag");
     }
 
     public String getTagTitle() {
-        System.out.print("Tag title: ");
+        out.print("Tag title: ");
         return scanner.nextLine();
     }
 
     public int getTagColorIndex() {
-        System.out.print("Choose one of the following colors for your tag: ");
-        System.out.println(
+        out.print("Choose one of the following colors for your tag: ");
+        out.println(
                 ColorManager.getColoredText("red", "\n1.RED") +
                         ColorManager.getColoredText("green", "\n2.GREEN") +
                         ColorManager.getColoredText("yellow", "\n3.YELLOW") +
@@ -392,7 +409,7 @@ public class CalendarInterface implements UserInterface {
     }
 
     public int tagAlreadyExists(Tag existingTag) {
-        System.out.println("The tag with the name \"" + existingTag.getName() + "\" already exists.\n"
+        out.println("The tag with the name \"" + existingTag.getName() + "\" already exists.\n"
                 + "Would you like to overwrite it?\n"
                 + "1. Yes\n"
                 + "2. No");
@@ -406,7 +423,7 @@ public class CalendarInterface implements UserInterface {
                     loop = false;
                     break;
                 default:
-                    System.out.println("Invalid input! Please choose from the selection above!");
+                    out.println("Invalid input! Please choose from the selection above!");
                     break;
             }
         }
@@ -414,22 +431,22 @@ public class CalendarInterface implements UserInterface {
     }
 
     public void successfullyOverwriteTag(Tag newTag) {
-        System.out.println("You have successfully overwritten the tag. Updated tag: \"" + newTag.getName() + "\"");
+        out.println("You have successfully overwritten the tag. Updated tag: \"" + newTag.getName() + "\"");
     }
 
     public void cancelOverwriteTag() {
-        System.out.println("Canceled! You have not overwritten the tag.");
+        out.println("Canceled! You have not overwritten the tag.");
     }
 
     public String startEditingAppointment() {
-        System.out.println("Enter the name of the appointment you want to edit:");
+        out.println("Enter words from the title or description of the appointment you want to edit:");
         return scanner.nextLine();
     }
 
     public int chooseAppointment(List<Appointment> appointments) {
-        System.out.println("Choose one of the following appointments: ");
+        out.println("Choose one of the following appointments: ");
         for (int i = 0; i < appointments.size(); i++) {
-            System.out.println((i + 1) + ": " + appointments.get(i).getTitle()
+            out.println((i + 1) + ": " + appointments.get(i).getTitle()
                     + " Start Date: " + appointments.get(i).getStartDate()
                     + " End Date: " + appointments.get(i).getEndDate()
                     + " Description: " + appointments.get(i).getDescription());
@@ -440,53 +457,61 @@ public class CalendarInterface implements UserInterface {
     }
 
     public int appointmentEditMenu() {
-        System.out.println("What do you want to edit?");
-        System.out.println("1.Title");
-        System.out.println("2.Start and End Date");
-        System.out.println("3.Description");
-        System.out.println("4.Tags");
-        System.out.println("5.Exit");
+        out.println("What do you want to edit?");
+        out.println("1.Title");
+        out.println("2.Start and End Date");
+        out.println("3.Description");
+        out.println("4.Tags");
+        out.println("5.Exit");
         int input = scanner.nextInt();
         scanner.nextLine();
         return input;
     }
 
     public String startEditingTag() {
-        System.out.println("Enter the title of the tag that you want to edit.");
+        out.println("Enter the title of the tag that you want to edit.");
         return scanner.nextLine();
     }
 
     public void tagEditMenu() {
-        System.out.println("Enter the new details of the tag.");
+        out.println("Enter the new details of the tag.");
     }
 
 
     public String startDeletingAppointment() {
-        System.out.println("Enter the title of the appointment you want to delete.");
+        out.println("Enter words from the title or description of the appointment you want to delete:");
         return scanner.nextLine();
     }
 
     public String startDeletingTag() {
-        System.out.println("Enter the name of the tag you want to delete:");
+        out.println("Enter the name of the tag you want to delete:");
         return scanner.nextLine();
     }
 
     public void displayError(String prompt) {
-        System.out.println(prompt);
+        out.println(prompt);
     }
 
     public void displayMessage(String message) {
-        System.out.println(message);
+        out.println(message);
     }
 
     public void displayCommandList() {
         clearScreen();
-        System.out.println("""
+        out.println("""
                 Name & description of all available commands:
                 -"manage": opens the menu for managing appointments and tags
                 -<name of a month> (+ <year>): display the respective month (of the corresponding year)
                 -"now": display the current month
-                -"upcoming" (+ amount (+tag name)): display the upcoming appointments according to the currently displayed month.
+                -"months" <amount>: display that many months at once, from 1 to 12
+                -"year" (+ <year>): display all months of the (given) year
+                -"upcoming" (+ amount (+tag name)): display the upcoming appointments according to the currently displayed month, "amount" at a time.
+                 Enter "next" below the list to see the following ones.
+                -"free" <minutes> (+ amount (+ hours like 09:00-17:00 or "any" (+ tag names))): find the next free times of at least that length
+                 within the next month, on weekdays from 9 to 17 by default. Appointments with one of the tags do not count as busy.
+                -"search" <words>: find appointments whose title or description contains the words or words starting with them
+                -"export" <file>: save all appointments to an iCalendar (.ics) file
+                -"import" <file>: add all appointments of an iCalendar (.ics) file
                 -"exit": closes the program
                 Enter anything to return to the calendar.""");
         scanner.nextLine();
@@ -494,7 +519,7 @@ public class CalendarInterface implements UserInterface {
 
     public int getIntegerInput() {
         while (!scanner.hasNextInt()) {
-            System.out.println("Invalid input. Please enter a number.");
+            out.println("Invalid input. Please enter a number.");
             scanner.next();
         }
         int input = scanner.nextInt();
@@ -503,22 +528,76 @@ public class CalendarInterface implements UserInterface {
     }
 
     public void displayAppointments(List<Appointment> appointments) {
+        displayAppointmentPage(appointments, false);
+    }
+
+    public boolean displayAppointmentPage(List<Appointment> appointments, boolean hasNextPage) {
         clearScreen();
         appointments.forEach(
                 appointment -> {
-                    System.out.println();
-                    System.out.print(ColorManager.UNDERLINE + appointment.getTitle() + ColorManager.RESET
+                    out.println();
+                    out.print(ColorManager.UNDERLINE + appointment.getTitle() + ColorManager.RESET
                             + " " + formatAppointmentDate(appointment) + "\n"
                             + "\"" + appointment.getDescription() + "\"\nTags: ");
                     appointment.getTags().forEach(
-                            tag -> System.out.print(
+                            tag -> out.print(
                                     ColorManager.getColoredText(tag.getColor(), tag.getName()) + " "
                             )
                     );
-                    System.out.println();
+                    out.println();
+                }
+        );
+        if (hasNextPage) {
+            out.println("\nEnter \"next\" to see the next page or anything else to return to the calendar.");
+        } else {
+            out.println("\nEnter anything to return to the calendar.");
+        }
+        String input = scanner.nextLine();
+        return hasNextPage && input.trim().equalsIgnoreCase("next");
+    }
+
+    public void displaySearchResults(List<AppointmentMatch> matches) {
+        clearScreen();
+        if (matches.isEmpty()) {
+            out.println("No appointments found.");
+        }
+        matches.forEach(
+                match -> {
+                    out.println();
+                    out.println(ColorManager.UNDERLINE + match.appointment().getTitle() + ColorManager.RESET
+                            + " " + formatAppointmentDate(match.appointment()));
+                    out.println(match.snippet()
+                            .replace(AppointmentMatch.HIGHLIGHT_START, ColorManager.BOLD + ColorManager.YELLOW)
+                            .replace(AppointmentMatch.HIGHLIGHT_END, ColorManager.RESET));
                 }
         );
-        System.out.println("\nEnter anything to return to the calendar.");
+        out.println("\nEnter anything to return to the calendar.");
+        scanner.nextLine();
+    }
+
+    public void displayOverlapWarning(List<Appointment> overlapping) {
+        out.println(ColorManager.BOLD + ColorManager.YELLOW + "Warning: this overlaps with "
+                + (overlapping.size() == 1 ? "another appointment:" : overlapping.size() + " other appointments:")
+                + ColorManager.RESET);
+        overlapping.forEach(appointment ->
+                out.println("- " + appointment.getTitle() + " " + formatAppointmentDate(appointment)));
+    }
+
+    public void displayFreeSlots(List<FreeSlot> slots, Duration length) {
+        clearScreen();
+        if (slots.isEmpty()) {
+            out.println("No free time of " + length.toMinutes() + " minutes found.");
+        }
+        slots.forEach(slot -> {
+            String start = slot.startDate().format(DateTimeFormatter.ofPattern("yyyy/MM/dd, HH:mm"));
+            String end = slot.startDate().toLocalDate().equals(slot.endDate().toLocalDate())
+                    ? slot.endDate().format(DateTimeFormatter.ofPattern("HH:mm"))
+                    : slot.endDate().format(DateTimeFormatter.ofPattern("yyyy/MM/dd, HH:mm"));
+            long hours = slot.length().toHours();
+            out.println("- " + start + " - " + end + ColorManager.getColoredText("green",
+                    " (" + (hours > 0 ? hours + "h " : "") + slot.length().toMinutesPart() + "min free)"));
+        });
+        out.println("\nEnter anything to return to the calendar.");
         scanner.nextLine();
     }
 
@@ -532,17 +611,13 @@ public class CalendarInterface implements UserInterface {
         return response.equals("yes");
     }
 
-    public static void clearScreen() {
-        if (System.getProperty("os.name").toLowerCase().contains("win")) {
-            try {
-                new ProcessBuilder("cmd", "/c", "cls").inheritIO().start().waitFor();
-            } catch (IOException | InterruptedException e) {
-                logger.error("Error while clearing the screen: ", e);
-            }
-        } else {
-            System.out.print("\033[H\033[2J");
-            System.out.flush();
-        }
-        System.out.println();
+    public void displayFrame(String frame) {
+        // the blank first row is kept from when every frame followed a cleared screen
+        screen.draw("\n" + frame);
+    }
+
+    private void clearScreen() {
+        screen.clear();
+        out.println();
     }
 }
\ No newline at end of file
@@ -22,8 +22,14 @@ public class ColorManager {
     public static final String BG_WHITE = "\u001B[47m";
 
     public static String getColoredText(String color, String text) {
+        return getColorCode(color) + text + RESET;
+    }
 
-        String colorCode = switch (color.toLowerCase()) {
+    /**
+     * @return the escape sequence of the color or style, {@link #RESET} for an unknown one
+     */
+    public static String getColorCode(String color) {
+        return switch (color.toLowerCase()) {
             case "red" -> RED;
             case "bg_red" -> BG_RED;
             case "green" -> GREEN;
@@ -43,6 +49,5 @@ public class ColorManager {
             case "bg_white" -> BG_WHITE;
             default -> RESET; // If an unknown color is passed.
         };
-        return colorCode + text + RESET;
     }
 }
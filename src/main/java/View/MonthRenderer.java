@@ -0,0 +1,85 @@
+package View;
+
+import Model.Entities.DaySummary;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes the day grid of a month, Monday first, one week per line. A day with appointments is shown in the color
+ * of its first appointment, today on a background of that color.
+ * <p>
+ * Every cell is a prepared string, so a month is written in one pass over its days and the summaries without
+ * formatting or searching the text. Besides its output it allocates nothing once the cells of a color are prepared.
+ * Safe for concurrent use.
+ */
+public final class MonthRenderer {
+    private static final int MAX_DAYS = 31;
+    private static final String EMPTY_CELL = "   ";
+    /**
+     * Upper bound of the characters of a month grid, six weeks of colored cells.
+     */
+    public static final int MAX_LENGTH = 6 * 7 * 13 + 6;
+
+    private static final String[] PLAIN_CELLS = new String[MAX_DAYS + 1];
+
+    static {
+        for (int day = 1; day <= MAX_DAYS; day++) {
+            PLAIN_CELLS[day] = (day < 10 ? " " : "") + day + " ";
+        }
+    }
+
+    private final Map<String, String[]> cellsByColor = new ConcurrentHashMap<>();
+
+    /**
+     * @param summaries summaries ordered by day, those of other months are skipped
+     */
+    public void appendMonth(StringBuilder out, YearMonth month, List<DaySummary> summaries, LocalDate today) {
+        LocalDate first = month.atDay(1);
+        LocalDate last = month.atEndOfMonth();
+        int offset = first.getDayOfWeek().getValue() - 1;
+        out.repeat(EMPTY_CELL, offset);
+
+        int next = 0;
+        while (next < summaries.size() && summaries.get(next).day().isBefore(first)) {
+            next++;
+        }
+        int todayOfMonth = YearMonth.from(today).equals(month) ? today.getDayOfMonth() : 0;
+
+        int dayPosition = offset;
+        for (int day = 1; day <= month.lengthOfMonth(); day++) {
+            DaySummary summary = null;
+            if (next < summaries.size() && !summaries.get(next).day().isAfter(last)
+                    && summaries.get(next).day().getDayOfMonth() == day) {
+                summary = summaries.get(next++);
+            }
+
+            if (summary == null && day != todayOfMonth) {
+                out.append(PLAIN_CELLS[day]);
+            } else {
+                String color = summary == null || summary.firstTagColor() == null ? "white" : summary.firstTagColor();
+                out.append(cellsOf(day == todayOfMonth ? "bg_" + color : color)[day]);
+            }
+
+            dayPosition = (dayPosition + 1) % 7;
+            if (dayPosition == 0) {
+                out.append('\n');
+            }
+        }
+        out.repeat(EMPTY_CELL, 7 - dayPosition);
+    }
+
+    private String[] cellsOf(String color) {
+        return cellsByColor.computeIfAbsent(color, name -> {
+            String code = ColorManager.getColorCode(name);
+            String[] cells = new String[MAX_DAYS + 1];
+            for (int day = 1; day <= MAX_DAYS; day++) {
+                cells[day] = (day < 10 ? " " : "") + code + day + ColorManager.RESET + " ";
+            }
+            return cells;
+        });
+    }
+}
@@ -0,0 +1,308 @@
+package View;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * The terminal as rows of text, so a new frame only rewrites the rows that changed instead of clearing the screen.
+ * <p>
+ * A frame starts in the top row. Everything written through {@link #out()} or typed into {@link #in()} after it
+ * is followed byte by byte to know where the cursor is. The next frame is drawn whole if the screen may have
+ * scrolled meanwhile, if a row of the frame is wider than the terminal or if the screen was cleared in between.
+ * Wide characters like CJK or emoji take up two columns. Characters outside the BMP are all counted as wide,
+ * counting too many columns only costs a whole redraw while too few would put the changed rows in the wrong place.
+ * Every frame is sent to the terminal in one write.
+ */
+public final class TerminalScreen {
+    private static final Logger logger = LoggerFactory.getLogger(TerminalScreen.class);
+    private static final int DEFAULT_ROWS = 24;
+    private static final int DEFAULT_COLUMNS = 80;
+    private static final String CSI = "\033[";
+    private static final String CLEAR = CSI + "H" + CSI + "2J";
+
+    private final PrintStream terminal;
+    private final int rows;
+    private final int columns;
+    private final boolean clearWithCls;
+    private final PrintStream out;
+    private final InputStream in;
+
+    /**
+     * The rows of the frame on the screen, null if the next frame has to be drawn whole.
+     */
+    private String[] frame;
+    private int rowsBelowFrame;
+    private int column;
+    /**
+     * 1 after an escape character, 2 inside a control sequence.
+     */
+    private int escapeState;
+    /**
+     * The continuation bytes still missing of the UTF-8 character being tracked, and its bits so far.
+     */
+    private int pendingBytes;
+    private int pendingCodePoint;
+
+    /**
+     * @param rows    height of the terminal
+     * @param columns width of the terminal, longer lines wrap into the next row
+     */
+    public TerminalScreen(PrintStream terminal, InputStream input, int rows, int columns) {
+        this(terminal, input, rows, columns, false);
+    }
+
+    private TerminalScreen(PrintStream terminal, InputStream input, int rows, int columns, boolean clearWithCls) {
+        this.terminal = terminal;
+        this.rows = rows;
+        this.columns = columns;
+        this.clearWithCls = clearWithCls;
+        this.out = new PrintStream(new TrackingOutputStream(terminal), true, terminal.charset());
+        this.in = new TrackingInputStream(input);
+    }
+
+    /**
+     * The screen of the console the program runs in, its size is taken from LINES and COLUMNS if they are set.
+     */
+    public static TerminalScreen ofSystem() {
+        return new TerminalScreen(System.out, System.in, sizeFromEnvironment("LINES", DEFAULT_ROWS),
+                sizeFromEnvironment("COLUMNS", DEFAULT_COLUMNS), System.getProperty("os.name").toLowerCase().contains("win"));
+    }
+
+    private static int sizeFromEnvironment(String name, int defaultSize) {
+        try {
+            String value = System.getenv(name);
+            return value == null ? defaultSize : Math.max(1, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return defaultSize;
+        }
+    }
+
+    /**
+     * @return the stream for everything written below a frame
+     */
+    public PrintStream out() {
+        return out;
+    }
+
+    /**
+     * @return the stream the user types into, its line breaks move the cursor like written ones
+     */
+    public InputStream in() {
+        return in;
+    }
+
+    /**
+     * Shows the frame from the top row in place of the previous one and clears everything below it.
+     * The cursor is left at the start of the row after the frame.
+     */
+    public synchronized void draw(String text) {
+        String[] lines = text.split("\n", -1);
+        boolean fits = lines.length < rows;
+        for (int i = 0; i < lines.length && fits; i++) {
+            fits = visibleWidth(lines[i]) <= columns;
+        }
+
+        // the cursor was in the row after the frame, plus what was written and typed since
+        boolean whole = frame == null || frame.length + 1 + rowsBelowFrame > rows || !fits;
+        if (whole && clearWithCls) {
+            runCls();
+        }
+
+        StringBuilder update = new StringBuilder(text.length() + 16 * lines.length);
+        if (whole) {
+            if (!clearWithCls) {
+                update.append(CLEAR);
+            }
+            for (String line : lines) {
+                update.append(line).append('\n');
+            }
+        } else {
+            for (int i = 0; i < lines.length; i++) {
+                if (i >= frame.length || !lines[i].equals(frame[i])) {
+                    // cleared first, erasing after a full row would remove its last character
+                    update.append(CSI).append(i + 1).append(";1H").append(CSI).append("2K").append(lines[i]);
+                }
+            }
+            update.append(CSI).append(lines.length + 1).append(";1H").append(CSI).append('J');
+        }
+        terminal.print(update);
+        terminal.flush();
+
+        frame = fits ? lines : null;
+        rowsBelowFrame = 0;
+        column = 0;
+        escapeState = 0;
+        pendingBytes = 0;
+    }
+
+    /**
+     * Clears the whole screen, the next frame is drawn whole.
+     */
+    public synchronized void clear() {
+        if (clearWithCls) {
+            runCls();
+        } else {
+            terminal.print(CLEAR);
+            terminal.flush();
+        }
+        frame = null;
+    }
+
+    private void runCls() {
+        try {
+            new ProcessBuilder("cmd", "/c", "cls").inheritIO().start().waitFor();
+        } catch (IOException | InterruptedException e) {
+            logger.error("Error while clearing the screen: ", e);
+        }
+    }
+
+    /**
+     * @return the number of columns the line takes up, without its escape sequences
+     */
+    static int visibleWidth(String line) {
+        int width = 0;
+        boolean inSequence = false;
+        for (int i = 0; i < line.length(); ) {
+            int c = line.codePointAt(i);
+            i += Character.charCount(c);
+            if (inSequence) {
+                inSequence = c < 0x40 || c > 0x7E || c == '[';
+            } else if (c == '\033') {
+                inSequence = true;
+            } else {
+                width += columnWidth(c);
+            }
+        }
+        return width;
+    }
+
+    /**
+     * @return 2 for the East Asian wide and fullwidth characters, emoji and everything outside the BMP, otherwise 1
+     */
+    static int columnWidth(int codePoint) {
+        boolean wide = codePoint >= 0x10000
+                || codePoint >= 0x1100 && codePoint <= 0x115F
+                || codePoint >= 0x231A && codePoint <= 0x231B
+                || codePoint >= 0x23E9 && codePoint <= 0x23EC
+                || codePoint >= 0x25FD && codePoint <= 0x25FE
+                || codePoint >= 0x2614 && codePoint <= 0x2615
+                || codePoint >= 0x26AA && codePoint <= 0x26AB
+                || codePoint >= 0x26BD && codePoint <= 0x26BE
+                || codePoint >= 0x26F2 && codePoint <= 0x26F5
+                || codePoint == 0x2705 || codePoint == 0x2728 || codePoint == 0x274C
+                || codePoint >= 0x2753 && codePoint <= 0x2755
+                || codePoint == 0x2757 || codePoint == 0x2B50 || codePoint == 0x2B55
+                || codePoint >= 0x2E80 && codePoint <= 0x303E
+                || codePoint >= 0x3041 && codePoint <= 0x33FF
+                || codePoint >= 0x3400 && codePoint <= 0x4DBF
+                || codePoint >= 0x4E00 && codePoint <= 0x9FFF
+                || codePoint >= 0xA000 && codePoint <= 0xA4CF
+                || codePoint >= 0xAC00 && codePoint <= 0xD7A3
+                || codePoint >= 0xF900 && codePoint <= 0xFAFF
+                || codePoint >= 0xFE30 && codePoint <= 0xFE4F
+                || codePoint >= 0xFF00 && codePoint <= 0xFF60
+                || codePoint >= 0xFFE0 && codePoint <= 0xFFE6;
+        return wide ? 2 : 1;
+    }
+
+    /**
+     * Moves the tracked cursor by one byte written to or echoed by the terminal.
+     */
+    private synchronized void track(int b) {
+        b &= 0xFF;
+        if (escapeState == 1) {
+            escapeState = b == '[' ? 2 : 0;
+        } else if (escapeState == 2) {
+            escapeState = b >= 0x40 && b <= 0x7E ? 0 : 2;
+        } else if (b == '\033') {
+            escapeState = 1;
+        } else if (b == '\n') {
+            rowsBelowFrame++;
+            column = 0;
+        } else if (b == '\r') {
+            column = 0;
+        } else if ((b & 0xC0) == 0x80) {
+            // a continuation byte, the character is placed once it is complete
+            if (pendingBytes > 0) {
+                pendingCodePoint = pendingCodePoint << 6 | b & 0x3F;
+                if (--pendingBytes == 0) {
+                    place(pendingCodePoint);
+                }
+            }
+        } else if (b >= 0xF0) {
+            pendingCodePoint = b & 0x07;
+            pendingBytes = 3;
+        } else if (b >= 0xE0) {
+            pendingCodePoint = b & 0x0F;
+            pendingBytes = 2;
+        } else if (b >= 0xC0) {
+            pendingCodePoint = b & 0x1F;
+            pendingBytes = 1;
+        } else {
+            place(b);
+        }
+    }
+
+    /**
+     * Moves the tracked cursor past a character, the terminal wraps when it does not fit into the row anymore.
+     */
+    private void place(int codePoint) {
+        int width = columnWidth(codePoint);
+        if (column + width > columns) {
+            rowsBelowFrame++;
+            column = 0;
+        }
+        column += width;
+    }
+
+    private final class TrackingOutputStream extends FilterOutputStream {
+        TrackingOutputStream(OutputStream terminal) {
+            super(terminal);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            track(b);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            for (int i = offset; i < offset + length; i++) {
+                track(bytes[i]);
+            }
+            out.write(bytes, offset, length);
+        }
+    }
+
+    private final class TrackingInputStream extends FilterInputStream {
+        TrackingInputStream(InputStream input) {
+            super(input);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                track(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int count = in.read(bytes, offset, length);
+            for (int i = offset; i < offset + count; i++) {
+                track(bytes[i]);
+            }
+            return count;
+        }
+    }
+}
@@ -1,17 +1,38 @@
 package View;
 
 import Model.Entities.Appointment;
+import Model.Entities.AppointmentMatch;
+import Model.Entities.DaySummary;
+import Model.Entities.FreeSlot;
 import Model.Entities.Tag;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.Year;
 import java.util.List;
 import java.util.Optional;
 
 public interface UserInterface {
     @SuppressWarnings("unused")
-    String getCalendar(LocalDate date, List<Appointment> appointmentList, int monthAmount);
+    String getCalendar(LocalDate date, List<DaySummary> daySummaries, int monthAmount);
 
-    String getCalendarWithUpcomingAppointments(LocalDate date, List<Appointment> appointmentList, int monthAmount);
+    /**
+     * @param upcomingAppointments the appointments listed next to the calendar, ordered by start
+     */
+    String getCalendarWithUpcomingAppointments(LocalDate date, List<DaySummary> daySummaries,
+                                               List<Appointment> upcomingAppointments, int monthAmount);
+
+    /**
+     * Shows the frame at the top of the screen in place of the previous one, only its changed rows are written.
+     */
+    void displayFrame(String frame);
+
+    /**
+     * @param daySummaries the summaries of the year, ordered by day
+     */
+    String getYearCalendar(Year year, List<DaySummary> daySummaries);
+
+    void displayYearCalendar(Year year, List<DaySummary> daySummaries);
 
     void startAppointmentCreation();
 
@@ -27,6 +48,11 @@ public interface UserInterface {
 
     String getDescription();
 
+    /**
+     * @return how the appointment repeats as entered, empty for a single appointment
+     */
+    String getRecurrence();
+
     Optional<Tag> getTag(List<Tag> allTags, List<Tag> appliedTags);
 
     void startTagCreation();
@@ -67,5 +93,19 @@ public interface UserInterface {
 
     void displayAppointments(List<Appointment> appointments);
 
+    /**
+     * @return whether the user asked for the next page, always false if there is none
+     */
+    boolean displayAppointmentPage(List<Appointment> appointments, boolean hasNextPage);
+
+    void displaySearchResults(List<AppointmentMatch> matches);
+
+    /**
+     * Warns that an appointment being added or edited overlaps these appointments, without waiting for the user.
+     */
+    void displayOverlapWarning(List<Appointment> overlapping);
+
+    void displayFreeSlots(List<FreeSlot> slots, Duration length);
+
     boolean confirmAction(String s);
 }
@@ -0,0 +1,185 @@
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.*;
+
+import Model.Database.CachingDataManager;
+import Model.Database.DataManagerException;
+import Model.Database.JooqDataManager;
+import Model.Entities.Appointment;
+import Model.Entities.DaySummary;
+import Model.Entities.Recurrence;
+import Model.Entities.Tag;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CachingDataManagerTests {
+
+    private static final LocalDateTime JANUARY_START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime JANUARY_END = LocalDateTime.of(2025, 1, 31, 23, 59, 59);
+
+    private CachingDataManager dm;
+
+    @BeforeEach
+    void setupDatabase() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:src/test/resources/javenderDataBase.db");
+             Statement statement = connection.createStatement()) {
+
+            String setupSql = Files.readString(Paths.get("src/test/resources/AddTestAppointments.sql"));
+            statement.executeUpdate(setupSql);
+        }
+
+        dm = new CachingDataManager(new JooqDataManager("src/test/resources/javenderDataBase.db"), 2);
+    }
+
+    @AfterEach
+    void cleanupDatabase() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:src/test/resources/javenderDataBase.db");
+             Statement statement = connection.createStatement()) {
+
+            String setupSql = Files.readString(Paths.get("src/test/resources/AddTestAppointments.sql"));
+            statement.executeUpdate(setupSql);
+        }
+        dm.close();
+    }
+
+    @Test
+    void testRepeatedRangeQueryIsServedFromCache() throws DataManagerException {
+        List<Appointment> first = dm.getAppointmentsByRange(JANUARY_START, JANUARY_END);
+        assertEquals(0, dm.getHitCount());
+        assertEquals(1, dm.getMissCount());
+
+        List<Appointment> second = dm.getAppointmentsByRange(JANUARY_START, JANUARY_END);
+        assertEquals(1, dm.getHitCount());
+        assertEquals(1, dm.getMissCount());
+        assertEquals(first, second);
+
+        List<Appointment> firstDay = dm.getAppointmentsByRange(JANUARY_START, JANUARY_START.plusHours(23));
+        assertThat(firstDay).extracting(Appointment::getAppointmentId).containsExactly(1, 2);
+        assertEquals(2, dm.getHitCount());
+    }
+
+    @Test
+    void testAddingAppointmentInvalidatesOnlyItsMonth() throws DataManagerException {
+        dm.getAppointmentsByRange(JANUARY_START, JANUARY_END);
+        dm.getAppointmentsByRange(JANUARY_START.plusMonths(5), JANUARY_END.plusMonths(5));
+        assertEquals(2, dm.getMissCount());
+
+        int insertedId = dm.addAppointment(new Appointment(
+                LocalDateTime.parse("2025-01-20T10:00:00"),
+                LocalDateTime.parse("2025-01-20T11:00:00"),
+                "Cached",
+                "Must show up after invalidation",
+                List.of()));
+
+        assertThat(dm.getAppointmentsByRange(JANUARY_START, JANUARY_END))
+                .extracting(Appointment::getAppointmentId)
+                .containsExactly(1, 2, 3, insertedId);
+        assertEquals(3, dm.getMissCount(), "January has to be reloaded");
+
+        dm.getAppointmentsByRange(JANUARY_START.plusMonths(5), JANUARY_END.plusMonths(5));
+        assertEquals(1, dm.getHitCount(), "June was not affected by the insert");
+    }
+
+    @Test
+    void testUpdatingTagInvalidatesMonthsUsingIt() throws DataManagerException {
+        dm.getAppointmentsByRange(JANUARY_START, JANUARY_END);
+
+        dm.updateTag(new Tag(2, "Work", "green"));
+
+        List<Appointment> appointments = dm.getAppointmentsByRange(JANUARY_START, JANUARY_END);
+        assertEquals("green", appointments.get(1).getTags().getFirst().getColor());
+        assertEquals("green", dm.getTagById(2).orElseThrow().getColor());
+    }
+
+    @Test
+    void testUnitOfWorkClearsTheCache() throws DataManagerException {
+        dm.getAppointmentsByRange(JANUARY_START, JANUARY_END);
+        dm.getAllTags();
+
+        dm.inTransaction(transaction -> {
+            Appointment appointment = transaction.getAppointmentById(1).orElseThrow();
+            appointment.setTitle("Changed in unit of work");
+            transaction.updateAppointment(appointment);
+            transaction.updateTag(new Tag(2, "Job", "blue"));
+            return null;
+        });
+
+        List<Appointment> appointments = dm.getAppointmentsByRange(JANUARY_START, JANUARY_END);
+        assertEquals("Changed in unit of work", appointments.getFirst().getTitle());
+        assertEquals(3, dm.getMissCount(), "January has to be reloaded after January and the tags were loaded once");
+        assertEquals("Job", dm.getTagById(2).orElseThrow().getName());
+    }
+
+    @Test
+    void testRemovingAppointmentInvalidatesItsMonth() throws DataManagerException {
+        Appointment appointment = dm.getAppointmentsByRange(JANUARY_START, JANUARY_END).getFirst();
+
+        dm.removeAppointment(appointment);
+
+        assertThat(dm.getAppointmentsByRange(JANUARY_START, JANUARY_END))
+                .extracting(Appointment::getAppointmentId)
+                .containsExactly(2, 3);
+    }
+
+    @Test
+    void testAddingSeriesInvalidatesLaterMonthsAndKeepsEveryOccurrence() throws DataManagerException {
+        LocalDateTime februaryStart = JANUARY_START.plusMonths(1);
+        LocalDateTime februaryEnd = LocalDateTime.of(2025, 2, 28, 23, 59, 59);
+        assertThat(dm.getAppointmentsByRange(februaryStart, februaryEnd)).isEmpty();
+
+        Appointment series = new Appointment(LocalDateTime.of(2025, 1, 20, 18, 0), LocalDateTime.of(2025, 1, 20, 19, 0),
+                "Choir", null, new ArrayList<>());
+        series.setRecurrence(Recurrence.of(Recurrence.Frequency.WEEKLY, 2));
+        int seriesId = dm.addAppointment(series);
+
+        List<Appointment> february = dm.getAppointmentsByRange(februaryStart, februaryEnd);
+        assertThat(february).extracting(Appointment::getAppointmentId).containsOnly(seriesId);
+        assertThat(february).extracting(Appointment::getStartDate)
+                .containsExactly(LocalDateTime.of(2025, 2, 3, 18, 0), LocalDateTime.of(2025, 2, 17, 18, 0));
+    }
+
+    @Test
+    void testLeastRecentlyUsedMonthIsEvicted() throws DataManagerException {
+        dm.getAppointmentsByRange(JANUARY_START, JANUARY_END);
+        dm.getAppointmentsByRange(JANUARY_START.plusMonths(1), JANUARY_START.plusMonths(1).plusDays(1));
+        dm.getAppointmentsByRange(JANUARY_START, JANUARY_END);
+        dm.getAppointmentsByRange(JANUARY_START.plusMonths(2), JANUARY_START.plusMonths(2).plusDays(1));
+        assertEquals(1, dm.getHitCount());
+        assertEquals(3, dm.getMissCount());
+
+        dm.getAppointmentsByRange(JANUARY_START, JANUARY_END);
+        assertEquals(2, dm.getHitCount(), "January was used more recently than February");
+
+        dm.getAppointmentsByRange(JANUARY_START.plusMonths(1), JANUARY_START.plusMonths(1).plusDays(1));
+        assertEquals(4, dm.getMissCount(), "February should have been evicted");
+    }
+
+    @Test
+    void testDaySummariesAreCachedUntilTheDataChanges() throws DataManagerException {
+        LocalDate firstDay = JANUARY_START.toLocalDate();
+        List<DaySummary> first = dm.getDaySummaries(firstDay, firstDay.plusMonths(1).minusDays(1));
+        assertEquals(1, dm.getMissCount());
+        assertEquals(first, dm.getDaySummaries(firstDay, firstDay.plusMonths(1).minusDays(1)));
+        assertEquals(1, dm.getHitCount());
+
+        // a part of a cached month is answered from it
+        assertThat(dm.getDaySummaries(firstDay, firstDay)).extracting(DaySummary::appointmentCount).containsExactly(2);
+        assertEquals(2, dm.getHitCount());
+
+        dm.addAppointment(new Appointment(JANUARY_START.plusDays(9).plusHours(8), JANUARY_START.plusDays(9).plusHours(9),
+                "Summarized", "", List.of()));
+        assertThat(dm.getDaySummaries(firstDay, firstDay.plusMonths(1).minusDays(1)))
+                .extracting(DaySummary::day)
+                .contains(firstDay.plusDays(9));
+        assertEquals(2, dm.getMissCount());
+    }
+}
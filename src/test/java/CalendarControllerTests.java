@@ -2,7 +2,11 @@ import Model.Database.DataManager;
 import Model.Database.DataManagerException;
 import Model.Database.JooqDataManager;
 import Controller.CalendarController;
+import Controller.FramePrefetcher;
+import Model.Entities.Appointment;
+import Model.Entities.Recurrence;
 import Model.Entities.Tag;
+import Model.Entities.WorkingHours;
 import View.ColorManager;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,7 +21,17 @@ import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.Statement;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -174,6 +188,27 @@ public class CalendarControllerTests {
         assertEquals("red", finalTag.getColor());
     }
 
+    @Test
+    void testParseRecurrence() {
+        CalendarController cc = new CalendarController(dm);
+        assertEquals(Recurrence.of(Recurrence.Frequency.WEEKLY, 1), cc.parseRecurrence("weekly"));
+        assertEquals(Recurrence.of(Recurrence.Frequency.DAILY, 2).withCount(10), cc.parseRecurrence(" Daily  2 10"));
+        assertEquals(Recurrence.of(Recurrence.Frequency.MONTHLY, 1).withUntil(LocalDateTime.of(2025, 12, 31, 23, 59, 59)),
+                cc.parseRecurrence("monthly 1 2025-12-31"));
+        assertThrows(IllegalArgumentException.class, () -> cc.parseRecurrence("hourly"));
+        assertThrows(IllegalArgumentException.class, () -> cc.parseRecurrence("weekly 0"));
+        assertThrows(IllegalArgumentException.class, () -> cc.parseRecurrence("weekly 1 10 more"));
+    }
+
+    @Test
+    void testParseWorkingHours() {
+        CalendarController cc = new CalendarController(dm);
+        assertEquals(WorkingHours.ALWAYS, cc.parseWorkingHours("any"));
+        assertEquals(WorkingHours.weekdays(LocalTime.of(8, 30), LocalTime.MIDNIGHT), cc.parseWorkingHours("08:30-00:00"));
+        assertThrows(IllegalArgumentException.class, () -> cc.parseWorkingHours("17:00-09:00"));
+        assertThrows(DateTimeParseException.class, () -> cc.parseWorkingHours("9-17"));
+    }
+
     @Test
     void testSplitUserCommandIntoArgs(){
         CalendarController cc = new CalendarController(dm);
@@ -182,4 +217,57 @@ public class CalendarControllerTests {
         assertEquals(args[0], "upcoming");
         assertEquals(args[1], "5");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testMonthsFrameIsReusedUntilTheDataChanges() throws DataManagerException {
+        CalendarController cc = new CalendarController(dm);
+        LocalDate today = LocalDate.now();
+
+        String frame = cc.getMonthsFrame(today, 2);
+        assertSame(frame, cc.getMonthsFrame(today, 2), "Showing the same months again should reuse the frame");
+        assertNotSame(frame, cc.getMonthsFrame(today.plusMonths(1), 2));
+
+        LocalDateTime start = LocalDateTime.now().plusMinutes(5);
+        dm.addAppointment(new Appointment(start, start.plusMinutes(1), "Frame test", "", List.of()));
+        String changed = cc.getMonthsFrame(today, 2);
+        assertNotSame(frame, changed);
+        assertTrue(changed.contains("Frame test"), "The frame should be rendered again after a write");
+    }
+
+    @Test
+    void testPrefetcherLoadsTheAdjacentMonths() {
+        Queue<YearMonth> loaded = new ConcurrentLinkedQueue<>();
+        try (FramePrefetcher prefetcher = new FramePrefetcher((date, monthAmount) -> loaded.add(YearMonth.from(date)))) {
+            prefetcher.prefetchAround(LocalDate.parse("2030-03-15"), 2);
+            // waits for April, which is shown next
+            prefetcher.beforeShowing(LocalDate.parse("2030-04-01"), 2);
+            assertTrue(loaded.contains(YearMonth.of(2030, 4)));
+
+            prefetcher.prefetchAround(LocalDate.parse("2030-04-01"), 2);
+            prefetcher.beforeShowing(LocalDate.parse("2030-03-01"), 2);
+            assertTrue(loaded.contains(YearMonth.of(2030, 3)));
+        }
+        assertTrue(Set.of(YearMonth.of(2030, 2), YearMonth.of(2030, 3), YearMonth.of(2030, 4), YearMonth.of(2030, 5))
+                .containsAll(loaded), "Only months next to a shown one should be loaded");
+    }
+
+    @Test
+    void testPrefetchIsCancelledWhenNavigatingElsewhere() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch cancelled = new CountDownLatch(2);
+        try (FramePrefetcher prefetcher = new FramePrefetcher((date, monthAmount) -> {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                cancelled.countDown();
+            }
+        })) {
+            prefetcher.prefetchAround(LocalDate.parse("2030-03-15"), 2);
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            prefetcher.beforeShowing(LocalDate.parse("2030-08-01"), 2);
+            assertTrue(cancelled.await(10, TimeUnit.SECONDS), "February and April are not next to August");
+        }
+    }
+}
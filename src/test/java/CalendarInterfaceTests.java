@@ -1,11 +1,24 @@
 import Model.Database.DataManager;
 import Model.Database.JooqDataManager;
+import Model.Entities.DaySummary;
+import View.CalendarInterface;
+import View.ColorManager;
+import View.MonthRenderer;
+import View.TerminalScreen;
 import org.junit.jupiter.api.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Scanner;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class CalendarInterfaceTests {
@@ -68,4 +81,102 @@ public class CalendarInterfaceTests {
             throw new RuntimeException(e.getMessage());
         }
     }
+
+    @Test
+    void testRenderMonth() {
+        MonthRenderer monthRenderer = new MonthRenderer();
+        YearMonth march = YearMonth.of(2025, 3);
+        LocalDate notInMarch = LocalDate.parse("2025-04-15");
+
+        StringBuilder plain = new StringBuilder();
+        monthRenderer.appendMonth(plain, march, List.of(), notInMarch);
+        assertEquals(getMonth(march.atDay(1)), plain.toString());
+
+        // summaries of other months are skipped, a day without tag color is white
+        List<DaySummary> summaries = List.of(
+                new DaySummary(LocalDate.parse("2025-02-28"), 1, LocalDate.parse("2025-02-28").atTime(9, 0), 1, "red"),
+                new DaySummary(LocalDate.parse("2025-03-03"), 2, LocalDate.parse("2025-03-03").atTime(9, 0), 2, "blue"),
+                new DaySummary(LocalDate.parse("2025-03-12"), 1, LocalDate.parse("2025-03-12").atTime(9, 0), 3, null),
+                new DaySummary(LocalDate.parse("2025-04-01"), 1, LocalDate.parse("2025-04-01").atTime(9, 0), 4, "red"));
+        StringBuilder colored = new StringBuilder();
+        monthRenderer.appendMonth(colored, march, summaries, LocalDate.parse("2025-03-12"));
+        String month = colored.toString();
+
+        assertTrue(month.startsWith("                1  2 \n " + ColorManager.getColoredText("blue", "3") + "  4 "));
+        assertTrue(month.contains("11 " + ColorManager.getColoredText("bg_white", "12") + " 13 "));
+        assertFalse(month.contains(ColorManager.getColoredText("red", "28")));
+        assertEquals(plain.toString().split("\n").length, month.split("\n").length);
+    }
+
+    @Test
+    void testRedrawOnlyChangedRows() {
+        ByteArrayOutputStream terminal = new ByteArrayOutputStream();
+        TerminalScreen screen = new TerminalScreen(new PrintStream(terminal, true, StandardCharsets.UTF_8),
+                new ByteArrayInputStream("help\n".getBytes(StandardCharsets.UTF_8)), 10, 20);
+
+        screen.draw("first\n" + ColorManager.getColoredText("red", "second") + "\nthird");
+        assertTrue(terminal.toString(StandardCharsets.UTF_8).startsWith("\033[H\033[2J"), "The first frame should be drawn whole");
+
+        screen.out().println("Enter a command");
+        new Scanner(screen.in()).nextLine();
+        terminal.reset();
+        screen.draw("first\n" + ColorManager.getColoredText("red", "second") + "\nchanged");
+        assertEquals("\033[3;1H\033[2Kchanged\033[4;1H\033[J", terminal.toString(StandardCharsets.UTF_8));
+
+        // a line wrapping twice and the rows below the frame would scroll the screen
+        screen.out().println("x".repeat(41));
+        screen.out().println("more");
+        screen.out().println("output");
+        screen.out().println("than\nfits");
+        terminal.reset();
+        screen.draw("first");
+        assertTrue(terminal.toString(StandardCharsets.UTF_8).startsWith("\033[H\033[2J"), "The screen may have scrolled");
+
+        terminal.reset();
+        screen.clear();
+        screen.draw("first");
+        assertTrue(terminal.toString(StandardCharsets.UTF_8).endsWith("\033[H\033[2Jfirst\n"), "A cleared screen should be drawn whole");
+    }
+
+    @Test
+    void testWideCharactersTakeTwoColumns() {
+        ByteArrayOutputStream terminal = new ByteArrayOutputStream();
+        TerminalScreen screen = new TerminalScreen(new PrintStream(terminal, true, StandardCharsets.UTF_8),
+                new ByteArrayInputStream(new byte[0]), 3, 10);
+
+        // six characters, but twelve columns that wrap in a terminal ten columns wide
+        screen.draw("会議会議会議");
+        terminal.reset();
+        screen.draw("会議会議会議");
+        assertTrue(terminal.toString(StandardCharsets.UTF_8).startsWith("\033[H\033[2J"), "A wrapping row should be drawn whole");
+
+        screen.draw("📅 Plan");
+        terminal.reset();
+        screen.draw("📅 Plan");
+        assertEquals("\033[2;1H\033[J", terminal.toString(StandardCharsets.UTF_8), "An emoji row that fits is kept");
+
+        // the title wraps into a second row, with the frame that is more than the screen holds
+        screen.out().println("会議会議会議");
+        terminal.reset();
+        screen.draw("📅 Plan");
+        assertTrue(terminal.toString(StandardCharsets.UTF_8).startsWith("\033[H\033[2J"), "The screen may have scrolled");
+    }
+
+    @Test
+    void testYearCalendar() {
+        LocalDate day = LocalDate.parse("2025-05-20");
+        String year = new CalendarInterface().getYearCalendar(Year.of(2025),
+                List.of(new DaySummary(day, 1, day.atTime(9, 0), 1, "green")));
+        String[] lines = year.split("\n");
+
+        assertEquals(1 + 4 * (1 + 8), lines.length, "The year header and four rows of months");
+        for (int i = 2; i < lines.length; i++) {
+            if (!lines[i].isEmpty()) {
+                assertEquals(3 * 21 + 2 * 3, lines[i].replaceAll("\033\\[[0-9;]*m", "").length(), "Line " + i + " should be aligned");
+            }
+        }
+        assertTrue(lines[11].contains("APRIL") && lines[11].indexOf("APRIL") < lines[11].indexOf("MAY")
+                && lines[11].indexOf("MAY") < lines[11].indexOf("JUNE"));
+        assertTrue(year.contains(ColorManager.getColoredText("green", "20")));
+    }
 }
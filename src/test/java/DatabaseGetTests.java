@@ -1,29 +1,55 @@
 import static org.junit.jupiter.api.Assertions.*;
 import static org.assertj.core.api.Assertions.*;
 
+import Model.Database.AppointmentPage;
 import Model.Database.DataManager;
 import Model.Database.JooqDataManager;
 import Model.Database.DataManagerException;
 import Model.Entities.Appointment;
+import Model.Entities.AppointmentMatch;
+import Model.Entities.DaySummary;
+import Model.Entities.FreeSlot;
+import Model.Entities.Recurrence;
 import Model.Entities.Tag;
+import Model.Entities.WorkingHours;
 
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
 import org.junit.jupiter.api.*;
 
+import java.io.Serial;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.Statement;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class DatabaseGetTests {
 
     private DataManager dm;
 
+    private static class StatementCounter implements ExecuteListener {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private int count;
+
+        @Override
+        public void executeStart(ExecuteContext ctx) {
+            count++;
+        }
+    }
+
     @BeforeEach
     void setupDatabase() throws Exception {
         try (Connection connection = DriverManager.getConnection("jdbc:sqlite:src/test/resources/javenderDataBase.db");
@@ -152,6 +178,26 @@ public class DatabaseGetTests {
         assertThat(actualAppointments).isEmpty();
     }
 
+    @Test
+    void testGetAppointmentsByRangeIncludesAppointmentsStartedBeforeRange() throws DataManagerException {
+        Appointment longRunningAppointment = new Appointment(
+                LocalDateTime.parse("2024-12-30T08:00:00"),
+                LocalDateTime.parse("2025-01-05T18:00:00"),
+                "Conference",
+                "Runs across the whole range",
+                List.of()
+        );
+        int insertedId = dm.addAppointment(longRunningAppointment);
+
+        List<Appointment> actualAppointments = dm.getAppointmentsByRange(
+                LocalDateTime.of(2025, 1, 2, 0, 0),
+                LocalDateTime.of(2025, 1, 3, 0, 0));
+
+        assertThat(actualAppointments)
+                .extracting(Appointment::getAppointmentId)
+                .containsExactly(insertedId, 3);
+    }
+
     @Test
     void testGetTagById() throws DataManagerException {
         int tagId = 1;
@@ -193,6 +239,71 @@ public class DatabaseGetTests {
         assertThat(updatedAppointment).isEqualTo(dm.getAppointmentById(1).orElseThrow());
     }
 
+    @Test
+    void testUpdateAppointmentWritesOnlyChanges() throws DataManagerException {
+        StatementCounter counter = new StatementCounter();
+        JooqDataManager countingDm = new JooqDataManager("src/test/resources/javenderDataBase.db", counter);
+
+        try {
+            Appointment appointment = countingDm.getAppointmentById(1).orElseThrow();
+            appointment.setTitle(appointment.getTitle());
+            assertThat(appointment.getChangedFields()).isEmpty();
+
+            counter.count = 0;
+            countingDm.updateAppointment(appointment);
+            assertEquals(0, counter.count, "An unchanged appointment should not be written");
+
+            appointment.setTitle("Renamed");
+            countingDm.updateAppointment(appointment);
+            assertEquals(1, counter.count, "A title change should only need the appointment update");
+            assertThat(appointment.getChangedFields()).isEmpty();
+
+            // changed through the list instead of the setter
+            appointment.getTags().add(new Tag(2, "Work", "blue"));
+            assertThat(appointment.getChangedFields()).containsExactly(Appointment.Field.TAGS);
+            countingDm.updateAppointment(appointment);
+
+            Appointment stored = countingDm.getAppointmentById(1).orElseThrow();
+            assertEquals("Renamed", stored.getTitle());
+            assertThat(stored.getTags()).containsExactly(new Tag(1, "Personal", "red"), new Tag(2, "Work", "blue"));
+
+            stored.setTags(new ArrayList<>(List.of(new Tag(2, "Work", "blue"))));
+            countingDm.updateAppointment(stored);
+            assertThat(countingDm.getTagsByAppointmentId(1)).containsExactly(new Tag(2, "Work", "blue"));
+        } finally {
+            countingDm.close();
+        }
+    }
+
+    @Test
+    void testChangeAfterAsyncUpdateStaysChanged() throws Exception {
+        Appointment appointment = dm.getAppointmentById(1).orElseThrow();
+        appointment.setTitle("Submitted");
+        var update = dm.updateAppointmentAsync(appointment, false);
+        appointment.setTitle("Changed after submitting");
+        update.get();
+
+        assertEquals("Submitted", dm.getAppointmentById(1).orElseThrow().getTitle());
+        assertThat(appointment.getChangedFields()).containsExactly(Appointment.Field.TITLE);
+        dm.updateAppointment(appointment);
+        assertEquals("Changed after submitting", dm.getAppointmentById(1).orElseThrow().getTitle());
+        assertThat(appointment.getChangedFields()).isEmpty();
+    }
+
+    @Test
+    void testUpdateRolledBackWithItsUnitOfWorkStaysChanged() throws DataManagerException {
+        Appointment appointment = dm.getAppointmentById(1).orElseThrow();
+        appointment.setTitle("Rolled back");
+        assertThrows(DataManagerException.class, () -> dm.inTransaction(transaction -> {
+            transaction.updateAppointment(appointment);
+            throw new IllegalStateException("Abort the unit of work");
+        }));
+
+        assertThat(appointment.getChangedFields()).containsExactly(Appointment.Field.TITLE);
+        dm.updateAppointment(appointment);
+        assertEquals("Rolled back", dm.getAppointmentById(1).orElseThrow().getTitle());
+    }
+
     @Test
     void testUpdateAppointmentThatDoesNotExist() {
         var nonExistentAppointment = new Appointment(
@@ -330,4 +441,471 @@ public class DatabaseGetTests {
         );
         assertEquals(actualAppointments2, expectedAppointments2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTagNamesIgnoreCase() throws DataManagerException {
+        assertEquals(Optional.of(new Tag(2, "Work", "blue")), dm.getTagByName("WORK"));
+        assertThrows(DataManagerException.class, () -> dm.addTag(new Tag("personal", "green")));
+        assertThat(dm.getUpcomingAppointmentsByTag(LocalDateTime.parse("2025-01-01T00:00:00"), 5, "unknown")).isEmpty();
+    }
+
+    @Test
+    void testTagFilterFollowsTagChanges() throws DataManagerException {
+        LocalDateTime date = LocalDateTime.parse("2025-01-01T00:00:00");
+        assertThat(dm.getUpcomingAppointmentsByTag(date, 5, "work")).hasSize(2);
+
+        dm.updateTag(new Tag(2, "Office", "blue"));
+        assertThat(dm.getUpcomingAppointmentsByTag(date, 5, "work")).isEmpty();
+        assertThat(dm.getUpcomingAppointmentsByTag(date, 5, "office"))
+                .extracting(Appointment::getAppointmentId)
+                .containsExactly(2, 3);
+
+        int travelId = dm.addTag(new Tag("Travel", "cyan"));
+        Appointment doctor = dm.getAppointmentById(1).orElseThrow();
+        doctor.setTags(new ArrayList<>(List.of(new Tag(travelId, "Travel", "cyan"))));
+        dm.updateAppointment(doctor);
+        assertThat(dm.getUpcomingAppointmentsByTag(date, 5, "travel"))
+                .extracting(Appointment::getAppointmentId)
+                .containsExactly(1);
+
+        dm.inTransaction(transaction -> {
+            transaction.removeTag(transaction.getTagByName("TRAVEL").orElseThrow());
+            return null;
+        });
+        assertThat(dm.getUpcomingAppointmentsByTag(date, 5, "travel")).isEmpty();
+    }
+
+    @Test
+    void testUpcomingAppointmentsPages() throws DataManagerException {
+        LocalDateTime date = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        AppointmentPage first = dm.getUpcomingAppointmentsPage(date, 2, null);
+        assertThat(first.appointments()).extracting(Appointment::getAppointmentId).containsExactly(1, 2);
+        assertThat(first.appointments().get(1).getTags()).containsExactly(new Tag(2, "Work", "blue"));
+        assertTrue(first.nextPageToken().isPresent(), "A full page should be followed by another one");
+
+        AppointmentPage second = dm.getUpcomingAppointmentsPage(date, 2, first.nextPageToken().get());
+        assertThat(second.appointments()).extracting(Appointment::getAppointmentId).containsExactly(3);
+        assertTrue(second.nextPageToken().isEmpty(), "The last page should not have a token");
+
+        AppointmentPage firstByTag = dm.getUpcomingAppointmentsByTagPage(date, 1, "WORK", null);
+        assertThat(firstByTag.appointments()).extracting(Appointment::getAppointmentId).containsExactly(2);
+        AppointmentPage secondByTag = dm.getUpcomingAppointmentsByTagPage(date, 1, "WORK", firstByTag.nextPageToken().orElseThrow());
+        assertThat(secondByTag.appointments()).extracting(Appointment::getAppointmentId).containsExactly(3);
+        assertTrue(secondByTag.nextPageToken().isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> dm.getUpcomingAppointmentsPage(date, 2, "not a token"));
+        assertThrows(IllegalArgumentException.class, () -> dm.getUpcomingAppointmentsPage(date, 0, null));
+    }
+
+    @Test
+    void testSearchAppointmentsMatchesPrefixesAndRanksTitlesFirst() throws DataManagerException {
+        List<AppointmentMatch> matches = dm.searchAppointments("pres", 10);
+        assertThat(matches).extracting(match -> match.appointment().getAppointmentId()).containsExactly(3);
+        assertThat(matches.getFirst().appointment().getTags()).containsExactly(new Tag(2, "Work", "blue"));
+        assertThat(matches.getFirst().snippet())
+                .contains(AppointmentMatch.HIGHLIGHT_START + "Presentation" + AppointmentMatch.HIGHLIGHT_END);
+
+        Appointment doctor = dm.getAppointmentById(1).orElseThrow();
+        doctor.setDescription("Bring the presentation of the blood test");
+        dm.updateAppointment(doctor);
+
+        assertThat(dm.searchAppointments("presentation", 10))
+                .extracting(match -> match.appointment().getAppointmentId())
+                .containsExactly(3, 1);
+        assertThat(dm.searchAppointments("presentation", 1)).hasSize(1);
+    }
+
+    @Test
+    void testSearchIndexFollowsUpdatesAndDeletes() throws DataManagerException {
+        Appointment meeting = dm.getAppointmentById(2).orElseThrow();
+        meeting.setTitle("Retrospective");
+        dm.updateAppointment(meeting);
+
+        assertThat(dm.searchAppointments("team", 10)).isEmpty();
+        assertThat(dm.searchAppointments("retro", 10)).extracting(match -> match.appointment().getAppointmentId()).containsExactly(2);
+
+        dm.removeAppointmentById(2);
+        assertThat(dm.searchAppointments("retro", 10)).isEmpty();
+    }
+
+    @Test
+    void testSearchTreatsInputAsPlainWords() throws DataManagerException {
+        assertThat(dm.searchAppointments("   ", 10)).isEmpty();
+        assertThat(dm.searchAppointments("\"doctor", 10)).extracting(match -> match.appointment().getAppointmentId()).containsExactly(1);
+        assertThat(dm.searchAppointments("client -presentation OR", 10)).isEmpty();
+        assertThat(dm.searchAppointments("CLIENT pres*", 10)).extracting(match -> match.appointment().getAppointmentId()).containsExactly(3);
+    }
+
+    @Test
+    void testRecurringAppointmentExpandsInRange() throws DataManagerException {
+        Appointment series = new Appointment(LocalDateTime.of(2025, 3, 3, 10, 0), LocalDateTime.of(2025, 3, 3, 11, 0),
+                "Yoga", "Weekly class", new ArrayList<>());
+        series.setRecurrence(Recurrence.of(Recurrence.Frequency.WEEKLY, 1)
+                .withUntil(LocalDateTime.of(2025, 3, 31, 23, 59, 59))
+                .withException(LocalDateTime.of(2025, 3, 17, 10, 0)));
+        int seriesId = dm.addAppointment(series);
+
+        List<Appointment> march = dm.getAppointmentsByRange(LocalDateTime.of(2025, 3, 1, 0, 0), LocalDateTime.of(2025, 3, 31, 23, 59));
+        assertThat(march).extracting(Appointment::getAppointmentId).containsOnly(seriesId);
+        assertThat(march).extracting(Appointment::getStartDate).containsExactly(
+                LocalDateTime.of(2025, 3, 3, 10, 0),
+                LocalDateTime.of(2025, 3, 10, 10, 0),
+                LocalDateTime.of(2025, 3, 24, 10, 0),
+                LocalDateTime.of(2025, 3, 31, 10, 0));
+        assertThat(march).extracting(Appointment::getEndDate).contains(LocalDateTime.of(2025, 3, 24, 11, 0));
+        assertThat(dm.getAppointmentsByRange(LocalDateTime.of(2025, 4, 1, 0, 0), LocalDateTime.of(2025, 4, 30, 23, 59))).isEmpty();
+
+        Appointment stored = dm.getAppointmentById(seriesId).orElseThrow();
+        assertEquals(series.getRecurrence(), stored.getRecurrence());
+        assertEquals(LocalDateTime.of(2025, 3, 3, 10, 0), stored.getStartDate(), "The series itself keeps its first start");
+    }
+
+    @Test
+    void testOccurrenceCannotBeSaved() throws DataManagerException {
+        Appointment series = new Appointment(LocalDateTime.of(2025, 3, 3, 10, 0), LocalDateTime.of(2025, 3, 3, 11, 0),
+                "Yoga", "Weekly class", new ArrayList<>());
+        series.setRecurrence(Recurrence.of(Recurrence.Frequency.WEEKLY, 1).withCount(4));
+        int seriesId = dm.addAppointment(series);
+
+        Appointment occurrence = dm.getAppointmentsByRange(LocalDateTime.of(2025, 3, 10, 0, 0), LocalDateTime.of(2025, 3, 10, 23, 59)).getFirst();
+        assertTrue(occurrence.isOccurrence());
+        occurrence.setStartDate(LocalDateTime.of(2025, 3, 10, 12, 0));
+        occurrence.setEndDate(LocalDateTime.of(2025, 3, 10, 13, 0));
+        assertThrows(IllegalArgumentException.class, () -> dm.updateAppointment(occurrence));
+        assertThrows(IllegalArgumentException.class, () -> dm.updateAppointmentAsync(occurrence, false));
+
+        assertEquals(LocalDateTime.of(2025, 3, 3, 10, 0), dm.getAppointmentById(seriesId).orElseThrow().getStartDate(),
+                "The series should not move");
+    }
+
+    @Test
+    void testMonthlySeriesEndsAfterCountAndClampsToMonthEnd() throws DataManagerException {
+        Appointment rent = new Appointment(LocalDateTime.of(2025, 1, 31, 8, 0), LocalDateTime.of(2025, 1, 31, 8, 30),
+                "Rent", null, new ArrayList<>());
+        rent.setRecurrence(Recurrence.of(Recurrence.Frequency.MONTHLY, 1).withCount(3));
+        int rentId = dm.addAppointment(rent);
+
+        List<Appointment> spring = dm.getAppointmentsByRange(LocalDateTime.of(2025, 2, 1, 0, 0), LocalDateTime.of(2025, 5, 31, 23, 59));
+        assertThat(spring).extracting(Appointment::getStartDate)
+                .containsExactly(LocalDateTime.of(2025, 2, 28, 8, 0), LocalDateTime.of(2025, 3, 31, 8, 0));
+
+        Appointment stored = dm.getAppointmentById(rentId).orElseThrow();
+        stored.setRecurrence(stored.getRecurrence().withCount(0));
+        dm.updateAppointment(stored);
+        assertThat(dm.getAppointmentsByRange(LocalDateTime.of(2025, 5, 1, 0, 0), LocalDateTime.of(2025, 5, 31, 23, 59)))
+                .extracting(Appointment::getStartDate)
+                .containsExactly(LocalDateTime.of(2025, 5, 31, 8, 0));
+        assertThat(dm.getAppointmentsByRange(LocalDateTime.of(2031, 6, 1, 0, 0), LocalDateTime.of(2031, 6, 30, 23, 59)))
+                .extracting(Appointment::getStartDate)
+                .containsExactly(LocalDateTime.of(2031, 6, 30, 8, 0));
+    }
+
+    @Test
+    void testUpcomingAppointmentsMergeOccurrencesWithSingleAppointments() throws DataManagerException {
+        LocalDateTime date = LocalDateTime.of(2025, 1, 1, 0, 0);
+        Appointment standUp = new Appointment(LocalDateTime.of(2024, 12, 31, 10, 0), LocalDateTime.of(2024, 12, 31, 10, 15),
+                "Stand-up", null, new ArrayList<>(List.of(new Tag(2, "Work", "blue"))));
+        standUp.setRecurrence(Recurrence.of(Recurrence.Frequency.DAILY, 1).withCount(3));
+        int standUpId = dm.addAppointment(standUp);
+
+        assertThat(dm.getUpcomingAppointments(date, 4))
+                .extracting(Appointment::getAppointmentId)
+                .containsExactly(1, standUpId, 2, standUpId);
+
+        AppointmentPage first = dm.getUpcomingAppointmentsByTagPage(date, 2, "work", null);
+        assertThat(first.appointments()).extracting(Appointment::getStartDate)
+                .containsExactly(LocalDateTime.of(2025, 1, 1, 10, 0), LocalDateTime.of(2025, 1, 1, 11, 0));
+        AppointmentPage second = dm.getUpcomingAppointmentsByTagPage(date, 2, "work", first.nextPageToken().orElseThrow());
+        assertThat(second.appointments()).extracting(Appointment::getStartDate)
+                .containsExactly(LocalDateTime.of(2025, 1, 2, 10, 0), LocalDateTime.of(2025, 1, 2, 14, 0));
+        assertThat(second.appointments().getFirst().getTags()).containsExactly(new Tag(2, "Work", "blue"));
+        assertTrue(second.nextPageToken().isEmpty(), "The series ends with its third occurrence");
+    }
+
+    @Test
+    void testOverlappingAppointmentsFollowWrites() throws DataManagerException {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 9, 30);
+        LocalDateTime to = LocalDateTime.of(2025, 1, 1, 11, 30);
+        assertThat(dm.getOverlappingAppointments(from, to, null)).extracting(Appointment::getAppointmentId).containsExactly(1, 2);
+        assertThat(dm.getOverlappingAppointments(from, to, "WORK")).extracting(Appointment::getAppointmentId).containsExactly(2);
+        assertThat(dm.getOverlappingAppointments(from, to, "unknown")).isEmpty();
+        assertThat(dm.getOverlappingAppointments(LocalDateTime.of(2025, 1, 1, 10, 0), LocalDateTime.of(2025, 1, 1, 11, 0), null))
+                .as("Appointments only touching the range do not overlap it")
+                .isEmpty();
+
+        int addedId = dm.addAppointment(new Appointment(LocalDateTime.of(2025, 1, 1, 10, 30), LocalDateTime.of(2025, 1, 1, 10, 45),
+                "Call", null, new ArrayList<>()));
+        assertThat(dm.getOverlappingAppointments(from, to, null)).extracting(Appointment::getAppointmentId).containsExactly(1, addedId, 2);
+
+        Appointment doctor = dm.getAppointmentById(1).orElseThrow();
+        doctor.setStartDate(LocalDateTime.of(2025, 2, 1, 9, 0));
+        doctor.setEndDate(LocalDateTime.of(2025, 2, 1, 10, 0));
+        dm.updateAppointment(doctor);
+        dm.removeAppointmentById(2);
+        int asyncId = dm.addAppointmentAsync(new Appointment(LocalDateTime.of(2025, 1, 1, 11, 0), LocalDateTime.of(2025, 1, 1, 13, 0),
+                "Lunch", null, new ArrayList<>()), false).join();
+        assertThat(dm.getOverlappingAppointments(from, to, null)).extracting(Appointment::getAppointmentId).containsExactly(addedId, asyncId);
+
+        int transactionId = dm.inTransaction(transaction -> transaction.addAppointment(new Appointment(
+                LocalDateTime.of(2025, 1, 1, 9, 0), LocalDateTime.of(2025, 1, 1, 9, 45), "Coffee", null, new ArrayList<>())));
+        assertThat(dm.getOverlappingAppointments(from, to, null)).extracting(Appointment::getAppointmentId)
+                .containsExactly(transactionId, addedId, asyncId);
+        assertThrows(DataManagerException.class, () -> dm.inTransaction(transaction -> {
+            transaction.removeAppointmentById(addedId);
+            throw new IllegalStateException("rolled back");
+        }));
+        assertThat(dm.getOverlappingAppointments(from, to, null)).extracting(Appointment::getAppointmentId)
+                .containsExactly(transactionId, addedId, asyncId);
+
+        dm.removeAllAppointments();
+        assertThat(dm.getOverlappingAppointments(from, to, null)).isEmpty();
+    }
+
+    @Test
+    void testOverlappingOccurrencesOfSeries() throws DataManagerException {
+        Appointment series = new Appointment(LocalDateTime.of(2025, 3, 3, 10, 0), LocalDateTime.of(2025, 3, 3, 11, 0),
+                "Yoga", null, new ArrayList<>());
+        series.setRecurrence(Recurrence.of(Recurrence.Frequency.WEEKLY, 1).withException(LocalDateTime.of(2025, 3, 17, 10, 0)));
+        int seriesId = dm.addAppointment(series);
+
+        List<Appointment> overlapping = dm.getOverlappingAppointments(LocalDateTime.of(2025, 3, 10, 10, 30), LocalDateTime.of(2025, 3, 10, 12, 0), null);
+        assertThat(overlapping).extracting(Appointment::getAppointmentId).containsExactly(seriesId);
+        assertEquals(LocalDateTime.of(2025, 3, 10, 10, 0), overlapping.getFirst().getStartDate());
+        assertThat(dm.getOverlappingAppointments(LocalDateTime.of(2025, 3, 17, 10, 0), LocalDateTime.of(2025, 3, 17, 11, 0), null))
+                .as("A skipped occurrence does not overlap").isEmpty();
+
+        // tags are changed on the series, an occurrence cannot be saved
+        Appointment stored = dm.getAppointmentById(seriesId).orElseThrow();
+        stored.getTags().add(new Tag(2, "Work", "blue"));
+        dm.updateAppointment(stored);
+        assertThat(dm.getOverlappingAppointments(LocalDateTime.of(2030, 3, 4, 10, 0), LocalDateTime.of(2030, 3, 4, 10, 1), "work"))
+                .extracting(Appointment::getStartDate)
+                .containsExactly(LocalDateTime.of(2030, 3, 4, 10, 0));
+    }
+
+    @Test
+    void testOverlappingAppointmentsMatchAFullScan() throws DataManagerException {
+        Random random = new Random(18);
+        LocalDateTime origin = LocalDateTime.of(2026, 1, 1, 0, 0);
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            LocalDateTime start = origin.plusMinutes(15L * random.nextInt(2000));
+            appointments.add(new Appointment(start, start.plusMinutes(15L * random.nextInt(12)), "Random " + i, null, new ArrayList<>()));
+        }
+        List<Integer> appointmentIds = dm.addAppointments(appointments);
+        // loads the tree, so the following writes update it
+        dm.getOverlappingAppointments(origin, origin.plusHours(1), null);
+
+        for (int i = 0; i < 150; i++) {
+            int appointmentId = appointmentIds.get(random.nextInt(appointmentIds.size()));
+            if (random.nextBoolean()) {
+                dm.removeAppointmentById(appointmentId);
+            } else {
+                Optional<Appointment> appointment = dm.getAppointmentById(appointmentId);
+                if (appointment.isPresent()) {
+                    LocalDateTime start = origin.plusMinutes(15L * random.nextInt(2000));
+                    appointment.get().setStartDate(start);
+                    appointment.get().setEndDate(start.plusMinutes(15L * random.nextInt(12)));
+                    dm.updateAppointment(appointment.get());
+                }
+            }
+        }
+
+        for (int i = 0; i < 50; i++) {
+            LocalDateTime from = origin.plusMinutes(5L * random.nextInt(6000));
+            LocalDateTime to = from.plusMinutes(5L * random.nextInt(100));
+            List<Integer> expected = dm.getAppointmentsByRange(from, to).stream()
+                    .filter(appointment -> appointment.getStartDate().isBefore(to.equals(from) ? to.plusSeconds(1) : to)
+                            && (appointment.getEndDate().isAfter(from)
+                            || (appointment.getEndDate().equals(appointment.getStartDate()) && !appointment.getStartDate().isBefore(from))))
+                    .map(Appointment::getAppointmentId)
+                    .toList();
+            assertThat(dm.getOverlappingAppointments(from, to, null)).extracting(Appointment::getAppointmentId)
+                    .as("overlapping %s to %s", from, to)
+                    .containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void testFreeSlotsWithinWorkingHours() throws DataManagerException {
+        LocalDate monday = LocalDate.of(2027, 3, 1);
+        dm.addAppointment(new Appointment(monday.atTime(9, 30), monday.atTime(10, 0), "Standup", null, new ArrayList<>()));
+        dm.addAppointment(new Appointment(monday.atTime(11, 0), monday.atTime(12, 0), "Review", null,
+                new ArrayList<>(List.of(new Tag(2, "Work", "blue")))));
+        dm.addAppointment(new Appointment(monday.atTime(11, 30), monday.atTime(13, 0), "Lunch", null, new ArrayList<>()));
+        WorkingHours nineToFive = WorkingHours.weekdays(LocalTime.of(9, 0), LocalTime.of(17, 0));
+
+        List<FreeSlot> slots = dm.findFreeSlots(monday.atStartOfDay(), monday.plusDays(2).atStartOfDay(),
+                Duration.ofMinutes(30), nineToFive, List.of(), 10);
+        assertThat(slots).containsExactly(
+                new FreeSlot(monday.atTime(9, 0), monday.atTime(9, 30)),
+                new FreeSlot(monday.atTime(10, 0), monday.atTime(11, 0)),
+                new FreeSlot(monday.atTime(13, 0), monday.atTime(17, 0)),
+                new FreeSlot(monday.plusDays(1).atTime(9, 0), monday.plusDays(1).atTime(17, 0)));
+
+        assertThat(dm.findFreeSlots(monday.atStartOfDay(), monday.plusDays(2).atStartOfDay(),
+                Duration.ofMinutes(45), nineToFive, List.of("WORK"), 2))
+                .as("Appointments with an ignored tag do not block the time")
+                .containsExactly(
+                        new FreeSlot(monday.atTime(10, 0), monday.atTime(11, 30)),
+                        new FreeSlot(monday.atTime(13, 0), monday.atTime(17, 0)));
+
+        // a unit of work sees its own appointments before the tree does
+        List<FreeSlot> inTransaction = dm.inTransaction(transaction -> {
+            transaction.addAppointment(new Appointment(monday.atTime(14, 0), monday.atTime(15, 0), "Call", null, new ArrayList<>()));
+            return transaction.findFreeSlots(monday.atTime(12, 0), monday.atTime(17, 0), Duration.ofMinutes(30), nineToFive, List.of(), 10);
+        });
+        assertThat(inTransaction).containsExactly(
+                new FreeSlot(monday.atTime(13, 0), monday.atTime(14, 0)),
+                new FreeSlot(monday.atTime(15, 0), monday.atTime(17, 0)));
+    }
+
+    @Test
+    void testFreeSlotsBetweenOccurrencesSpanNights() throws DataManagerException {
+        LocalDate saturday = LocalDate.of(2027, 3, 6);
+        Appointment series = new Appointment(saturday.atTime(12, 0), saturday.atTime(13, 0), "Lunch", null, new ArrayList<>());
+        series.setRecurrence(Recurrence.of(Recurrence.Frequency.DAILY, 1).withCount(3).withException(saturday.plusDays(1).atTime(12, 0)));
+        dm.addAppointment(series);
+
+        assertThat(dm.findFreeSlots(saturday.atStartOfDay(), saturday.plusDays(3).atStartOfDay(),
+                Duration.ofHours(2), WorkingHours.ALWAYS, List.of(), 10))
+                .containsExactly(
+                        new FreeSlot(saturday.atStartOfDay(), saturday.atTime(12, 0)),
+                        new FreeSlot(saturday.atTime(13, 0), saturday.plusDays(2).atTime(12, 0)),
+                        new FreeSlot(saturday.plusDays(2).atTime(13, 0), saturday.plusDays(3).atStartOfDay()));
+        assertThat(dm.findFreeSlots(saturday.atStartOfDay(), saturday.plusDays(3).atStartOfDay(),
+                Duration.ofHours(24), WorkingHours.ALWAYS, List.of(), 10))
+                .containsExactly(new FreeSlot(saturday.atTime(13, 0), saturday.plusDays(2).atTime(12, 0)));
+        assertThrows(IllegalArgumentException.class, () -> dm.findFreeSlots(saturday.atStartOfDay(),
+                saturday.plusDays(1).atStartOfDay(), Duration.ZERO, WorkingHours.ALWAYS, List.of(), 1));
+    }
+
+    @Test
+    void testDaySummariesFollowWrites() throws DataManagerException {
+        LocalDate day = LocalDate.of(2027, 5, 10);
+        Appointment trip = new Appointment(day.atTime(18, 0), day.plusDays(2).atTime(9, 0), "Trip", null,
+                new ArrayList<>(List.of(new Tag(2, "Work", "blue"), new Tag(1, "Personal", "red"))));
+        int tripId = dm.addAppointment(trip);
+        int breakfastId = dm.addAppointment(new Appointment(day.plusDays(1).atTime(8, 0), day.plusDays(1).atTime(9, 0),
+                "Breakfast", null, new ArrayList<>()));
+
+        assertThat(dm.getDaySummaries(day.minusDays(1), day.plusDays(3))).containsExactly(
+                new DaySummary(day, 1, day.atTime(18, 0), tripId, "red"),
+                new DaySummary(day.plusDays(1), 2, day.atTime(18, 0), tripId, "red"),
+                new DaySummary(day.plusDays(2), 1, day.atTime(18, 0), tripId, "red"));
+
+        Appointment moved = dm.getAppointmentById(tripId).orElseThrow();
+        moved.setStartDate(day.plusDays(1).atTime(12, 0));
+        dm.updateAppointment(moved);
+        assertThat(dm.getDaySummaries(day.minusDays(1), day.plusDays(3))).containsExactly(
+                new DaySummary(day.plusDays(1), 2, day.plusDays(1).atTime(8, 0), breakfastId, null),
+                new DaySummary(day.plusDays(2), 1, day.plusDays(1).atTime(12, 0), tripId, "red"));
+
+        // occurrences are counted when read, the series itself is not in the table
+        Appointment series = new Appointment(day.atTime(7, 0), day.atTime(7, 30), "Run", null,
+                new ArrayList<>(List.of(new Tag(2, "Work", "blue"))));
+        series.setRecurrence(Recurrence.of(Recurrence.Frequency.DAILY, 2));
+        int seriesId = dm.addAppointment(series);
+        dm.removeAppointmentById(breakfastId);
+        assertThat(dm.getDaySummaries(day.minusDays(1), day.plusDays(3))).containsExactly(
+                new DaySummary(day, 1, day.atTime(7, 0), seriesId, "blue"),
+                new DaySummary(day.plusDays(1), 1, day.plusDays(1).atTime(12, 0), tripId, "red"),
+                new DaySummary(day.plusDays(2), 2, day.plusDays(1).atTime(12, 0), tripId, "red"));
+    }
+
+    @Test
+    void testDaySummariesMatchTheAppointmentsOfEachDay() throws DataManagerException {
+        Random random = new Random(20);
+        LocalDate firstDay = LocalDate.of(2027, 8, 1);
+        LocalDate lastDay = firstDay.plusDays(60);
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            appointments.add(randomAppointment(random, firstDay, "Random " + i));
+        }
+        List<Integer> appointmentIds = dm.addAppointments(appointments);
+
+        for (int i = 0; i < 200; i++) {
+            int appointmentId = appointmentIds.get(random.nextInt(appointmentIds.size()));
+            switch (random.nextInt(3)) {
+                case 0 -> dm.removeAppointmentById(appointmentId);
+                case 1 -> dm.addAppointment(randomAppointment(random, firstDay, "Added " + i));
+                default -> {
+                    Optional<Appointment> appointment = dm.getAppointmentById(appointmentId);
+                    if (appointment.isPresent()) {
+                        Appointment changed = randomAppointment(random, firstDay, null);
+                        appointment.get().setStartDate(changed.getStartDate());
+                        appointment.get().setEndDate(changed.getEndDate());
+                        dm.updateAppointment(appointment.get());
+                    }
+                }
+            }
+        }
+
+        List<Appointment> inRange = dm.getAppointmentsByRange(firstDay.atStartOfDay(), lastDay.atTime(23, 59, 59));
+        for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            LocalDate currentDay = day;
+            List<Appointment> ofDay = inRange.stream()
+                    .filter(appointment -> !appointment.getStartDate().toLocalDate().isAfter(currentDay)
+                            && !appointment.getEndDate().toLocalDate().isBefore(currentDay))
+                    .toList();
+            List<DaySummary> summaries = dm.getDaySummaries(day, day);
+            if (ofDay.isEmpty()) {
+                assertThat(summaries).as("summary of %s", day).isEmpty();
+                continue;
+            }
+            Appointment first = ofDay.getFirst();
+            assertThat(summaries).as("summary of %s", day).containsExactly(new DaySummary(day, ofDay.size(),
+                    first.getStartDate(), first.getAppointmentId(), first.getTags().isEmpty() ? null : first.getTags().getFirst().getColor()));
+        }
+    }
+
+    private static Appointment randomAppointment(Random random, LocalDate firstDay, String title) {
+        LocalDateTime start = firstDay.atStartOfDay().plusMinutes(30L * random.nextInt(48 * 60));
+        List<Tag> tags = new ArrayList<>();
+        if (random.nextBoolean()) {
+            tags.add(random.nextBoolean() ? new Tag(1, "Personal", "red") : new Tag(2, "Work", "blue"));
+        }
+        // mostly short, some over several days
+        long minutes = random.nextInt(10) == 0 ? 60L * random.nextInt(96) : 30L * random.nextInt(8);
+        return new Appointment(start, start.plusMinutes(minutes), title, null, tags);
+    }
+
+    @Test
+    void testAppointmentQueriesLoadTagsInOneStatement() throws DataManagerException {
+        StatementCounter counter = new StatementCounter();
+        JooqDataManager countingDm = new JooqDataManager("src/test/resources/javenderDataBase.db", counter);
+
+        try {
+            List<Appointment> byRange = countingDm.getAppointmentsByRange(
+                    LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2025, 1, 2, 16, 0));
+            assertThat(byRange).hasSize(3);
+            assertEquals(2, counter.count, "Range query should need one statement for appointments and one for tags");
+
+            counter.count = 0;
+            List<Appointment> upcoming = countingDm.getUpcomingAppointments(LocalDateTime.of(2025, 1, 1, 0, 0), 3);
+            assertThat(upcoming).hasSize(3);
+            assertEquals(2, counter.count, "Upcoming query should need one statement for appointments and one for tags");
+
+            // the first tag filtered query also loads the tag IDs by name
+            countingDm.getUpcomingAppointmentsByTag(LocalDateTime.of(2025, 1, 1, 0, 0), 3, "work");
+            counter.count = 0;
+            List<Appointment> byTag = countingDm.getUpcomingAppointmentsByTag(LocalDateTime.of(2025, 1, 1, 0, 0), 3, "work");
+            assertThat(byTag).hasSize(2);
+            assertEquals(2, counter.count, "Tag query should need one statement for appointments and one for tags");
+
+            counter.count = 0;
+            List<Appointment> byDate = countingDm.getAppointmentsByDate(LocalDate.of(2025, 1, 1), JooqDataManager.DateFilter.STARTDATE);
+            assertThat(byDate).hasSize(2);
+            assertEquals(2, counter.count, "Date query should need one statement for appointments and one for tags");
+
+            counter.count = 0;
+            List<Appointment> byTitle = countingDm.getAppointmentsByTitle("Team Meeting");
+            assertThat(byTitle).hasSize(1);
+            assertThat(byTitle.getFirst().getTags()).containsExactly(new Tag(2, "Work", "blue"));
+            assertEquals(2, counter.count, "Title query should need one statement for appointments and one for tags");
+        } finally {
+            countingDm.close();
+        }
+    }
+}
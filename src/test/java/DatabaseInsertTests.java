@@ -3,6 +3,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import Model.Database.DataManager;
 import Model.Database.JooqDataManager;
 import Model.Database.DataManagerException;
+import Model.Database.SqliteProfile;
 import Model.Entities.Appointment;
 import Model.Entities.Tag;
 import org.junit.jupiter.api.*;
@@ -13,9 +14,18 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class DatabaseInsertTests {
@@ -194,4 +204,190 @@ public class DatabaseInsertTests {
         List<Tag> tagsAfterRemoval = dm.getTagsByAppointmentId(insertedId);
         assertTrue(tagsAfterRemoval.isEmpty(), "Tags associated with the removed appointment should also be removed");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testAddAppointmentsReturnsIdsInOrder() throws DataManagerException {
+        int tagId = dm.addTag(new Tag("Bulk", "green"));
+        Tag bulkTag = new Tag(tagId, "Bulk", "green");
+
+        List<Appointment> appointments = Arrays.asList(
+                new Appointment(LocalDateTime.parse("2030-10-01T08:00:00"), LocalDateTime.parse("2030-10-01T09:00:00"),
+                        "First", "first of five", List.of(bulkTag)),
+                new Appointment(LocalDateTime.parse("2030-09-01T08:00:00"), LocalDateTime.parse("2030-09-01T09:00:00"),
+                        "Second", "starts before the first one", List.of()),
+                new Appointment(LocalDateTime.parse("2030-10-02T08:00:00"), LocalDateTime.parse("2030-10-02T09:00:00"),
+                        "Third", "tag listed twice", List.of(bulkTag, bulkTag)),
+                new Appointment(LocalDateTime.parse("2030-10-03T08:00:00"), LocalDateTime.parse("2030-10-03T09:00:00"),
+                        "Fourth", null, null),
+                new Appointment(LocalDateTime.parse("2030-10-04T08:00:00"), LocalDateTime.parse("2030-10-04T09:00:00"),
+                        "Fifth", "last chunk", List.of(bulkTag))
+        );
+
+        // a chunk size of 2 splits the insert into three statements
+        List<Integer> insertedIds = ((JooqDataManager) dm).addAppointments(appointments, 2);
+        assertEquals(appointments.size(), insertedIds.size(), "Every appointment should get an ID");
+
+        for (int i = 0; i < appointments.size(); i++) {
+            Appointment expected = appointments.get(i);
+            Appointment actual = dm.getAppointmentById(insertedIds.get(i)).orElseThrow();
+            assertEquals(expected.getTitle(), actual.getTitle(), "IDs should be returned in insertion order");
+            assertEquals(expected.getStartDate(), actual.getStartDate(), "Start dates should match");
+            assertEquals(expected.getDescription(), actual.getDescription(), "Descriptions should match");
+            List<Tag> expectedTags = expected.getTags() == null ? List.of() : expected.getTags().stream().distinct().toList();
+            assertEquals(expectedTags, actual.getTags(), "Tags should match without duplicates");
+        }
+
+        assertTrue(dm.addAppointments(List.of()).isEmpty(), "Adding nothing should return no IDs");
+    }
+
+    @Test
+    void testConcurrentWritesAndReads() throws Exception {
+        int threads = 8;
+        int appointmentsPerThread = 25;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<Integer>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    List<Integer> ids = new ArrayList<>();
+                    for (int i = 0; i < appointmentsPerThread; i++) {
+                        LocalDateTime start = LocalDateTime.parse("2030-01-01T08:00:00").plusDays(thread).plusMinutes(i);
+                        ids.add(dm.addAppointment(new Appointment(start, start.plusMinutes(30),
+                                "Concurrent " + thread, "write " + i, List.of())));
+                        // reads run on their own connections next to the writer
+                        assertFalse(dm.getAppointmentsByRange(start, start).isEmpty(), "A committed write should be visible");
+                    }
+                    return ids;
+                }));
+            }
+
+            Set<Integer> allIds = new HashSet<>();
+            for (Future<List<Integer>> future : futures) {
+                allIds.addAll(future.get(30, TimeUnit.SECONDS));
+            }
+            assertEquals(threads * appointmentsPerThread, allIds.size(), "Every write should succeed with its own ID");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testAsyncWritesAreIsolatedWithinAGroup() throws Exception {
+        Tag personal = new Tag(dm.addTag(new Tag("Async", "blue")), "Async", "blue");
+        LocalDateTime start = LocalDateTime.parse("2031-05-01T08:00:00");
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(dm.addAppointmentAsync(new Appointment(start.plusHours(i), start.plusHours(i).plusMinutes(30),
+                    "Async " + i, "", List.of(personal)), false));
+        }
+        // the tag does not exist, the foreign key rejects only this appointment
+        CompletableFuture<Integer> failing = dm.addAppointmentAsync(new Appointment(start, start,
+                "Broken", "", List.of(new Tag(Integer.MAX_VALUE, "Missing", "red"))), false);
+        CompletableFuture<Integer> durable = dm.addAppointmentAsync(new Appointment(start, start,
+                "Durable", "", List.of()), true);
+
+        Set<Integer> ids = new HashSet<>();
+        for (CompletableFuture<Integer> future : futures) {
+            ids.add(future.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(50, ids.size(), "Every async write should get its own ID");
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> failing.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(DataManagerException.class, failure.getCause());
+
+        int durableId = durable.get(10, TimeUnit.SECONDS);
+        assertEquals("Durable", dm.getAppointmentById(durableId).orElseThrow().getTitle());
+        assertEquals(51, dm.getAppointmentsByRange(start, start.plusDays(3)).size(),
+                "The failed write should be rolled back alone");
+
+        dm.updateAppointmentAsync(new Appointment(durableId, start, start, "Durable changed", "", List.of()), true)
+                .get(10, TimeUnit.SECONDS);
+        dm.removeAppointmentByIdAsync(ids.iterator().next(), false).get(10, TimeUnit.SECONDS);
+        assertEquals("Durable changed", dm.getAppointmentById(durableId).orElseThrow().getTitle());
+        assertEquals(50, dm.getAppointmentsByRange(start, start.plusDays(3)).size());
+    }
+
+    @Test
+    void testUnitOfWorkWorksWithASingleReaderConnection() throws Exception {
+        try (JooqDataManager single = new JooqDataManager("src/test/resources/javenderDataBase.db", SqliteProfile.DURABLE, 1)) {
+            LocalDateTime start = LocalDateTime.parse("2032-02-01T09:00:00");
+            int tagId = single.addTag(new Tag("Single", "red"));
+            single.addAppointments(List.of(
+                    new Appointment(start, start.plusHours(1), "First", "", List.of()),
+                    new Appointment(start.plusDays(1), start.plusDays(1).plusHours(1), "Second", "", List.of())));
+
+            // the cursor holds the only reader connection while the updates run
+            single.forEachAppointment(appointment -> {
+                appointment.setTitle(appointment.getTitle() + " renamed");
+                single.updateAppointment(appointment);
+            });
+
+            int movedId = single.inTransaction(transaction -> {
+                Appointment appointment = transaction.getAppointmentsByTitle("First renamed").getFirst();
+                appointment.setStartDate(start.plusHours(2));
+                appointment.setEndDate(start.plusHours(3));
+                appointment.setTags(List.of(transaction.getTagById(tagId).orElseThrow()));
+                transaction.updateAppointment(appointment);
+                assertEquals(1, transaction.getTagsByAppointmentId(appointment.getAppointmentId()).size(),
+                        "Reads in the unit of work should see its own writes");
+                return appointment.getAppointmentId();
+            });
+
+            assertEquals(start.plusHours(2), single.getAppointmentById(movedId).orElseThrow().getStartDate());
+            assertEquals(List.of("Second renamed"), single.getAppointmentsByTitle("Second renamed").stream().map(Appointment::getTitle).toList());
+        }
+    }
+
+    @Test
+    void testFailingUnitOfWorkIsRolledBack() throws DataManagerException {
+        LocalDateTime start = LocalDateTime.parse("2032-03-01T09:00:00");
+        int appointmentId = dm.addAppointment(new Appointment(start, start.plusHours(1), "Kept", "", List.of()));
+
+        assertThrows(DataManagerException.class, () -> dm.inTransaction(transaction -> {
+            transaction.removeAppointmentById(appointmentId);
+            transaction.addTag(new Tag("Discarded", "red"));
+            throw new IllegalStateException("Abort the unit of work");
+        }));
+
+        assertTrue(dm.getAppointmentById(appointmentId).isPresent(), "The removal should be rolled back");
+        assertTrue(dm.getTagByName("Discarded").isEmpty(), "The new tag should be rolled back");
+    }
+
+    @Test
+    void testDataVersionGrowsWithCommittedWrites() throws Exception {
+        LocalDateTime start = LocalDateTime.parse("2032-04-01T09:00:00");
+        long version = dm.getDataVersion();
+
+        dm.getAppointmentsByRange(start, start.plusDays(1));
+        assertEquals(version, dm.getDataVersion(), "Reads should not change the version");
+
+        int appointmentId = dm.addAppointment(new Appointment(start, start.plusHours(1), "Versioned", "", List.of()));
+        long afterAdd = dm.getDataVersion();
+        assertTrue(afterAdd > version);
+
+        dm.removeAppointmentByIdAsync(appointmentId, false).get(10, TimeUnit.SECONDS);
+        long afterRemove = dm.getDataVersion();
+        assertTrue(afterRemove > afterAdd, "The version should grow before the future completes");
+
+        assertThrows(DataManagerException.class, () -> dm.inTransaction(transaction -> {
+            transaction.addTag(new Tag("Discarded", "red"));
+            throw new IllegalStateException("Abort the unit of work");
+        }));
+        assertEquals(afterRemove, dm.getDataVersion(), "A rolled back unit of work should not change the version");
+    }
+
+    @Test
+    @Timeout(10)
+    void testWriteThrowingAnErrorDoesNotStopTheWriter() throws Exception {
+        assertThrows(DataManagerException.class, () -> dm.inTransaction(transaction -> {
+            transaction.addTag(new Tag("Discarded", "red"));
+            throw new StackOverflowError("Fail the write with an error");
+        }));
+        assertTrue(dm.getTagByName("Discarded").isEmpty(), "The write failing with an error should be rolled back");
+
+        int tagId = dm.addTag(new Tag("After the error", "blue"));
+        assertEquals("After the error", dm.getTagById(tagId).orElseThrow().getName(), "Later writes should still be committed");
+    }
+}
@@ -0,0 +1,267 @@
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.*;
+
+import Model.Database.DataManagerException;
+import Model.Database.JooqDataManager;
+import Model.Entities.Appointment;
+import Model.Entities.Recurrence;
+import Model.Entities.Tag;
+import Model.ICalendar.ICalendarEvent;
+import Model.ICalendar.ICalendarReader;
+import Model.ICalendar.ICalendarTransfer;
+import Model.ICalendar.ICalendarWriter;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TimeZone;
+
+public class ICalendarTests {
+
+    private JooqDataManager dm;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setupDatabase() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:src/test/resources/javenderDataBase.db");
+             Statement statement = connection.createStatement()) {
+
+            String setupSql = Files.readString(Paths.get("src/test/resources/AddTestAppointments.sql"));
+            statement.executeUpdate(setupSql);
+        }
+
+        dm = new JooqDataManager("src/test/resources/javenderDataBase.db");
+    }
+
+    @AfterEach
+    void cleanupDatabase() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:src/test/resources/javenderDataBase.db");
+             Statement statement = connection.createStatement()) {
+
+            String cleanupSql = Files.readString(Paths.get("src/test/resources/DeleteTestAppointments.sql"));
+            statement.executeUpdate(cleanupSql);
+        }
+        dm.close();
+    }
+
+    @Test
+    void testExportAndImportRoundTrip() throws IOException, DataManagerException {
+        Appointment special = new Appointment(
+                LocalDateTime.parse("2025-03-01T10:00:00"),
+                LocalDateTime.parse("2025-03-03T18:30:00"),
+                "Trip; Berlin, Hamburg",
+                "Packing list:\nSocks, shoes \\ ümlauts and a very long line that has to be folded because it is longer than the limit",
+                List.of(dm.getTagByName("Personal").orElseThrow(), dm.getTagByName("Work").orElseThrow()));
+        special.setRecurrence(Recurrence.of(Recurrence.Frequency.WEEKLY, 2)
+                .withCount(5)
+                .withException(LocalDateTime.parse("2025-03-15T10:00:00")));
+        dm.addAppointment(special);
+
+        List<Appointment> before = new ArrayList<>();
+        dm.forEachAppointment(before::add);
+
+        Path file = tempDir.resolve("calendar.ics");
+        ICalendarTransfer transfer = new ICalendarTransfer(dm);
+        assertEquals(4, transfer.exportTo(file));
+
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            assertThat(line.getBytes(StandardCharsets.UTF_8).length).as("folded line %s", line).isLessThanOrEqualTo(75);
+        }
+
+        dm.removeAllAppointments();
+        ICalendarTransfer.ImportResult result = transfer.importFrom(file);
+        assertEquals(4, result.importedCount());
+        assertEquals(0, result.skippedCount());
+
+        List<Appointment> after = new ArrayList<>();
+        dm.forEachAppointment(after::add);
+
+        assertThat(after).hasSameSizeAs(before);
+        for (int i = 0; i < before.size(); i++) {
+            assertEquals(before.get(i).getTitle(), after.get(i).getTitle());
+            assertEquals(before.get(i).getDescription(), after.get(i).getDescription());
+            assertEquals(before.get(i).getStartDate(), after.get(i).getStartDate());
+            assertEquals(before.get(i).getEndDate(), after.get(i).getEndDate());
+            assertEquals(before.get(i).getTags(), after.get(i).getTags(), "Categories should map back to the existing tags");
+            assertEquals(before.get(i).getRecurrence(), after.get(i).getRecurrence());
+        }
+        assertEquals(2, dm.getAllTags().size(), "No tags should be created for known categories");
+    }
+
+    @Test
+    void testImportMatchesCategoriesIgnoringCase() throws IOException, DataManagerException {
+        Path file = tempDir.resolve("categories.ics");
+        Files.writeString(file, String.join("\r\n",
+                "BEGIN:VCALENDAR",
+                "VERSION:2.0",
+                "BEGIN:VEVENT",
+                "DTSTART:20250401T090000",
+                "DTEND:20250401T100000",
+                "SUMMARY:Standup",
+                "CATEGORIES:work,PERSONAL,Travel,TRAVEL",
+                "END:VEVENT",
+                "END:VCALENDAR",
+                ""), StandardCharsets.UTF_8);
+
+        ICalendarTransfer.ImportResult result = new ICalendarTransfer(dm).importFrom(file);
+        assertEquals(1, result.importedCount());
+
+        Appointment imported = dm.getAppointmentsByTitle("Standup").getFirst();
+        assertEquals(List.of("Personal", "Work", "Travel"), imported.getTags().stream().map(Tag::getName).toList(),
+                "Categories differing only in case should map to one tag");
+        assertEquals(3, dm.getAllTags().size());
+    }
+
+    @Test
+    void testReaderHandlesFoldingTimeZonesAndAllDayEvents() throws IOException {
+        String calendar = String.join("\r\n",
+                "BEGIN:VCALENDAR",
+                "BEGIN:VTIMEZONE",
+                "TZID:Europe/Berlin",
+                "END:VTIMEZONE",
+                "BEGIN:VEVENT",
+                "DTSTART;TZID=\"Europe/Berlin\":20250601T090000",
+                "DURATION:PT1H30M",
+                "SUMMARY:Folded",
+                "  summary",
+                "CATEGORIES:Work,Home\\, Garden",
+                "BEGIN:VALARM",
+                "DESCRIPTION:Reminder that is not the description",
+                "END:VALARM",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "DTSTART;VALUE=DATE:20250704",
+                "DTEND;VALUE=DATE:20250706",
+                "SUMMARY:Weekend",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "DTSTART:20250101T120000Z",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "SUMMARY:No start",
+                "END:VEVENT",
+                "END:VCALENDAR");
+
+        try (ICalendarReader reader = new ICalendarReader(new StringReader(calendar))) {
+            ICalendarEvent folded = reader.readEvent().orElseThrow();
+            LocalDateTime berlinStart = LocalDateTime.parse("2025-06-01T09:00:00")
+                    .atZone(ZoneId.of("Europe/Berlin")).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            assertEquals("Folded summary", folded.title());
+            assertEquals(berlinStart, folded.startDate());
+            assertEquals(berlinStart.plusMinutes(90), folded.endDate());
+            assertNull(folded.description(), "Properties of the alarm do not belong to the event");
+            assertEquals(List.of("Work", "Home, Garden"), folded.categories());
+
+            ICalendarEvent allDay = reader.readEvent().orElseThrow();
+            assertEquals(LocalDateTime.parse("2025-07-04T00:00:00"), allDay.startDate());
+            assertEquals(LocalDateTime.parse("2025-07-05T23:59:00"), allDay.endDate(), "DTEND of all-day events is exclusive");
+
+            ICalendarEvent utc = reader.readEvent().orElseThrow();
+            LocalDateTime utcStart = LocalDateTime.parse("2025-01-01T12:00:00")
+                    .atZone(ZoneOffset.UTC).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            assertEquals(utcStart, utc.startDate());
+            assertEquals(utcStart, utc.endDate());
+            assertEquals("Untitled", utc.title());
+
+            assertEquals(Optional.empty(), reader.readEvent());
+            assertEquals(1, reader.getSkippedEventCount());
+        }
+    }
+
+    @Test
+    void testReaderReadsRecurrences() throws IOException {
+        String calendar = String.join("\r\n",
+                "BEGIN:VCALENDAR",
+                "BEGIN:VEVENT",
+                "DTSTART:20250106T080000",
+                "DTEND:20250106T083000",
+                "RRULE:FREQ=DAILY;INTERVAL=2;UNTIL=20250131;WKST=MO",
+                "EXDATE;VALUE=DATE:20250110,20250112",
+                "EXDATE:20250114T080000",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "DTSTART:20250106T080000",
+                "RRULE:FREQ=WEEKLY;BYDAY=MO,TH",
+                "END:VEVENT",
+                "END:VCALENDAR");
+
+        try (ICalendarReader reader = new ICalendarReader(new StringReader(calendar))) {
+            ICalendarEvent daily = reader.readEvent().orElseThrow();
+            assertEquals(Recurrence.of(Recurrence.Frequency.DAILY, 2)
+                    .withUntil(LocalDateTime.parse("2025-01-31T23:59:59"))
+                    .withExceptions(List.of(
+                            LocalDateTime.parse("2025-01-10T08:00:00"),
+                            LocalDateTime.parse("2025-01-12T08:00:00"),
+                            LocalDateTime.parse("2025-01-14T08:00:00"))),
+                    daily.recurrence(), "Dates without a time skip the occurrence on that day");
+
+            ICalendarEvent byDay = reader.readEvent().orElseThrow();
+            assertNull(byDay.recurrence(), "Rules the appointments cannot express are dropped");
+            assertEquals(LocalDateTime.parse("2025-01-06T08:00:00"), byDay.startDate());
+        }
+    }
+
+    @Test
+    void testReaderConvertsUtcUntilLikeTheStart() throws IOException {
+        String calendar = String.join("\r\n",
+                "BEGIN:VCALENDAR",
+                "BEGIN:VEVENT",
+                "DTSTART;TZID=Europe/Berlin:20250602T100000",
+                "DTEND;TZID=Europe/Berlin:20250602T110000",
+                "RRULE:FREQ=DAILY;UNTIL=20250605T080000Z",
+                "END:VEVENT",
+                "END:VCALENDAR");
+
+        // a zone away from UTC, in UTC the local and the UTC time of UNTIL are the same
+        TimeZone defaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Berlin"));
+        try (ICalendarReader reader = new ICalendarReader(new StringReader(calendar))) {
+            ICalendarEvent daily = reader.readEvent().orElseThrow();
+            assertEquals(LocalDateTime.parse("2025-06-05T10:00:00"), daily.recurrence().until());
+            assertEquals(Optional.of(LocalDateTime.parse("2025-06-05T10:00:00")),
+                    daily.recurrence().lastStart(daily.startDate()), "UNTIL on the last occurrence should include it");
+        } finally {
+            TimeZone.setDefault(defaultZone);
+        }
+    }
+
+    @Test
+    void testWriterEscapesText() throws IOException {
+        StringWriter output = new StringWriter();
+        try (ICalendarWriter writer = new ICalendarWriter(output)) {
+            writer.writeEvent(new Appointment(7,
+                    LocalDateTime.parse("2025-01-01T09:00:00"),
+                    LocalDateTime.parse("2025-01-01T10:00:00"),
+                    "A, B; C",
+                    "line one\nline two",
+                    List.of(new Tag(1, "Uni, Bonn", "red"))));
+        }
+
+        assertThat(output.toString())
+                .startsWith("BEGIN:VCALENDAR\r\n")
+                .endsWith("END:VCALENDAR\r\n")
+                .contains("UID:javender-7@javender\r\n")
+                .contains("DTSTART:20250101T090000\r\n")
+                .contains("SUMMARY:A\\, B\\; C\r\n")
+                .contains("DESCRIPTION:line one\\nline two\r\n")
+                .contains("CATEGORIES:Uni\\, Bonn\r\n");
+    }
+}
@@ -0,0 +1,127 @@
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.*;
+
+import Model.Database.DataManagerException;
+import Model.Database.JooqDataManager;
+import Model.Entities.Appointment;
+import Model.Entities.Tag;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class SchemaMigrationTests {
+
+    private Path databaseFile;
+
+    @BeforeEach
+    void createLegacyDatabase() throws Exception {
+        databaseFile = Files.createTempFile("javender-migration", ".db");
+
+        // schema and data as written by the first release, dates stored as ISO text
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile);
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("""
+                    CREATE TABLE Appointment (
+                        appointmentId INTEGER PRIMARY KEY AUTOINCREMENT,
+                        startDate TEXT NOT NULL,
+                        endDate TEXT NOT NULL,
+                        title TEXT NOT NULL,
+                        description TEXT
+                    );
+                    CREATE TABLE Tag (
+                        tagId INTEGER PRIMARY KEY AUTOINCREMENT,
+                        name TEXT NOT NULL UNIQUE,
+                        color TEXT NOT NULL
+                    );
+                    CREATE TABLE AppointmentTag (
+                        appointmentId INTEGER NOT NULL,
+                        tagId INTEGER NOT NULL,
+                        PRIMARY KEY (appointmentId, tagId),
+                        FOREIGN KEY (appointmentId) REFERENCES Appointment(appointmentId) ON DELETE CASCADE,
+                        FOREIGN KEY (tagId) REFERENCES Tag(tagId) ON DELETE CASCADE
+                    );
+                    INSERT INTO Tag (tagId, name, color) VALUES (1, 'Personal', 'red');
+                    INSERT INTO Appointment (appointmentId, startDate, endDate, title, description) VALUES
+                        (1, '2025-01-01T09:00:00', '2025-01-01T10:00:00', 'Doctor Appointment', 'Annual checkup'),
+                        (5, '2025-03-02T23:30:00', '2025-03-03T01:15:00', 'Night Shift', 'Crosses midnight');
+                    INSERT INTO AppointmentTag (appointmentId, tagId) VALUES (1, 1);
+                    """);
+        }
+    }
+
+    @AfterEach
+    void deleteDatabase() throws Exception {
+        Files.deleteIfExists(databaseFile);
+    }
+
+    @Test
+    void testTextDatesAreConvertedToEpochSeconds() throws Exception {
+        JooqDataManager dm = new JooqDataManager(databaseFile.toString());
+        try {
+            Appointment appointment = dm.getAppointmentById(1).orElseThrow();
+            assertEquals(LocalDateTime.parse("2025-01-01T09:00:00"), appointment.getStartDate());
+            assertEquals(LocalDateTime.parse("2025-01-01T10:00:00"), appointment.getEndDate());
+            assertEquals(List.of(new Tag(1, "Personal", "red")), appointment.getTags(),
+                    "Tags must survive the rebuild of the appointment table");
+
+            assertThat(dm.getAppointmentsByRange(LocalDateTime.parse("2025-03-03T00:00:00"), LocalDateTime.parse("2025-03-03T23:59:59")))
+                    .extracting(Appointment::getTitle)
+                    .containsExactly("Night Shift");
+        } finally {
+            dm.close();
+        }
+
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT typeof(startDate), startDate FROM Appointment WHERE appointmentId = 1")) {
+            assertTrue(resultSet.next());
+            assertEquals("integer", resultSet.getString(1));
+            assertEquals(1735722000L, resultSet.getLong(2));
+        }
+    }
+
+    @Test
+    void testTagsDifferingOnlyInCaseAreMerged() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile);
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("""
+                    INSERT INTO Tag (tagId, name, color) VALUES (2, 'PERSONAL', 'blue');
+                    INSERT INTO AppointmentTag (appointmentId, tagId) VALUES (1, 2), (5, 2);
+                    """);
+        }
+
+        JooqDataManager dm = new JooqDataManager(databaseFile.toString());
+        try {
+            assertEquals(List.of(new Tag(1, "Personal", "red")), dm.getAllTags());
+            assertEquals(List.of(new Tag(1, "Personal", "red")), dm.getAppointmentById(1).orElseThrow().getTags());
+            assertEquals(List.of(new Tag(1, "Personal", "red")), dm.getAppointmentById(5).orElseThrow().getTags());
+            assertEquals(3, dm.addTag(new Tag("Work", "blue")), "Tag IDs must not be reused after the rebuild");
+        } finally {
+            dm.close();
+        }
+    }
+
+    @Test
+    void testNewAppointmentsDoNotReuseIdsAfterMigration() throws DataManagerException {
+        JooqDataManager dm = new JooqDataManager(databaseFile.toString());
+        try {
+            int id = dm.addAppointment(new Appointment(
+                    LocalDateTime.parse("2025-04-01T09:00:00"),
+                    LocalDateTime.parse("2025-04-01T10:00:00"),
+                    "After Migration",
+                    "",
+                    List.of()));
+            assertEquals(6, id);
+        } finally {
+            dm.close();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import Model.Database.DataManagerException;
+import Model.Database.JooqDataManager;
+import Model.Database.SqliteProfile;
+import Model.Entities.Appointment;
+import Model.Entities.Tag;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class SqliteProfileTests {
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @EnumSource(SqliteProfile.class)
+    void testProfileEnablesWalAndForeignKeys(SqliteProfile profile) throws Exception {
+        Path database = tempDir.resolve(profile + ".db");
+
+        try (JooqDataManager dm = new JooqDataManager(database.toString(), profile)) {
+            int tagId = dm.addTag(new Tag("Cascade", "red"));
+            Tag tag = new Tag(tagId, "Cascade", "red");
+            int appointmentId = dm.addAppointment(new Appointment(
+                    LocalDateTime.parse("2025-01-01T09:00:00"),
+                    LocalDateTime.parse("2025-01-01T10:00:00"),
+                    "Foreign keys",
+                    "Tag of a missing appointment",
+                    List.of(tag)));
+
+            Appointment unknownTag = new Appointment(
+                    LocalDateTime.parse("2025-01-02T09:00:00"),
+                    LocalDateTime.parse("2025-01-02T10:00:00"),
+                    "Unknown tag",
+                    "Must be rejected",
+                    List.of(new Tag(tagId + 1, "Missing", "blue")));
+            assertThrows(DataManagerException.class, () -> dm.addAppointment(unknownTag),
+                    "Tags that do not exist should be rejected by the foreign key");
+            assertEquals(List.of(tag), dm.getTagsByAppointmentId(appointmentId));
+        }
+
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA journal_mode")) {
+            assertTrue(resultSet.next());
+            assertEquals("wal", resultSet.getString(1), "WAL mode is stored in the database file");
+        }
+    }
+
+    @Test
+    void testFromName() {
+        assertEquals(SqliteProfile.FAST, SqliteProfile.fromName(" Fast"));
+        assertEquals(SqliteProfile.DURABLE, SqliteProfile.fromName("durable"));
+        assertThrows(IllegalArgumentException.class, () -> SqliteProfile.fromName("unsafe"));
+    }
+}
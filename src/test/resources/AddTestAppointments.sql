@@ -3,15 +3,17 @@ DELETE FROM AppointmentTag;
 DELETE FROM Appointment;
 DELETE FROM Tag;
 
+-- startDate and endDate are epoch seconds of the local date time, e.g. 1735722000 = 2025-01-01T09:00:00
+
 INSERT INTO Tag (tagId, name, color) VALUES (1, 'Personal', 'red');
 INSERT INTO Tag (tagId, name, color) VALUES (2, 'Work', 'blue');
 
 INSERT INTO Appointment (appointmentId, startDate, endDate, title, description) VALUES
-    (1, '2025-01-01T09:00:00', '2025-01-01T10:00:00', 'Doctor Appointment', 'Annual checkup');
+    (1, 1735722000, 1735725600, 'Doctor Appointment', 'Annual checkup');
 INSERT INTO Appointment (appointmentId, startDate, endDate, title, description) VALUES
-    (2, '2025-01-01T11:00:00', '2025-01-01T12:00:00', 'Team Meeting', 'Monthly progress update');
+    (2, 1735729200, 1735732800, 'Team Meeting', 'Monthly progress update');
 INSERT INTO Appointment (appointmentId, startDate, endDate, title, description) VALUES
-    (3, '2025-01-02T14:00:00', '2025-01-02T15:00:00', 'Client Presentation', 'Present new project proposal');
+    (3, 1735826400, 1735830000, 'Client Presentation', 'Present new project proposal');
 
 INSERT INTO AppointmentTag (appointmentId, tagId) VALUES (1, 1);
 INSERT INTO AppointmentTag (appointmentId, tagId) VALUES (2, 2);